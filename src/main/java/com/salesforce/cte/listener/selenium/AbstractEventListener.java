@@ -18,7 +18,6 @@ package com.salesforce.cte.listener.selenium;
 
 import java.io.File;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -39,6 +38,7 @@ import org.openqa.selenium.interactions.Coordinates;
 import org.openqa.selenium.interactions.Sequence;
 import org.openqa.selenium.print.PrintOptions;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.salesforce.cte.admin.TestAdvisorAdministrator;
 import com.salesforce.cte.common.TestEvent;
@@ -57,10 +57,23 @@ import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
  * @since 1.0
  */
 public abstract class AbstractEventListener implements IEventListener {
-	@JsonProperty("logEntries")
-	protected List<WebDriverEvent> logEntries = new ArrayList<>();
+	// replaced at the end of a test case if segmentation is enabled, while events may be recorded on another thread
+	@JsonIgnore
+	protected volatile IEventStore logEntries = ListenerRegistry.createEventStore();
+	// in flight recorder mode, events are kept here until the flight recorder persists them
+	@JsonIgnore
+	private volatile IEventStore pendingEntries = null;
+	@JsonIgnore
+	protected FlightRecorder flightRecorder = null;
+	@JsonIgnore
+	private final ReturnObjectRetention returnObjectRetention = ListenerConfiguration.getReturnObjectRetention();
+	// null if large payloads are kept in the recorded events
+	private final PayloadStore payloadStore = PayloadStore.getConfiguredInstance();
+	@JsonIgnore
+	private final boolean isSegmented = ListenerConfiguration.getSegmentationEnabled();
 	protected TestAdvisorAdministrator administrator = TestAdvisorAdministrator.getInstance();
-    protected ThreadLocal<String> cachedSendKeysLocator = new ThreadLocal<>();
+    // locator of the latest sendKeys of this session, which may be recorded on the pipeline thread
+    protected volatile String cachedSendKeysLocator = null;
 
 	public void setWebDriver(WebDriver driver){
 	}
@@ -814,10 +827,104 @@ public abstract class AbstractEventListener implements IEventListener {
 	public void afterUploadFile(WebDriverEvent event, WebElement element, File localFile, String response) {
 	}
 
+	/**
+	 * Returns an event record which can safely be kept after the current callback returned.
+	 * Pooled events are copied, all other events are returned as they are.
+	 * @param event event passed to a callback of this listener
+	 * @return event record to be stored
+	 */
+	protected static WebDriverEvent retain(WebDriverEvent event) {
+		return event.isPooled() ? event.copy() : event;
+	}
+
+	/**
+	 * Stores the event in the list of events recorded by this listener.
+	 * In flight recorder mode, only the latest events are kept, with long values compressed, until the flight recorder persists them.
+	 * Values exceeding the payload threshold are replaced by references, see {@link PayloadStore}.
+	 * @param event event passed to a callback of this listener
+	 */
+	protected void record(WebDriverEvent event) {
+		IEventStore pending = pendingEntries;
+		if (pending != null) {
+			WebDriverEvent kept = (payloadStore == null) ? event : payloadStore.externalize(event);
+			pending.add(RetainedEvent.compressed(kept, returnObjectRetention.retain(event.getReturnObject())));
+			return;
+		}
+		// the dispatcher applies the retention policy to the pooled event only, so it is applied to the copy here
+		WebDriverEvent kept = event.isPooled() ? event.copy(returnObjectRetention) : event;
+		logEntries.add((payloadStore == null) ? kept : payloadStore.externalize(kept));
+	}
+
+	/**
+	 * Resets the state kept per test case. If segmentation is enabled, the events of the finished test case
+	 * are released, so memory is proportional to the longest test case instead of the whole test run.
+	 */
+	@Override
+	public void onTestCaseFinished() {
+		cachedSendKeysLocator = null;
+		if (!isSegmented)
+			return;
+		logEntries = ListenerRegistry.createEventStore();
+		IEventStore pending = pendingEntries;
+		if (pending != null)
+			pendingEntries = new RingBufferEventStore(((RingBufferEventStore) pending).getCapacity(), RingBufferEventStore.Overflow.DROP_OLDEST);
+	}
+
+	/**
+	 * Switches this listener to flight recorder mode.
+	 * @param flightRecorder flight recorder of the session
+	 * @param capacity number of events to be kept until they are persisted
+	 */
+	void setFlightRecorder(FlightRecorder flightRecorder, int capacity) {
+		this.flightRecorder = flightRecorder;
+		this.pendingEntries = new RingBufferEventStore(capacity, RingBufferEventStore.Overflow.DROP_OLDEST);
+	}
+
+	/**
+	 * Moves the events kept in flight recorder mode to the list of events recorded by this listener.
+	 * @return number of events moved
+	 */
+	int persistPendingEvents() {
+		IEventStore pending = pendingEntries;
+		if (pending == null)
+			return 0;
+		pendingEntries = new RingBufferEventStore(((RingBufferEventStore) pending).getCapacity(), RingBufferEventStore.Overflow.DROP_OLDEST);
+		List<WebDriverEvent> events = pending.snapshot();
+		IEventStore entries = logEntries;
+		for (WebDriverEvent event : events)
+			entries.add(event);
+		return events.size();
+	}
+
+	/**
+	 * @return snapshot of the events recorded by this listener, which might not include the oldest
+	 *         or newest events if its store is full, see {@link #getNumOfEventsEvicted()}
+	 */
 	@JsonProperty("logEntries")
 	@Override
 	public List<WebDriverEvent> getListOfEventsRecorded() {
-		return Collections.unmodifiableList(logEntries);
+		return Collections.unmodifiableList(logEntries.snapshot());
+	}
+
+	/**
+	 * @return number of events recorded by this listener which have been dropped because its store is full
+	 */
+	@JsonProperty("eventsEvicted")
+	public long getNumOfEventsEvicted() {
+		return logEntries.getEvictedEvents();
+	}
+
+	/**
+	 * Estimates the heap used by the return objects which the events recorded by this listener still refer to,
+	 * see {@link ReturnObjectRetention} and {@link ReturnObjectSummary#estimateSize(Object)}.
+	 * @return estimated number of bytes
+	 */
+	@JsonIgnore
+	public long getRetainedReturnObjectBytes() {
+		long bytes = 0L;
+		for (WebDriverEvent event : logEntries.snapshot())
+			bytes += ReturnObjectSummary.estimateSize(event.getReturnObject());
+		return bytes;
 	}
 	
 	@Override
@@ -847,11 +954,11 @@ public abstract class AbstractEventListener implements IEventListener {
     	if (locator == null)
     		return true;
     	
-    	String cachedLocator = cachedSendKeysLocator.get();
+    	String cachedLocator = cachedSendKeysLocator;
     	// if cachedLocator is null we assume it's a different locator
     	if (cachedLocator == null) {
     		// cache the currently used locator
-    		cachedSendKeysLocator.set(locator);
+    		cachedSendKeysLocator = locator;
     		return true;    		
     	}
 
@@ -859,7 +966,7 @@ public abstract class AbstractEventListener implements IEventListener {
     		return false;
     	
     	// currently used locator is different from cached one; replace the cached locator
-    	cachedSendKeysLocator.set(locator);
+    	cachedSendKeysLocator = locator;
     	return true;
     }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Base class of sinks which write each event to a file as soon as it is received.
+ *
+ * Output is buffered by the subclass and flushed once a number of bytes or some time has passed,
+ * and when the session quits. Buffered events are also flushed if no further event arrives in time.
+ * Each test case gets its own file, which is closed once the dispatcher has delivered all events of the
+ * test case, see {@link #onTestCaseFinished()}. The sink is not subscribed to any event if no directory is configured.
+ */
+public abstract class AbstractFileEventSink implements IEventSink {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final AtomicInteger lastSinkId = new AtomicInteger();
+	// flushes the files of sessions which are idle, shared by all sinks
+	private static final ScheduledExecutorService idleFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "TestAdvisor event log flusher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final File directory;
+	private final int flushBytes;
+	private final long flushNanos;
+	private final int sinkId = lastSinkId.incrementAndGet();
+	// null if large payloads are written as they are
+	private final PayloadStore payloadStore = PayloadStore.getConfiguredInstance();
+
+	private boolean isOpen = false;
+	private File file = null;
+	private int fileNumber = 0;
+	private long lastFlush = 0L;
+	private ScheduledFuture<?> idleFlush = null;
+
+	/**
+	 * @param directory directory to write the files to, null to disable this sink
+	 * @param flushBytes number of buffered bytes which are flushed to the file
+	 * @param flushMillis time after which buffered events are flushed to the file
+	 */
+	protected AbstractFileEventSink(File directory, int flushBytes, long flushMillis) {
+		this.directory = directory;
+		this.flushBytes = flushBytes;
+		this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+	}
+
+	/**
+	 * @return extension of the files written, e.g. ".jsonl"
+	 */
+	protected abstract String getFileExtension();
+
+	protected abstract void open(File file) throws IOException;
+
+	protected abstract void write(WebDriverEvent event) throws IOException;
+
+	/**
+	 * @return number of bytes written but not flushed yet
+	 */
+	protected abstract int getBufferedBytes();
+
+	protected abstract void flush() throws IOException;
+
+	protected abstract void close() throws IOException;
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return directory != null;
+	}
+
+	@Override
+	public boolean isSynchronous() {
+		return false;
+	}
+
+	/**
+	 * @return file currently written to or null if no event has been written yet
+	 */
+	public synchronized File getFile() {
+		return file;
+	}
+
+	@Override
+	public synchronized void onEvent(WebDriverEvent event) {
+		try {
+			openFile();
+			write((payloadStore == null) ? event : payloadStore.externalize(event));
+			long now = System.nanoTime();
+			if (getBufferedBytes() >= flushBytes || now - lastFlush >= flushNanos) {
+				flush();
+				lastFlush = now;
+			}
+			if (event.getCmd() == Cmd.quit && event.getTypeOfLog() == Type.AfterAction)
+				closeFile();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Unable to write event to " + file, e);
+			closeFile();
+		}
+	}
+
+	/**
+	 * Starts a new file with the first event after the previous file has been closed. The test case is not looked up
+	 * here, since an asynchronous sink may still receive events of the previous test case while the next one runs.
+	 */
+	private void openFile() throws IOException {
+		if (isOpen)
+			return;
+
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Unable to create directory " + directory);
+		file = new File(directory, String.format("events-%d-%d%s", sinkId, ++fileNumber, getFileExtension()));
+		open(file);
+		isOpen = true;
+		lastFlush = System.nanoTime();
+		if (flushNanos > 0L)
+			idleFlush = idleFlusher.scheduleWithFixedDelay(this::flushIfIdle, flushNanos, flushNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Flushes buffered events once the flush interval has passed without any event arriving to do so.
+	 */
+	private synchronized void flushIfIdle() {
+		long now = System.nanoTime();
+		if (!isOpen || getBufferedBytes() == 0 || now - lastFlush < flushNanos)
+			return;
+		try {
+			flush();
+			lastFlush = now;
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Unable to flush events to " + file, e);
+		}
+	}
+
+	/**
+	 * Writes the file of the finished test case, the next event starts a new file.
+	 */
+	@Override
+	public synchronized void onTestCaseFinished() {
+		closeFile();
+	}
+
+	private void closeFile() {
+		if (!isOpen)
+			return;
+		isOpen = false;
+		if (idleFlush != null) {
+			idleFlush.cancel(false);
+			idleFlush = null;
+		}
+		try {
+			close();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Unable to close " + file, e);
+		}
+	}
+}
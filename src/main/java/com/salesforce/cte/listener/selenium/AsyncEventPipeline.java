@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Delivers events to listeners on a background thread so that they do not run within the
+ * timed window of a WebDriver command.
+ *
+ * Events are published into a bounded ring buffer which is allocated once and reused.
+ * A single consumer thread drains the buffer and calls the listeners in the order the events
+ * were published. If the buffer is full, the configured {@link Backpressure} decides whether
+ * the publishing thread waits or an event is dropped.
+ */
+public class AsyncEventPipeline {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final long FLUSH_TIMEOUT_SECONDS = 30L;
+
+	/**
+	 * Strategy applied when an event is published while the ring buffer is full.
+	 */
+	public enum Backpressure {
+		/** the publishing thread waits until the consumer has made room */
+		BLOCK,
+		/** BeforeGather and AfterGather events are dropped, all other events wait */
+		DROP_GATHER,
+		/** the oldest event not yet delivered is dropped */
+		DROP_OLDEST
+	}
+
+	private final WebDriverEvent[] slots;
+	private final IEventSink[][] targets;
+	private final IEventSink[] sinks;
+	private final Backpressure backpressure;
+	private final ReturnObjectRetention retention;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Condition processed = lock.newCondition();
+	private final Thread consumer;
+
+	// all counters are guarded by lock
+	private long head = 0L; // sequence of the next slot to be consumed
+	private long tail = 0L; // sequence of the next slot to be published
+	private long done = 0L; // number of events delivered or dropped
+	private long dropped = 0L;
+	private boolean closed = false;
+
+	public AsyncEventPipeline(IEventSink[] sinks, int capacity, Backpressure backpressure) {
+		this(sinks, capacity, backpressure, ReturnObjectRetention.KEEP);
+	}
+
+	/**
+	 * @param sinks sinks events are delivered to
+	 * @param capacity size of the ring buffer
+	 * @param backpressure strategy applied if the ring buffer is full
+	 * @param retention policy applied to the return object of an event once it has been delivered or dropped
+	 */
+	public AsyncEventPipeline(IEventSink[] sinks, int capacity, Backpressure backpressure, ReturnObjectRetention retention) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		this.sinks = sinks.clone();
+		this.backpressure = backpressure;
+		this.retention = retention;
+		this.slots = new WebDriverEvent[capacity];
+		this.targets = new IEventSink[capacity][];
+		this.consumer = new Thread(this::consume, "TestAdvisor event dispatcher");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	/**
+	 * Queues an event for delivery to all sinks of this pipeline.
+	 * @param event event record
+	 * @return false if the event has been dropped
+	 */
+	public boolean publish(WebDriverEvent event) {
+		return publish(event, sinks);
+	}
+
+	/**
+	 * Queues an event for delivery to a subset of the sinks of this pipeline.
+	 * Events published by the consumer thread itself, e.g. by a listener issuing a WebDriver command,
+	 * are delivered immediately, because only the consumer thread could make room in the ring buffer.
+	 * @param event event record
+	 * @param subscribers sinks which are interested in the event
+	 * @return false if the event has been dropped
+	 */
+	public boolean publish(WebDriverEvent event, IEventSink[] subscribers) {
+		if (Thread.currentThread() == consumer) {
+			deliver(event, subscribers);
+			return true;
+		}
+		lock.lock();
+		try {
+			while (tail - head == slots.length && !closed) {
+				if (backpressure == Backpressure.DROP_OLDEST) {
+					int index = index(head++);
+					if (retention != ReturnObjectRetention.KEEP)
+						slots[index].retainReturnObject(retention);
+					slots[index] = null;
+					targets[index] = null;
+					done++;
+					dropped++;
+					processed.signalAll();
+				} else if (backpressure == Backpressure.DROP_GATHER && isGather(event)) {
+					dropped++;
+					return false;
+				} else {
+					notFull.await();
+				}
+			}
+			if (closed) {
+				dropped++;
+				return false;
+			}
+			int index = index(tail++);
+			slots[index] = event;
+			targets[index] = subscribers;
+			notEmpty.signal();
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			dropped++;
+			return false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until all events published so far have been delivered.
+	 */
+	public void flush() {
+		if (Thread.currentThread() == consumer)
+			return;
+		lock.lock();
+		try {
+			long target = tail;
+			long nanos = TimeUnit.SECONDS.toNanos(FLUSH_TIMEOUT_SECONDS);
+			while (done < target && consumer.isAlive()) {
+				if (nanos <= 0L) {
+					LOGGER.log(Level.WARNING, "Timed out waiting for {0} events to be delivered", target - done);
+					return;
+				}
+				nanos = processed.awaitNanos(nanos);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Delivers all pending events and stops the consumer thread.
+	 */
+	public void shutdown() {
+		flush();
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of events which have been dropped because the ring buffer was full
+	 */
+	public long getDroppedEvents() {
+		lock.lock();
+		try {
+			return dropped;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void consume() {
+		while (true) {
+			WebDriverEvent event;
+			IEventSink[] subscribers;
+			lock.lock();
+			try {
+				while (head == tail) {
+					if (closed)
+						return;
+					notEmpty.await();
+				}
+				int index = index(head++);
+				event = slots[index];
+				subscribers = targets[index];
+				slots[index] = null;
+				targets[index] = null;
+				notFull.signal();
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+
+			deliver(event, subscribers);
+
+			lock.lock();
+			try {
+				done++;
+				processed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void deliver(WebDriverEvent event, IEventSink[] subscribers) {
+		for (IEventSink sink : subscribers) {
+			try {
+				sink.onEvent(event);
+			} catch (RuntimeException e) {
+				LOGGER.log(Level.WARNING, "Listener " + sink + " failed to process event", e);
+			}
+		}
+		if (retention != ReturnObjectRetention.KEEP)
+			event.retainReturnObject(retention);
+	}
+
+	private int index(long sequence) {
+		return (int) (sequence % slots.length);
+	}
+
+	private static boolean isGather(WebDriverEvent event) {
+		return event.getTypeOfLog() == Type.BeforeGather || event.getTypeOfLog() == Type.AfterGather;
+	}
+}
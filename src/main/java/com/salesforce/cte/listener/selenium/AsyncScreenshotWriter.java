@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.salesforce.cte.common.TestCaseExecution;
+import com.salesforce.cte.common.TestEvent;
+
+/**
+ * Decodes screenshots and writes them to files on a background thread, so a WebDriver command only waits
+ * until the browser has returned the image.
+ *
+ * The test event of a screenshot is added to its test case right away by the thread taking the screenshot,
+ * so test events stay in the order of the test steps and the test case is only changed by the test thread.
+ * The background thread sets the path of the screenshot file once it has been written; it stays unset if
+ * the screenshot cannot be written.
+ *
+ * A single thread per session writes the screenshots in the order they have been taken. If a {@link ScreenshotProcessor}
+ * is given, screenshots are processed before by a pool of one thread per available core, which is shared by all
+ * sessions of the JVM so parallel sessions do not multiply the number of threads. The queue of the writer is bounded;
+ * if it is full, the thread taking a screenshot waits until there is room, so no screenshot is lost. This also bounds
+ * the screenshots a session has waiting to be processed.
+ * {@link #drain()} waits until all screenshots queued so far have been written.
+ */
+public class AsyncScreenshotWriter {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final long DRAIN_TIMEOUT_SECONDS = 30L;
+
+	// created once the first screenshot processor is used
+	private static ThreadPoolExecutor sharedProcessingPool = null;
+
+	private final ThreadPoolExecutor executor;
+	// null if screenshots are not processed
+	private final ThreadPoolExecutor processingPool;
+	private final ScreenshotStore store;
+	private final ScreenshotProcessor processor;
+	private final AtomicLong writtenScreenshots = new AtomicLong();
+
+	/**
+	 * @param capacity maximum number of screenshots waiting to be written
+	 */
+	public AsyncScreenshotWriter(int capacity) {
+		this(capacity, null, null);
+	}
+
+	/**
+	 * @param capacity maximum number of screenshots waiting to be processed and to be written
+	 * @param store store to write the screenshots to or null to write them to temporary files
+	 * @param processor processor of the screenshots or null to write them as taken
+	 */
+	public AsyncScreenshotWriter(int capacity, ScreenshotStore store, ScreenshotProcessor processor) {
+		this.store = store;
+		this.processor = processor;
+		executor = newBlockingExecutor(1, capacity, "TestAdvisor screenshot writer");
+		processingPool = (processor == null) ? null : getSharedProcessingPool();
+	}
+
+	/**
+	 * @return pool of one daemon thread per available core, which stop while no screenshots are processed
+	 */
+	private static synchronized ThreadPoolExecutor getSharedProcessingPool() {
+		if (sharedProcessingPool == null) {
+			int threads = Runtime.getRuntime().availableProcessors();
+			// each session has at most the capacity of its writer queued, so this queue is bounded as well
+			sharedProcessingPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+					runnable -> {
+						Thread thread = new Thread(runnable, "TestAdvisor screenshot processor");
+						thread.setDaemon(true);
+						return thread;
+					});
+			sharedProcessingPool.allowCoreThreadTimeOut(true);
+		}
+		return sharedProcessingPool;
+	}
+
+	/**
+	 * @return pool of daemon threads whose execute() waits while the queue is full
+	 */
+	private static ThreadPoolExecutor newBlockingExecutor(int threads, int capacity, String threadName) {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, capacity)),
+				runnable -> {
+					Thread thread = new Thread(runnable, threadName);
+					thread.setDaemon(true);
+					return thread;
+				},
+				(runnable, executor) -> {
+					if (executor.isShutdown()) {
+						// the session has quit, so handle the screenshot on the calling thread
+						runnable.run();
+						return;
+					}
+					try {
+						executor.getQueue().put(runnable);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						LOGGER.log(Level.WARNING, "Interrupted while waiting to queue a screenshot");
+					}
+				});
+		pool.prestartAllCoreThreads();
+		return pool;
+	}
+
+	/**
+	 * Adds the test event of a screenshot to the test case and queues the screenshot to be written.
+	 * @param base64Png screenshot as returned by the browser
+	 * @param testEvent test event which gets the path of the screenshot file
+	 * @param testCase test case the test event is added to, i.e. the one running when the screenshot was taken
+	 */
+	public void submit(String base64Png, TestEvent testEvent, TestCaseExecution testCase) {
+		testCase.appendEvent(testEvent);
+		Callable<byte[]> image;
+		if (processingPool == null) {
+			image = () -> Base64.getMimeDecoder().decode(base64Png);
+		} else {
+			Future<byte[]> processedImage = processingPool.submit(() -> process(Base64.getMimeDecoder().decode(base64Png)));
+			image = processedImage::get;
+		}
+		executor.execute(() -> write(image, testEvent));
+	}
+
+	private byte[] process(byte[] png) {
+		try {
+			return processor.process(png);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Unable to process screenshot, storing it as taken", e);
+			return png;
+		}
+	}
+
+	private void write(Callable<byte[]> image, TestEvent testEvent) {
+		try {
+			File file = ScreenshotStore.write(store, image.call());
+			testEvent.setScreenshotPath(file.getAbsolutePath());
+			writtenScreenshots.incrementAndGet();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Unable to write screenshot", e);
+		}
+	}
+
+	/**
+	 * Waits until all screenshots queued so far have been written, after which the caller sees the paths of their test events.
+	 */
+	public void drain() {
+		// the single thread handles tasks in order, so all earlier screenshots are written once this task has run
+		Future<?> marker = executor.submit(() -> { });
+		try {
+			marker.get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			LOGGER.log(Level.WARNING, "Timed out waiting for screenshots to be written", e);
+		}
+	}
+
+	/**
+	 * Writes all queued screenshots and stops the background thread. The shared processing pool keeps running
+	 * for other sessions.
+	 */
+	public void shutdown() {
+		drain();
+		executor.shutdown();
+	}
+
+	/**
+	 * @return number of screenshots written so far
+	 */
+	public long getWrittenScreenshots() {
+		return writtenScreenshots.get();
+	}
+
+	/**
+	 * @return number of screenshots waiting to be written
+	 */
+	public int getQueuedScreenshots() {
+		return executor.getQueue().size();
+	}
+}
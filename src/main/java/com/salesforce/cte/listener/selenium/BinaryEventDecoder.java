@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Reads a stream written by {@link BinaryEventEncoder} and converts it to JSON lines
+ * of the same shape as written by {@link JsonLinesEventSink}.
+ */
+public class BinaryEventDecoder implements Closeable {
+	private static final Type[] TYPES = Type.values();
+	private static final Cmd[] CMDS = Cmd.values();
+
+	private final InputStream in;
+	private final List<String> dictionary = new ArrayList<>();
+	private int recordNumber = 0;
+	private int eventNumber = 0;
+	private long timeStamp = 0L;
+
+	public BinaryEventDecoder(InputStream in) throws IOException {
+		this.in = new BufferedInputStream(in);
+		for (byte b : BinaryEventEncoder.MAGIC) {
+			if (readByte() != b)
+				throw new IOException("Not a binary event stream");
+		}
+		int version = readByte();
+		if (version != BinaryEventEncoder.VERSION)
+			throw new IOException("Unsupported version " + version + " of binary event stream");
+	}
+
+	/**
+	 * Converts all remaining events of the stream.
+	 * @param out stream to write the JSON lines to, it is not closed
+	 * @return number of events converted
+	 */
+	public int convertToJsonLines(OutputStream out) throws IOException {
+		int events = 0;
+		try (JsonGenerator json = JsonLinesEventSink.JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+			json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			json.setRootValueSeparator(null);
+			while (writeNextEvent(json))
+				events++;
+		}
+		return events;
+	}
+
+	private boolean writeNextEvent(JsonGenerator json) throws IOException {
+		in.mark(1);
+		if (in.read() < 0)
+			return false;
+		in.reset();
+
+		recordNumber += (int) unzigzag(readVarLong());
+		eventNumber += (int) unzigzag(readVarLong());
+		timeStamp += unzigzag(readVarLong());
+		long timeSinceLastAction = unzigzag(readVarLong());
+		long timeElapsedEvent = unzigzag(readVarLong());
+		Type type = TYPES[readByte()];
+		Cmd cmd = CMDS[(int) readVarLong()];
+		int present = readByte();
+		String param1 = readStringReference(present, 0);
+		String param2 = readStringReference(present, 1);
+		String returnValue = readStringReference(present, 2);
+		String elementLocator = readStringReference(present, 3);
+		String issue = readStringReference(present, 4);
+		JsonLinesEventSink.writeEvent(json, recordNumber, eventNumber, timeStamp, timeSinceLastAction, timeElapsedEvent,
+				type, cmd, param1, param2, returnValue, elementLocator, issue);
+		return true;
+	}
+
+	private String readStringReference(int present, int index) throws IOException {
+		if ((present & (1 << index)) == 0)
+			return null;
+		long reference = readVarLong();
+		if (reference == BinaryEventEncoder.LITERAL)
+			return readString();
+		if (reference == BinaryEventEncoder.NEW_ENTRY) {
+			String value = readString();
+			dictionary.add(value);
+			return value;
+		}
+		return dictionary.get((int) (reference - BinaryEventEncoder.FIRST_ENTRY));
+	}
+
+	private String readString() throws IOException {
+		int length = (int) readVarLong();
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			int read = in.read(bytes, offset, length - offset);
+			if (read < 0)
+				throw new EOFException();
+			offset += read;
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0L;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	private int readByte() throws IOException {
+		int b = in.read();
+		if (b < 0)
+			throw new EOFException();
+		return b;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
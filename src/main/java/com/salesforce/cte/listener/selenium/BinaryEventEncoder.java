@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+
+/**
+ * Writes a stream of events in a compact binary format, see {@link BinaryEventDecoder} for reading it.
+ *
+ * The stream starts with the magic bytes "TAEB" and a version byte. Each event is written as:
+ * <ul>
+ * <li>record number, event number and time stamp as zigzag varints of the difference to the previous event</li>
+ * <li>time since last action and time elapsed as zigzag varints</li>
+ * <li>type of log and command as ordinals</li>
+ * <li>a byte with one bit for each of param1, param2, return value, element locator and issue which is present</li>
+ * <li>the present strings as references into a dictionary which is built while writing</li>
+ * </ul>
+ * A string reference is a varint: 0 is followed by a string which is not added to the dictionary,
+ * 1 is followed by a string which becomes the next dictionary entry, and any other value n refers
+ * to dictionary entry n - 2. Strings are written as varint length followed by their UTF-8 bytes.
+ * Locators, URLs and scripts repeat a lot within a test, so they are written only once per file.
+ * All other values, e.g. page sources or texts, are written as literals, and so are strings longer than
+ * {@link #MAX_ENTRY_LENGTH} or once the dictionary is full, so its memory stays bounded.
+ *
+ * Ordinals refer to {@link WebDriverEvent.Type} and {@link WebDriverEvent.Cmd} of the library version
+ * which wrote the stream.
+ */
+public class BinaryEventEncoder implements Flushable, Closeable {
+	static final byte[] MAGIC = { 'T', 'A', 'E', 'B' };
+	static final int VERSION = 1;
+	static final int LITERAL = 0;
+	static final int NEW_ENTRY = 1;
+	static final int FIRST_ENTRY = 2;
+	// once the dictionary is full, new strings are written as literals
+	static final int MAX_DICTIONARY_SIZE = 1 << 16;
+	static final int MAX_DICTIONARY_CHARS = 1 << 20;
+	static final int MAX_ENTRY_LENGTH = 2048;
+
+	private final OutputStream out;
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private int dictionaryChars = 0;
+	private final byte[] buffer = new byte[8192];
+	private int position = 0;
+	private int lastRecordNumber = 0;
+	private int lastEventNumber = 0;
+	private long lastTimeStamp = 0L;
+
+	public BinaryEventEncoder(OutputStream out) throws IOException {
+		this(out, true);
+	}
+
+	/**
+	 * @param out stream to write to
+	 * @param writeHeader false if the stream is embedded in another format which identifies it
+	 */
+	BinaryEventEncoder(OutputStream out, boolean writeHeader) throws IOException {
+		this.out = out;
+		if (writeHeader) {
+			for (byte b : MAGIC)
+				writeByte(b);
+			writeByte(VERSION);
+		}
+	}
+
+	/**
+	 * @return number of bytes written but not flushed yet
+	 */
+	public int getBufferedBytes() {
+		return position;
+	}
+
+	public void write(WebDriverEvent event) throws IOException {
+		writeVarLong(zigzag(event.getRecordNumber() - (long) lastRecordNumber));
+		writeVarLong(zigzag(event.getEventNumber() - (long) lastEventNumber));
+		writeVarLong(zigzag(event.getTimeStamp() - lastTimeStamp));
+		writeVarLong(zigzag(event.getTimeSinceLastAction()));
+		writeVarLong(zigzag(event.getTimeElapsedEvent()));
+		lastRecordNumber = event.getRecordNumber();
+		lastEventNumber = event.getEventNumber();
+		lastTimeStamp = event.getTimeStamp();
+		writeByte(event.getTypeOfLog().ordinal());
+		writeVarLong(event.getCmd().ordinal());
+
+		String param1 = event.getParam1();
+		String param2 = event.getParam2();
+		String returnValue = event.getReturnValue();
+		String elementLocator = event.getElementLocator();
+		String issue = (event.getIssue() == null) ? null : event.getIssue().toString();
+		writeByte(bit(param1, 0) | bit(param2, 1) | bit(returnValue, 2) | bit(elementLocator, 3) | bit(issue, 4));
+		Cmd cmd = event.getCmd();
+		writeStringReference(param1, StringDictionary.isRecurringParam1(cmd));
+		writeStringReference(param2, false);
+		writeStringReference(returnValue, StringDictionary.isRecurringReturnValue(cmd));
+		writeStringReference(elementLocator, true);
+		writeStringReference(issue, false);
+	}
+
+	private static int bit(String value, int index) {
+		return (value == null) ? 0 : 1 << index;
+	}
+
+	/**
+	 * @param isRecurring true if the value is a locator, script or URL, which may be added to the dictionary
+	 */
+	private void writeStringReference(String value, boolean isRecurring) throws IOException {
+		if (value == null)
+			return;
+		Integer entry = isRecurring ? dictionary.get(value) : null;
+		if (entry != null) {
+			writeVarLong(FIRST_ENTRY + (long) entry);
+		} else if (isRecurring && value.length() <= MAX_ENTRY_LENGTH && dictionary.size() < MAX_DICTIONARY_SIZE
+				&& dictionaryChars + value.length() <= MAX_DICTIONARY_CHARS) {
+			dictionary.put(value, dictionary.size());
+			dictionaryChars += value.length();
+			writeVarLong(NEW_ENTRY);
+			writeString(value);
+		} else {
+			writeVarLong(LITERAL);
+			writeString(value);
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(bytes.length);
+		if (bytes.length > buffer.length - position) {
+			flushBuffer();
+			if (bytes.length > buffer.length) {
+				out.write(bytes);
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private void writeVarLong(long value) throws IOException {
+		if (buffer.length - position < 10)
+			flushBuffer();
+		while ((value & ~0x7FL) != 0) {
+			buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeByte(int value) throws IOException {
+		if (position == buffer.length)
+			flushBuffer();
+		buffer[position++] = (byte) value;
+	}
+
+	private void flushBuffer() throws IOException {
+		out.write(buffer, 0, position);
+		position = 0;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flushBuffer();
+		out.close();
+	}
+}
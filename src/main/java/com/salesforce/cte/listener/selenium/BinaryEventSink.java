@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes the events in the compact format of {@link BinaryEventEncoder}, one file per test case,
+ * to the directory configured by {@link ListenerConfiguration#BINARY_LOG_DIR}.
+ * Use {@link BinaryEventDecoder} to convert the files to JSON lines.
+ */
+public class BinaryEventSink extends AbstractFileEventSink {
+	private BinaryEventEncoder encoder = null;
+
+	public BinaryEventSink() {
+		this(ListenerConfiguration.getBinaryLogDirectory(), ListenerConfiguration.getEventLogFlushBytes(),
+				ListenerConfiguration.getEventLogFlushMillis());
+	}
+
+	/**
+	 * @param directory directory to write the files to, null to disable this sink
+	 * @param flushBytes number of buffered bytes which are flushed to the file
+	 * @param flushMillis time after which buffered events are flushed to the file
+	 */
+	public BinaryEventSink(File directory, int flushBytes, long flushMillis) {
+		super(directory, flushBytes, flushMillis);
+	}
+
+	@Override
+	protected String getFileExtension() {
+		return ".taeb";
+	}
+
+	@Override
+	protected void open(File file) throws IOException {
+		encoder = new BinaryEventEncoder(new FileOutputStream(file));
+	}
+
+	@Override
+	protected void write(WebDriverEvent event) throws IOException {
+		encoder.write(event);
+	}
+
+	@Override
+	protected int getBufferedBytes() {
+		return encoder.getBufferedBytes();
+	}
+
+	@Override
+	protected void flush() throws IOException {
+		encoder.flush();
+	}
+
+	@Override
+	protected void close() throws IOException {
+		encoder.close();
+		encoder = null;
+	}
+}
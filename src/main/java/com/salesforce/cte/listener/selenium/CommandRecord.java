@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * One WebDriver command, merged from the event sent before and the event sent after it, see {@link CommandRecorder}.
+ *
+ * Parameters and locator are taken from the event sent before the command, unless only the event sent
+ * after it has them. The record is complete once the event sent after the command or an exception has been received.
+ */
+public class CommandRecord {
+	private final Cmd cmd;
+	private final int eventNumber;
+	private final int beforeRecordNumber;
+	private final long timeStamp;
+	private final long timeSinceLastAction;
+	private final long startNanos;
+	private final String param1;
+	private final String param2;
+	private String elementLocator;
+	private int afterRecordNumber = -1;
+	private long endTimeStamp = -1L;
+	private long timeElapsedEvent = -1L;
+	private long endNanos = -1L;
+	private String returnValue;
+	private Throwable issue;
+
+	CommandRecord(WebDriverEvent before) {
+		this.cmd = before.getCmd();
+		this.eventNumber = before.getEventNumber();
+		this.beforeRecordNumber = before.getRecordNumber();
+		this.timeStamp = before.getTimeStamp();
+		this.timeSinceLastAction = before.getTimeSinceLastAction();
+		this.startNanos = before.getNanoTime();
+		this.param1 = before.getParam1();
+		this.param2 = before.getParam2();
+		this.elementLocator = before.getElementLocator();
+	}
+
+	/**
+	 * Completes this record with the event sent after the command or the exception thrown by it.
+	 */
+	void complete(WebDriverEvent after) {
+		afterRecordNumber = after.getRecordNumber();
+		endTimeStamp = after.getTimeStamp();
+		timeElapsedEvent = after.getTimeElapsedEvent();
+		endNanos = after.getNanoTime();
+		returnValue = after.getReturnValue();
+		issue = after.getIssue();
+		if (elementLocator == null)
+			elementLocator = after.getElementLocator();
+	}
+
+	public boolean isComplete() {
+		return endNanos >= 0L;
+	}
+
+	public Cmd getCmd() {
+		return cmd;
+	}
+
+	public int getEventNumber() {
+		return eventNumber;
+	}
+
+	public long getTimeStamp() {
+		return timeStamp;
+	}
+
+	public long getTimeSinceLastAction() {
+		return timeSinceLastAction;
+	}
+
+	public long getStartNanos() {
+		return startNanos;
+	}
+
+	public long getEndNanos() {
+		return endNanos;
+	}
+
+	/**
+	 * @return nanoseconds from the event sent before the command to the event sent after it or -1 if not complete
+	 */
+	public long getDurationNanos() {
+		return isComplete() ? endNanos - startNanos : -1L;
+	}
+
+	public String getParam1() {
+		return param1;
+	}
+
+	public String getParam2() {
+		return param2;
+	}
+
+	public String getElementLocator() {
+		return elementLocator;
+	}
+
+	public String getReturnValue() {
+		return returnValue;
+	}
+
+	/**
+	 * @return exception thrown by the command or null if it succeeded
+	 */
+	public Throwable getIssue() {
+		return issue;
+	}
+
+	/**
+	 * @return the events sent before and after the command, i.e. the view of listeners which do not use command records
+	 */
+	public List<WebDriverEvent> toEvents() {
+		List<WebDriverEvent> events = new ArrayList<>(2);
+		events.add(WebDriverEvent.restore(beforeRecordNumber, eventNumber, timeStamp, timeSinceLastAction, -1L,
+				cmd.getBeforeType(), cmd, param1, param2, null, elementLocator, null));
+		if (isComplete()) {
+			Type type = (issue == null) ? cmd.getAfterType() : Type.Exception;
+			events.add(WebDriverEvent.restore(afterRecordNumber, eventNumber, endTimeStamp, -1L, timeElapsedEvent,
+					type, cmd, param1, param2, returnValue, elementLocator, issue));
+		}
+		return events;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s %d ns%s", cmd.getLongCmdString(), (param1 == null) ? "" : param1, getDurationNanos(),
+				(issue == null) ? "" : " failed: " + issue.getMessage());
+	}
+}
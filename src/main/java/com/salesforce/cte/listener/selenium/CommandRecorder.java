@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Records one {@link CommandRecord} per WebDriver command instead of the two events sent before and after it.
+ *
+ * Enabled by {@link ListenerConfiguration#COMMAND_RECORDS}. Commands issued while another command is executing,
+ * e.g. by a listener, are paired with their own events. At most {@link ListenerConfiguration#getEventStoreCapacity()}
+ * records are kept, the oldest records are dropped first. Consumers expecting the events sent before and after
+ * each command can use {@link #toLegacyEvents()}.
+ */
+public class CommandRecorder implements IEventSink {
+	private final boolean isEnabled;
+	private final int capacity;
+	private final Deque<CommandRecord> records = new ArrayDeque<>();
+	private final Deque<CommandRecord> pending = new ArrayDeque<>();
+	private long evictedRecords = 0L;
+
+	public CommandRecorder() {
+		this(ListenerConfiguration.getCommandRecordsEnabled(), ListenerConfiguration.getEventStoreCapacity());
+	}
+
+	/**
+	 * @param isEnabled true if commands are recorded
+	 * @param capacity maximum number of records kept
+	 */
+	public CommandRecorder(boolean isEnabled, int capacity) {
+		this.isEnabled = isEnabled;
+		this.capacity = Math.max(1, capacity);
+	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return isEnabled;
+	}
+
+	@Override
+	public boolean isSynchronous() {
+		return false;
+	}
+
+	@Override
+	public synchronized void onEvent(WebDriverEvent event) {
+		Type type = event.getTypeOfLog();
+		if (type == Type.Exception) {
+			CommandRecord record = pending.pollFirst();
+			if (record != null)
+				record.complete(event);
+		} else if (type == event.getCmd().getBeforeType()) {
+			CommandRecord record = new CommandRecord(event);
+			pending.addFirst(record);
+			if (records.size() >= capacity) {
+				records.removeFirst();
+				evictedRecords++;
+			}
+			records.addLast(record);
+		} else {
+			// the command issued last may have been skipped, e.g. if it failed before its exception was sent
+			for (Iterator<CommandRecord> it = pending.iterator(); it.hasNext();) {
+				CommandRecord record = it.next();
+				it.remove();
+				if (record.getCmd() == event.getCmd()) {
+					record.complete(event);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return records in the order the commands have been started
+	 */
+	public synchronized List<CommandRecord> getRecords() {
+		return new ArrayList<>(records);
+	}
+
+	/**
+	 * @return number of records dropped because the recorder was full
+	 */
+	public synchronized long getEvictedRecords() {
+		return evictedRecords;
+	}
+
+	/**
+	 * @return events sent before and after each recorded command, ordered by record number
+	 */
+	public List<WebDriverEvent> toLegacyEvents() {
+		List<WebDriverEvent> events = new ArrayList<>();
+		for (CommandRecord record : getRecords())
+			events.addAll(record.toEvents());
+		events.sort((e1, e2) -> Integer.compare(e1.getRecordNumber(), e2.getRecordNumber()));
+		return events;
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import org.openqa.selenium.WebDriver;
+
+import com.salesforce.cte.common.TestCaseExecution;
+
+/**
+ * Event record created by an {@link EventDispatcher}. Besides the values of the event it holds the arguments
+ * of the WebDriver call, so that {@link #replay(IEventListener)} can pass them to the typed callback of a listener
+ * without allocating a closure per event, and it renders its string values only when they are read.
+ */
+final class DispatchedEvent extends WebDriverEvent {
+	/**
+	 * Renders a string value of an event from the argument it is derived from. Implementations must not capture
+	 * any state, everything they need is passed in.
+	 */
+	interface Renderer<T> {
+		String render(T source, DispatchedEvent event);
+	}
+
+	private final boolean pooled;
+	private final StringDictionary dictionary;
+	// test case the event has been dispatched for
+	private TestCaseExecution testCase;
+	// URL read by the first listener needing it, see readCurrentUrl()
+	private String currentUrl;
+
+	// arguments of the WebDriver call, primitives are boxed except for the offsets of mouse moves
+	private Object arg1;
+	private Object arg2;
+	private Object arg3;
+	private long longArg1;
+	private long longArg2;
+
+	// pending values which have not been rendered yet
+	private Renderer<Object> param1Renderer;
+	private Object param1Source;
+	private Renderer<Object> param2Renderer;
+	private Object param2Source;
+	private Renderer<Object> returnValueRenderer;
+	private Object returnValueSource;
+	private Renderer<Object> elementLocatorRenderer;
+	private Object elementLocatorSource;
+
+	/**
+	 * @param pooled true if this record is owned by the pool of the dispatcher and will be overwritten by later events
+	 * @param dictionary dictionary of the session or null
+	 */
+	DispatchedEvent(boolean pooled, StringDictionary dictionary) {
+		this.pooled = pooled;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Reuses this record for a new event.
+	 * @return this event record
+	 */
+	DispatchedEvent reset(Type typeOfLog, int eventNumber, Cmd cmd, TimeMarkers timeMarkers) {
+		clear();
+		testCase = null;
+		currentUrl = null;
+		arg1 = null;
+		arg2 = null;
+		arg3 = null;
+		longArg1 = 0L;
+		longArg2 = 0L;
+		param1Renderer = null;
+		param1Source = null;
+		param2Renderer = null;
+		param2Source = null;
+		returnValueRenderer = null;
+		returnValueSource = null;
+		elementLocatorRenderer = null;
+		elementLocatorSource = null;
+		init(typeOfLog, eventNumber, cmd, timeMarkers);
+		return this;
+	}
+
+	@Override
+	public boolean isPooled() {
+		return pooled;
+	}
+
+	/**
+	 * @return dictionary of the session or null if strings are not interned
+	 */
+	StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return test case running when the event was dispatched, or null if it has not been dispatched yet
+	 */
+	TestCaseExecution getTestCase() {
+		return testCase;
+	}
+
+	void setTestCase(TestCaseExecution testCase) {
+		this.testCase = testCase;
+	}
+
+	/**
+	 * Reads the current URL of the browser at most once per event, so that all listeners called before a command
+	 * share one call of getCurrentUrl instead of each adding a round trip and its events.
+	 * @param event event the listener has been called with
+	 * @param driver driver of the session
+	 * @return current URL
+	 */
+	static String readCurrentUrl(WebDriverEvent event, WebDriver driver) {
+		if (!(event instanceof DispatchedEvent))
+			return driver.getCurrentUrl();
+		DispatchedEvent dispatchedEvent = (DispatchedEvent) event;
+		if (dispatchedEvent.currentUrl == null)
+			dispatchedEvent.currentUrl = driver.getCurrentUrl();
+		return dispatchedEvent.currentUrl;
+	}
+
+	void setArguments(Object arg1) {
+		this.arg1 = arg1;
+	}
+
+	void setArguments(Object arg1, Object arg2) {
+		this.arg1 = arg1;
+		this.arg2 = arg2;
+	}
+
+	void setArguments(Object arg1, Object arg2, Object arg3) {
+		this.arg1 = arg1;
+		this.arg2 = arg2;
+		this.arg3 = arg3;
+	}
+
+	void setLongArguments(long longArg1, long longArg2) {
+		this.longArg1 = longArg1;
+		this.longArg2 = longArg2;
+	}
+
+	Object getArgument1() {
+		return arg1;
+	}
+
+	Object getArgument2() {
+		return arg2;
+	}
+
+	Object getArgument3() {
+		return arg3;
+	}
+
+	long getLongArgument1() {
+		return longArg1;
+	}
+
+	long getLongArgument2() {
+		return longArg2;
+	}
+
+	/**
+	 * Sets the param1 to a value which is rendered when it is read for the first time.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> void deferParam1(Renderer<T> renderer, T source) {
+		super.setParam1(null);
+		param1Renderer = (Renderer<Object>) renderer;
+		param1Source = source;
+	}
+
+	/**
+	 * Sets the param2 to a value which is rendered when it is read for the first time.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> void deferParam2(Renderer<T> renderer, T source) {
+		super.setParam2(null);
+		param2Renderer = (Renderer<Object>) renderer;
+		param2Source = source;
+	}
+
+	/**
+	 * Sets the returnValue to a value which is rendered when it is read for the first time.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> void deferReturnValue(Renderer<T> renderer, T source) {
+		super.setReturnValue(null);
+		returnValueRenderer = (Renderer<Object>) renderer;
+		returnValueSource = source;
+	}
+
+	/**
+	 * Sets the elementLocator to a value which is rendered when it is read for the first time.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> void deferElementLocator(Renderer<T> renderer, T source) {
+		super.setElementLocator(null);
+		elementLocatorRenderer = (Renderer<Object>) renderer;
+		elementLocatorSource = source;
+	}
+
+	@Override
+	public String getParam1() {
+		if (param1Renderer != null) {
+			super.setParam1(param1Renderer.render(param1Source, this));
+			param1Renderer = null;
+			param1Source = null;
+		}
+		return super.getParam1();
+	}
+
+	@Override
+	public void setParam1(String param1) {
+		super.setParam1(param1);
+		param1Renderer = null;
+		param1Source = null;
+	}
+
+	@Override
+	public String getParam2() {
+		if (param2Renderer != null) {
+			super.setParam2(param2Renderer.render(param2Source, this));
+			param2Renderer = null;
+			param2Source = null;
+		}
+		return super.getParam2();
+	}
+
+	@Override
+	public void setParam2(String param2) {
+		super.setParam2(param2);
+		param2Renderer = null;
+		param2Source = null;
+	}
+
+	@Override
+	public String getReturnValue() {
+		if (returnValueRenderer != null) {
+			super.setReturnValue(returnValueRenderer.render(returnValueSource, this));
+			returnValueRenderer = null;
+			returnValueSource = null;
+		}
+		return super.getReturnValue();
+	}
+
+	@Override
+	public void setReturnValue(String returnValue) {
+		super.setReturnValue(returnValue);
+		returnValueRenderer = null;
+		returnValueSource = null;
+	}
+
+	@Override
+	public String getElementLocator() {
+		if (elementLocatorRenderer != null) {
+			super.setElementLocator(elementLocatorRenderer.render(elementLocatorSource, this));
+			elementLocatorRenderer = null;
+			elementLocatorSource = null;
+		}
+		return super.getElementLocator();
+	}
+
+	@Override
+	public void setElementLocator(String elementLocator) {
+		super.setElementLocator(elementLocator);
+		elementLocatorRenderer = null;
+		elementLocatorSource = null;
+	}
+
+	/**
+	 * Replaces the locators, scripts and URLs of this event by their canonical instances, other values like texts or
+	 * page sources rarely recur. Values which have not been rendered yet are left alone.
+	 */
+	void internStrings() {
+		if (dictionary == null)
+			return;
+		Cmd cmd = getCmd();
+		if (param1Renderer == null && StringDictionary.isRecurringParam1(cmd))
+			super.setParam1(dictionary.intern(super.getParam1()));
+		if (returnValueRenderer == null && StringDictionary.isRecurringReturnValue(cmd))
+			super.setReturnValue(dictionary.intern(super.getReturnValue()));
+		if (elementLocatorRenderer == null)
+			super.setElementLocator(dictionary.intern(super.getElementLocator()));
+	}
+
+	/**
+	 * Calls the listener method of the command and type of this event. The callbacks are looked up in the
+	 * {@link Cmd} table, so each of them has its own call site, which only sees the listeners implementing it,
+	 * instead of all events sharing one call of a closure.
+	 */
+	@Override
+	public void replay(IEventListener listener) {
+		Type type = getTypeOfLog();
+		if (type == Type.Exception) {
+			listener.onException(this, getCmd(), (Throwable) arg1);
+			return;
+		}
+		getCmd().replay(listener, this, type == Type.BeforeAction || type == Type.BeforeGather);
+	}
+}
@@ -8,8 +8,14 @@
 package com.salesforce.cte.listener.selenium;
 
 import java.io.File;
+import java.lang.ref.WeakReference;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.Cookie;
@@ -27,247 +33,460 @@ import org.openqa.selenium.interactions.Sequence;
 import org.openqa.selenium.print.PrintOptions;
 import org.openqa.selenium.remote.RemoteWebElement;
 
+import com.salesforce.cte.admin.TestAdvisorAdministrator;
+import com.salesforce.cte.common.TestCaseExecution;
 import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
 import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
 
 /**
  * Entry point for all WebDriver classes augmented by us to fit Test Advisor's needs.
+ * 
+ * Each {@link org.openqa.selenium.remote.RemoteWebDriver} owns its own dispatcher with its own event counter,
+ * current event and listener instances, so that sessions running in parallel threads do not share any state.
+ * <p>
+ * The before and after methods are written by hand, but they do not decide anything on their own: event type,
+ * numbering, subscription checks and the listener callback replaying an event come from the command table in
+ * {@link Cmd}. Each method only builds the values of its event and hands over the arguments of the call, see
+ * {@link DispatchedEvent#replay(IEventListener)}.
+ * {@code TestCommandTable} checks every pair of methods against the table, so a copy and paste mistake fails the
+ * build just as a generated dispatcher would avoid it, without adding a code generation step to the build.
  * @author gneumann
  * @since 1.0
  */
 public class EventDispatcher {
-	private static EventDispatcher instance = null;
-
-	private final List<IEventListener> eventListeners = new ArrayList<>();
-	private WebDriverEvent currentEvent = null;
-	private int eventNumber = 0;
-	
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final Map<WebDriver, EventDispatcher> dispatchers = new ConcurrentHashMap<>();
+	// held weakly, so a thread of a pool does not keep the dispatcher of a session it no longer runs
+	private static final ThreadLocal<WeakReference<EventDispatcher>> currentDispatcher = new ThreadLocal<>();
+	private static volatile EventDispatcher defaultInstance = null;
+	private static final Type[] TYPES = Type.values();
+	private static final int EVENT_POOL_SIZE = 16; // must be a power of two
+
+	private final boolean isEnabled;
+	private final List<IEventListener> eventListeners = new CopyOnWriteArrayList<>();
+	// all listeners wrapped as sinks plus the registered sinks, ordered by priority
+	private final List<IEventSink> eventSinks = new CopyOnWriteArrayList<>();
+	// all sinks are called through a guard isolating the WebDriver command from slow or failing listeners
+	private final List<GuardedEventSink> guardedSinks = new CopyOnWriteArrayList<>();
+	// sinks interested in a combination of command and event type, see subscriptionIndex()
+	private final IEventSink[][] synchronousSubscribers;
+	private final IEventSink[][] asynchronousSubscribers;
+	private final AsyncEventPipeline asyncPipeline;
+	private final FlightRecorder flightRecorder;
+	// null if strings are not interned
+	private final StringDictionary dictionary;
+	private final ReturnObjectRetention returnObjectRetention;
+	// reusable event records for synchronous dispatching, null if pooling is disabled
+	private final DispatchedEvent[] eventPool;
+	private final AtomicInteger eventPoolCursor = new AtomicInteger();
+	private final WebDriverEvent.TimeMarkers timeMarkers = new WebDriverEvent.TimeMarkers();
+	private final AtomicInteger eventNumber = new AtomicInteger();
+	private volatile Cmd currentCmd = null;
+	// set once the session has been quit, so threads it is still bound to drop it
+	private volatile boolean isRemoved = false;
+	// test case the events are currently dispatched for, see checkTestCase()
+	private volatile TestCaseExecution currentTestCase = null;
+
+	/**
+	 * Gets the dispatcher of the WebDriver session most recently created or bound on the calling thread.
+	 * If there is no such session or it has been quit, a dispatcher shared by all threads is returned.
+	 * @return event dispatcher
+	 */
 	public static EventDispatcher getInstance() {
-		if (instance == null)
-			instance = new EventDispatcher();
-		return instance;
+		WeakReference<EventDispatcher> binding = currentDispatcher.get();
+		if (binding != null) {
+			EventDispatcher dispatcher = binding.get();
+			if (dispatcher != null && !dispatcher.isRemoved)
+				return dispatcher;
+			// the session has been quit, possibly by another thread
+			currentDispatcher.remove();
+		}
+		if (defaultInstance == null) {
+			synchronized (EventDispatcher.class) {
+				if (defaultInstance == null)
+					defaultInstance = new EventDispatcher();
+			}
+		}
+		return defaultInstance;
+	}
+
+	/**
+	 * Gets the dispatcher of the given WebDriver session, creating it if needed, and binds it
+	 * to the calling thread.
+	 * @param driver WebDriver session
+	 * @return event dispatcher owned by the given session
+	 */
+	public static EventDispatcher getInstance(WebDriver driver) {
+		EventDispatcher dispatcher = dispatchers.computeIfAbsent(driver, d -> new EventDispatcher());
+		WeakReference<EventDispatcher> binding = currentDispatcher.get();
+		if (binding == null || binding.get() != dispatcher)
+			currentDispatcher.set(new WeakReference<>(dispatcher));
+		return dispatcher;
+	}
+
+	/**
+	 * Removes the dispatcher of the given WebDriver session from the registry. Every thread it is bound to
+	 * drops the binding on its next call of {@link #getInstance()}, the calling thread right away.
+	 * @param driver WebDriver session which has been quit
+	 */
+	public static void removeInstance(WebDriver driver) {
+		EventDispatcher dispatcher = dispatchers.remove(driver);
+		if (dispatcher == null)
+			return;
+		dispatcher.isRemoved = true;
+		WeakReference<EventDispatcher> binding = currentDispatcher.get();
+		if (binding != null && binding.get() == dispatcher)
+			currentDispatcher.remove();
+		if (dispatcher.asyncPipeline != null)
+			dispatcher.asyncPipeline.shutdown();
+		// the session ends with its last test case
+		if (dispatcher.flightRecorder != null)
+			dispatcher.flightRecorder.finishTestCase(dispatcher.getTestCase());
+		dispatcher.reportTrippedSinks();
+	}
+
+	/**
+	 * @return number of WebDriver sessions which have a dispatcher, i.e. which have not been quit
+	 */
+	public static int getNumberOfInstances() {
+		return dispatchers.size();
 	}
 
 	private EventDispatcher() {
-		eventListeners.add(new FullListener());
-		eventListeners.add(new ScreenshotListener());
-        eventListeners.add(new TestStepListener());
+		isEnabled = ListenerConfiguration.getInstrumentationEnabled();
+		if (isEnabled) {
+			eventListeners.addAll(ListenerRegistry.createListeners());
+			List<IEventSink> sinks = new ArrayList<>();
+			for (IEventListener listener : eventListeners)
+				sinks.add(new EventListenerSink(listener));
+			sinks.addAll(ListenerRegistry.createSinks());
+			sinks.sort(Comparator.comparingInt(IEventSink::getPriority));
+			eventSinks.addAll(sinks);
+		}
+
+		boolean isAsync = ListenerConfiguration.getAsyncDispatchEnabled();
+		List<IEventSink> syncSinks = new ArrayList<>();
+		List<IEventSink> asyncSinks = new ArrayList<>();
+		for (IEventSink sink : eventSinks) {
+			GuardedEventSink guardedSink = GuardedEventSink.of(sink);
+			guardedSinks.add(guardedSink);
+			if (isAsync && !sink.isSynchronous())
+				asyncSinks.add(guardedSink);
+			else
+				syncSinks.add(guardedSink);
+		}
+		synchronousSubscribers = subscribersOf(syncSinks);
+		asynchronousSubscribers = subscribersOf(asyncSinks);
+		int dictionarySize = ListenerConfiguration.getDictionarySize();
+		dictionary = (isEnabled && dictionarySize > 0) ? new StringDictionary(dictionarySize) : null;
+		if (isEnabled && ListenerConfiguration.getEventPoolingEnabled()) {
+			eventPool = new DispatchedEvent[EVENT_POOL_SIZE];
+			for (int i = 0; i < EVENT_POOL_SIZE; i++)
+				eventPool[i] = new DispatchedEvent(true, dictionary);
+		} else {
+			eventPool = null;
+		}
+		returnObjectRetention = ListenerConfiguration.getReturnObjectRetention();
+		if (isEnabled && ListenerConfiguration.getFlightRecorderEnabled()) {
+			flightRecorder = new FlightRecorder(ListenerConfiguration.getFlightRecorderEvents(), ListenerConfiguration.getFlightRecorderScreenshots());
+			for (IEventListener listener : eventListeners) {
+				if (listener instanceof AbstractEventListener)
+					flightRecorder.register((AbstractEventListener) listener);
+			}
+		} else {
+			flightRecorder = null;
+		}
+		asyncPipeline = asyncSinks.isEmpty() ? null
+				: new AsyncEventPipeline(asyncSinks.toArray(new IEventSink[0]),
+						ListenerConfiguration.getDispatchBufferSize(), ListenerConfiguration.getDispatchBackpressure(),
+						returnObjectRetention);
+	}
+
+	/**
+	 * @return false if instrumentation has been switched off, in which case this dispatcher has no listeners
+	 *         and all its methods return immediately
+	 */
+	public boolean isEnabled() {
+		return isEnabled;
 	}
 
 	public void setWebDriver(WebDriver driver){
 		for(IEventListener listener : eventListeners){
-			((AbstractEventListener)listener).setWebDriver(driver);
+			if (listener instanceof AbstractEventListener)
+				((AbstractEventListener)listener).setWebDriver(driver);
 		}
 	}
 
 	public List<IEventListener> getImmutableListOfEventListeners() {
 		return Collections.unmodifiableList(eventListeners);
 	}
+
+	/**
+	 * @return all sinks of this session in the order they are called, with each listener wrapped in an {@link EventListenerSink}
+	 */
+	public List<IEventSink> getImmutableListOfEventSinks() {
+		return Collections.unmodifiableList(eventSinks);
+	}
+
+	/**
+	 * @return flight recorder of this session or null if flight recorder mode is disabled
+	 */
+	public FlightRecorder getFlightRecorder() {
+		return flightRecorder;
+	}
+
+	/**
+	 * @return dictionary of the strings recurring in the events of this session or null if strings are not interned
+	 */
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return guards of all sinks in the order they are called, see {@link GuardedEventSink}
+	 */
+	public List<GuardedEventSink> getImmutableListOfGuardedSinks() {
+		return Collections.unmodifiableList(guardedSinks);
+	}
+
+	/**
+	 * Waits until all events have been delivered to the listeners which are called asynchronously.
+	 * Returns immediately if asynchronous dispatching is disabled.
+	 */
+	public void flush() {
+		if (asyncPipeline != null)
+			asyncPipeline.flush();
+	}
 	
 	public void beforeGet(String url) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.get);
+		DispatchedEvent event = newBeforeEvent(Cmd.get);
+		if (event == null)
+			return;
 		event.setParam1(url);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGet(event, url);
+		event.setArguments(url);
+		dispatch(event);
 	}
 
 	public void afterGet(String url) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.get);
+		DispatchedEvent event = newAfterEvent(Cmd.get);
+		if (event == null)
+			return;
 		event.setParam1(url);
-		for (IEventListener listener : eventListeners)
-			listener.afterGet(event, url);
+		event.setArguments(url);
+		dispatch(event);
 	}
 
 	public void beforeGetTitle() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getTitle);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetTitle(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getTitle);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetTitle(String title) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getTitle);
+		DispatchedEvent event = newAfterEvent(Cmd.getTitle);
+		if (event == null)
+			return;
 		event.setReturnValue(title);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetTitle(event, title);
+		event.setArguments(title);
+		dispatch(event);
 	}
 
 	public void beforeGetCurrentUrl() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getCurrentUrl);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetCurrentUrl(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getCurrentUrl);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetCurrentUrl(String url) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.get);
+		DispatchedEvent event = newAfterEvent(Cmd.getCurrentUrl);
+		if (event == null)
+			return;
 		event.setReturnValue(url);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetCurrentUrl(event, url);
+		event.setArguments(url);
+		dispatch(event);
 	}
 
 	public <X> void beforeGetScreenshotAs(OutputType<X> target) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getScreenshotAs);
+		DispatchedEvent event = newBeforeEvent(Cmd.getScreenshotAs);
+		if (event == null)
+			return;
 		event.setParam1(target.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetScreenshotAs(event, target);
+		event.setArguments(target);
+		dispatch(event);
 	}
 
 	public <X> void afterGetScreenshotAs(OutputType<X> target, X screenshot) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getScreenshotAs);
+		DispatchedEvent event = newAfterEvent(Cmd.getScreenshotAs);
+		if (event == null)
+			return;
 		event.setParam1(target.toString());
 		event.setReturnObject(screenshot);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetScreenshotAs(event, target, screenshot);
+		event.setArguments(target, screenshot);
+		dispatch(event);
 	}
 
 	public void beforeFindElements(By by) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.findElements);
-		event.setParam1(WebDriverEvent.getLocatorFromBy(by));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeFindElements(event, by);
+		DispatchedEvent event = newBeforeEvent(Cmd.findElements);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::locatorOf, by);
+		event.setArguments(by);
+		dispatch(event);
 	}
 
 	public void afterFindElements(List<WebElement> elements, By by) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.findElements);
-		event.setParam1(WebDriverEvent.getLocatorFromBy(by));
-		if (elements.size() > 0) {
-			if (elements.size() == 1)
-				event.setReturnValue(WebDriverEvent.getLocatorFromWebElement(elements.get(0)));
-			else
-				event.setReturnValue(WebDriverEvent.getLocatorFromWebElement(elements.get(0)) + " and "
-						+ (elements.size() - 1) + " more");				
-		}
+		DispatchedEvent event = newAfterEvent(Cmd.findElements);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::locatorOf, by);
+		if (elements.size() > 0)
+			event.deferReturnValue(EventDispatcher::locatorsOf, elements);
 		event.setReturnObject(elements);
-		for (IEventListener listener : eventListeners)
-			listener.afterFindElements(event, elements, by);
+		event.setArguments(elements, by);
+		dispatch(event);
 	}
 
 	public void beforeFindElement(By by) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.findElement);
-		event.setParam1(WebDriverEvent.getLocatorFromBy(by));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeFindElement(event, by);
+		DispatchedEvent event = newBeforeEvent(Cmd.findElement);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::locatorOf, by);
+		event.setArguments(by);
+		dispatch(event);
 	}
 
 	public void afterFindElement(WebElement element, By by) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.findElement);
-		event.setParam1(WebDriverEvent.getLocatorFromBy(by));
-		event.setReturnValue(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.findElement);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::locatorOf, by);
+		event.deferReturnValue(EventDispatcher::locatorOf, element);
 		event.setReturnObject(element);
-		for (IEventListener listener : eventListeners)
-			listener.afterFindElement(event, element, by);
+		event.setArguments(element, by);
+		dispatch(event);
 	}
 
 	public void beforeGetPageSource() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getPageSource);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetPageSource(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getPageSource);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetPageSource(String source) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getPageSource);
+		DispatchedEvent event = newAfterEvent(Cmd.getPageSource);
+		if (event == null)
+			return;
 		event.setReturnValue(source);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetPageSource(event, source);		
+		event.setArguments(source);
+		dispatch(event);
 	}
 
 	public void beforeClose() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.close);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeClose(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.close);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterClose() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.get);
-		for (IEventListener listener : eventListeners)
-			listener.afterClose(event);
+		DispatchedEvent event = newAfterEvent(Cmd.close);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeQuit() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.quit);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeQuit(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.quit);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterQuit() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.quit);
-		for (IEventListener listener : eventListeners)
-			listener.afterQuit(event);
+		DispatchedEvent event = newAfterEvent(Cmd.quit);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeGetWindowHandles() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getWindowHandles);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetWindowHandles(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getWindowHandles);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetWindowHandles(Set<String> handles) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getWindowHandles);
+		DispatchedEvent event = newAfterEvent(Cmd.getWindowHandles);
+		if (event == null)
+			return;
 		event.setReturnObject(handles);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetWindowHandles(event, handles);
+		event.setArguments(handles);
+		dispatch(event);
 	}
 
 	public void beforeGetWindowHandle() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getWindowHandle);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetWindowHandle(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getWindowHandle);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetWindowHandle(String handle) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getWindowHandle);
+		DispatchedEvent event = newAfterEvent(Cmd.getWindowHandle);
+		if (event == null)
+			return;
 		event.setReturnValue(handle);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetWindowHandle(event, handle);
+		event.setArguments(handle);
+		dispatch(event);
 	}
 
 	public void beforeExecuteScript(String script, List<Object> convertedArgs) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.executeScript);
+		DispatchedEvent event = newBeforeEvent(Cmd.executeScript);
+		if (event == null)
+			return;
 		event.setParam1(script);
-		event.setParam2(printArgs(convertedArgs));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeExecuteScript(event, script, convertedArgs);
+		event.deferParam2(EventDispatcher::argsOf, convertedArgs);
+		event.setArguments(script, convertedArgs);
+		dispatch(event);
 	}
 
 	public void afterExecuteScript(String script, List<Object> convertedArgs, Object result) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.executeScript);
+		DispatchedEvent event = newAfterEvent(Cmd.executeScript);
+		if (event == null)
+			return;
 		event.setParam1(script);
-		event.setParam2(printArgs(convertedArgs));
+		event.deferParam2(EventDispatcher::argsOf, convertedArgs);
 		event.setReturnObject(result);
-		for (IEventListener listener : eventListeners)
-			listener.afterExecuteScript(event, script, convertedArgs, result);
+		event.setArguments(script, convertedArgs, result);
+		dispatch(event);
 	}
 
 	public void beforeExecuteAsyncScript(String script, List<Object> convertedArgs) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.executeAsyncScript);
+		DispatchedEvent event = newBeforeEvent(Cmd.executeAsyncScript);
+		if (event == null)
+			return;
 		event.setParam1(script);
-		event.setParam2(printArgs(convertedArgs));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeExecuteAsyncScript(event, script, convertedArgs);
+		event.deferParam2(EventDispatcher::argsOf, convertedArgs);
+		event.setArguments(script, convertedArgs);
+		dispatch(event);
 	}
 
 	public void afterExecuteAsyncScript(String script, List<Object> convertedArgs, Object result) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.executeAsyncScript);
+		DispatchedEvent event = newAfterEvent(Cmd.executeAsyncScript);
+		if (event == null)
+			return;
 		event.setParam1(script);
-		event.setParam2(printArgs(convertedArgs));
+		event.deferParam2(EventDispatcher::argsOf, convertedArgs);
 		event.setReturnObject(result);
-		for (IEventListener listener : eventListeners)
-			listener.afterExecuteAsyncScript(event, script, convertedArgs, result);
+		event.setArguments(script, convertedArgs, result);
+		dispatch(event);
 	}
 	
-	private String printArgs(List<Object> convertedArgs) {
+	private static String argsOf(List<Object> convertedArgs, DispatchedEvent event) {
 		if (convertedArgs.isEmpty())
 			return null;
 
@@ -296,544 +515,624 @@ public class EventDispatcher {
 	}
 	
 	public void beforeActions(Collection<Sequence> actions) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.perform);
-		event.setParam1(actions.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeActions(event, actions);
+		DispatchedEvent event = newBeforeEvent(Cmd.perform);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::stringOf, actions);
+		event.setArguments(actions);
+		dispatch(event);
 	}
 	
 	public void afterActions(Collection<Sequence> actions) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber, Cmd.perform);
-		event.setParam1(actions.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterActions(event, actions);
+		DispatchedEvent event = newAfterEvent(Cmd.perform);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::stringOf, actions);
+		event.setArguments(actions);
+		dispatch(event);
 	}
 
 	public void beforePrint(PrintOptions printOptions) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.print);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforePrint(event, printOptions);
+		DispatchedEvent event = newBeforeEvent(Cmd.print);
+		if (event == null)
+			return;
+		event.setArguments(printOptions);
+		dispatch(event);
 	}
 
 	public void afterPrint(PrintOptions printOptions, Pdf printedPdfPage) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber, Cmd.print);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.afterPrint(event, printOptions, printedPdfPage);
+		DispatchedEvent event = newAfterEvent(Cmd.print);
+		if (event == null)
+			return;
+		event.setArguments(printOptions, printedPdfPage);
+		dispatch(event);
 	}
 	
 	public void beforeResetInputState() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.resetInputState);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeResetInputState(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.resetInputState);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 	
 	public void afterResetInputState() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber, Cmd.resetInputState);
-		for (IEventListener listener : eventListeners)
-			listener.afterResetInputState(event);
+		DispatchedEvent event = newAfterEvent(Cmd.resetInputState);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeAddCookie(Cookie cookie) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.addCookie);
-		event.setParam1(cookie.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeAddCookie(event, cookie);
+		DispatchedEvent event = newBeforeEvent(Cmd.addCookie);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::stringOf, cookie);
+		event.setArguments(cookie);
+		dispatch(event);
 	}
 
 	public void afterAddCookie(Cookie cookie) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.addCookie);
-		event.setParam1(cookie.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterAddCookie(event, cookie);
+		DispatchedEvent event = newAfterEvent(Cmd.addCookie);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::stringOf, cookie);
+		event.setArguments(cookie);
+		dispatch(event);
 	}
 
 	public void beforeDeleteCookieNamed(String name) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.deleteCookieNamed);
+		DispatchedEvent event = newBeforeEvent(Cmd.deleteCookieNamed);
+		if (event == null)
+			return;
 		event.setParam1(name);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeDeleteCookieNamed(event, name);
+		event.setArguments(name);
+		dispatch(event);
 	}
 
 	public void afterDeleteCookieNamed(String name) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.deleteCookieNamed);
+		DispatchedEvent event = newAfterEvent(Cmd.deleteCookieNamed);
+		if (event == null)
+			return;
 		event.setParam1(name);
-		for (IEventListener listener : eventListeners)
-			listener.afterDeleteCookieNamed(event, name);
+		event.setArguments(name);
+		dispatch(event);
 	}
 
 	public void beforeDeleteCookie(Cookie cookie) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.deleteCookie);
-		event.setParam1(cookie.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeDeleteCookie(event, cookie);
+		DispatchedEvent event = newBeforeEvent(Cmd.deleteCookie);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::stringOf, cookie);
+		event.setArguments(cookie);
+		dispatch(event);
 	}
 
 	public void afterDeleteCookie(Cookie cookie) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.deleteCookie);
-		event.setParam1(cookie.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterDeleteCookie(event, cookie);
+		DispatchedEvent event = newAfterEvent(Cmd.deleteCookie);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::stringOf, cookie);
+		event.setArguments(cookie);
+		dispatch(event);
 	}
 
 	public void beforeDeleteAllCookies() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.deleteAllCookies);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeDeleteAllCookies(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.deleteAllCookies);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterDeleteAllCookies() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.deleteAllCookies);
-		for (IEventListener listener : eventListeners)
-			listener.afterDeleteAllCookies(event);
+		DispatchedEvent event = newAfterEvent(Cmd.deleteAllCookies);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeGetCookies() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.getCookies);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetCookies(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getCookies);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetCookies(Set<Cookie> cookies) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.getCookies);
+		DispatchedEvent event = newAfterEvent(Cmd.getCookies);
+		if (event == null)
+			return;
 		event.setReturnObject(cookies);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetCookies(event, cookies);
+		event.setArguments(cookies);
+		dispatch(event);
 	}
 
 	public void beforeGetCookieNamed(String name) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.getCookieNamed);
+		DispatchedEvent event = newBeforeEvent(Cmd.getCookieNamed);
+		if (event == null)
+			return;
 		event.setParam1(name);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetCookieNamed(event, name);
+		event.setArguments(name);
+		dispatch(event);
 	}
 
 	public void afterGetCookieNamed(String name, Cookie cookie) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.getCookieNamed);
+		DispatchedEvent event = newAfterEvent(Cmd.getCookieNamed);
+		if (event == null)
+			return;
 		event.setParam1(name);
 		event.setReturnObject(cookie);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetCookieNamed(event, name, cookie);
+		event.setArguments(name, cookie);
+		dispatch(event);
 	}
 
 	public void beforeGetAvailableEngines() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getAvailableEngines);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetAvailableEngines(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getAvailableEngines);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetAvailableEngines(List<String> engines) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getAvailableEngines);
+		DispatchedEvent event = newAfterEvent(Cmd.getAvailableEngines);
+		if (event == null)
+			return;
 		event.setReturnObject(engines);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetAvailableEngines(event, engines);
+		event.setArguments(engines);
+		dispatch(event);
 	}
 
 	public void beforeGetActiveEngine() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getActiveEngine);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetActiveEngine(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getActiveEngine);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetActiveEngine(String engine) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getActiveEngine);
+		DispatchedEvent event = newAfterEvent(Cmd.getActiveEngine);
+		if (event == null)
+			return;
 		event.setReturnValue(engine);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetActiveEngine(event, engine);
+		event.setArguments(engine);
+		dispatch(event);
 	}
 
 	public void beforeIsActivated() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.isActivated);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeIsActivated(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.isActivated);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterIsActivated(boolean isActivated) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.isActivated);
+		DispatchedEvent event = newAfterEvent(Cmd.isActivated);
+		if (event == null)
+			return;
 		event.setReturnValue(Boolean.toString(isActivated));
-		for (IEventListener listener : eventListeners)
-			listener.afterIsActivated(event, isActivated);
+		event.setArguments(isActivated);
+		dispatch(event);
 	}
 
 	public void beforeDeactivate() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.deactivate);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeDeactivate(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.deactivate);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterDeactivate() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.deactivate);
-		for (IEventListener listener : eventListeners)
-			listener.afterDeactivate(event);
+		DispatchedEvent event = newAfterEvent(Cmd.deactivate);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeActivateEngine(String engine) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.activateEngine);
+		DispatchedEvent event = newBeforeEvent(Cmd.activateEngine);
+		if (event == null)
+			return;
 		event.setParam1(engine);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeActivateEngine(event, engine);
+		event.setArguments(engine);
+		dispatch(event);
 	}
 
 	public void afterActivateEngine(String engine) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.activateEngine);
+		DispatchedEvent event = newAfterEvent(Cmd.activateEngine);
+		if (event == null)
+			return;
 		event.setParam1(engine);
-		for (IEventListener listener : eventListeners)
-			listener.afterActivateEngine(event, engine);
+		event.setArguments(engine);
+		dispatch(event);
 	}
 
 	public void beforeImplicitlyWait(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.implicitlyWait);
+		DispatchedEvent event = newBeforeEvent(Cmd.implicitlyWait);
+		if (event == null)
+			return;
 		event.setParam1(duration.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeImplicitlyWait(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void afterImplicitlyWait(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.implicitlyWait);
+		DispatchedEvent event = newAfterEvent(Cmd.implicitlyWait);
+		if (event == null)
+			return;
 		event.setParam1(duration.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterImplicitlyWait(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void beforeGetImplicitWaitTimeout() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getImplicitWaitTimeout);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetImplicitWaitTimeout(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getImplicitWaitTimeout);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetImplicitWaitTimeout(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getImplicitWaitTimeout);
+		DispatchedEvent event = newAfterEvent(Cmd.getImplicitWaitTimeout);
+		if (event == null)
+			return;
 		event.setReturnValue(duration.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterGetImplicitWaitTimeout(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void beforeSetScriptTimeout(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.setScriptTimeout);
+		DispatchedEvent event = newBeforeEvent(Cmd.setScriptTimeout);
+		if (event == null)
+			return;
 		event.setParam1(duration.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeSetScriptTimeout(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void afterSetScriptTimeout(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.setScriptTimeout);
+		DispatchedEvent event = newAfterEvent(Cmd.setScriptTimeout);
+		if (event == null)
+			return;
 		event.setParam1(duration.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterSetScriptTimeout(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void beforeGetScriptTimeout() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getScriptTimeout);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetScriptTimeout(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getScriptTimeout);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetScriptTimeout(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getScriptTimeout);
+		DispatchedEvent event = newAfterEvent(Cmd.getScriptTimeout);
+		if (event == null)
+			return;
 		event.setReturnValue(duration.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterGetScriptTimeout(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void beforePageLoadTimeout(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.pageLoadTimeout);
+		DispatchedEvent event = newBeforeEvent(Cmd.pageLoadTimeout);
+		if (event == null)
+			return;
 		event.setParam1(duration.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforePageLoadTimeout(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void afterPageLoadTimeout(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.pageLoadTimeout);
+		DispatchedEvent event = newAfterEvent(Cmd.pageLoadTimeout);
+		if (event == null)
+			return;
 		event.setParam1(duration.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterPageLoadTimeout(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void beforeGetPageLoadTimeout() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getPageLoadTimeout);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetPageLoadTimeout(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getPageLoadTimeout);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetPageLoadTimeout(Duration duration) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getPageLoadTimeout);
+		DispatchedEvent event = newAfterEvent(Cmd.getPageLoadTimeout);
+		if (event == null)
+			return;
 		event.setReturnValue(duration.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterGetPageLoadTimeout(event, duration);
+		event.setArguments(duration);
+		dispatch(event);
 	}
 
 	public void beforeSetSizeByWindow(Dimension targetSize) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.setSizeByWindow);
-		event.setParam1(targetSize.getHeight() + "x" + targetSize.getWidth());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeSetSizeByWindow(event, targetSize);
+		DispatchedEvent event = newBeforeEvent(Cmd.setSizeByWindow);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::sizeOf, targetSize);
+		event.setArguments(targetSize);
+		dispatch(event);
 	}
 
 	public void afterSetSizeByWindow(Dimension targetSize) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.setSizeByWindow);
-		event.setParam1(targetSize.getHeight() + "x" + targetSize.getWidth());
-		for (IEventListener listener : eventListeners)
-			listener.afterSetSizeByWindow(event, targetSize);
+		DispatchedEvent event = newAfterEvent(Cmd.setSizeByWindow);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::sizeOf, targetSize);
+		event.setArguments(targetSize);
+		dispatch(event);
 	}
 
 	public void beforeSetPosition(Point targetPosition) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.setPosition);
-		event.setParam1("x:" + targetPosition.x + ",y:" + targetPosition.y);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeSetPosition(event, targetPosition);
+		DispatchedEvent event = newBeforeEvent(Cmd.setPosition);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::positionOf, targetPosition);
+		event.setArguments(targetPosition);
+		dispatch(event);
 	}
 
 	public void afterSetPosition(Point targetPosition) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.setPosition);
-		event.setParam1("x:" + targetPosition.x + ",y:" + targetPosition.y);
-		for (IEventListener listener : eventListeners)
-			listener.afterSetPosition(event, targetPosition);
+		DispatchedEvent event = newAfterEvent(Cmd.setPosition);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::positionOf, targetPosition);
+		event.setArguments(targetPosition);
+		dispatch(event);
 	}
 
 	public void beforeGetSizeByWindow() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getSizeByWindow);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetSizeByWindow(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getSizeByWindow);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetSizeByWindow(Dimension size) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getSizeByWindow);
-		event.setReturnValue(String.format("h:%d,w:%d", size.height, size.width));
+		DispatchedEvent event = newAfterEvent(Cmd.getSizeByWindow);
+		if (event == null)
+			return;
+		event.deferReturnValue(EventDispatcher::heightAndWidthOf, size);
 		event.setReturnObject(size);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetSizeByWindow(event, size);
+		event.setArguments(size);
+		dispatch(event);
 	}
 
 	public void beforeGetPosition() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getPosition);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetPosition(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getPosition);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetPosition(Point targetPosition) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getPosition);
+		DispatchedEvent event = newAfterEvent(Cmd.getPosition);
+		if (event == null)
+			return;
 		event.setReturnObject(targetPosition);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.afterGetPosition(event, targetPosition);
+		event.setArguments(targetPosition);
+		dispatch(event);
 	}
 
 	public void beforeMaximize() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.maximize);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeMaximize(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.maximize);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterMaximize() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.maximize);
-		for (IEventListener listener : eventListeners)
-			listener.afterMaximize(event);
+		DispatchedEvent event = newAfterEvent(Cmd.maximize);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeMinimize() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.minimize);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeMinimize(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.minimize);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterMinimize() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.minimize);
-		for (IEventListener listener : eventListeners)
-			listener.afterMinimize(event);
+		DispatchedEvent event = newAfterEvent(Cmd.minimize);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeFullscreen() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.fullscreen);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeFullscreen(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.fullscreen);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterFullscreen() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.fullscreen);
-		for (IEventListener listener : eventListeners)
-			listener.afterFullscreen(event);
+		DispatchedEvent event = newAfterEvent(Cmd.fullscreen);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeBack() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.back);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeBack(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.back);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterBack() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.back);
-		for (IEventListener listener : eventListeners)
-			listener.afterBack(event);
+		DispatchedEvent event = newAfterEvent(Cmd.back);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeForward() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.forward);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeForward(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.forward);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterForward() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.forward);
-		for (IEventListener listener : eventListeners)
-			listener.afterForward(event);
+		DispatchedEvent event = newAfterEvent(Cmd.forward);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeRefresh() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.refresh);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeRefresh(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.refresh);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterRefresh() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.refresh);
-		for (IEventListener listener : eventListeners)
-			listener.afterRefresh(event);
+		DispatchedEvent event = newAfterEvent(Cmd.refresh);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeFrameByIndex(int frameIndex) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.frameByIndex);
+		DispatchedEvent event = newBeforeEvent(Cmd.frameByIndex);
+		if (event == null)
+			return;
 		event.setParam1("" + frameIndex);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeFrameByIndex(event, frameIndex);
+		event.setArguments(frameIndex);
+		dispatch(event);
 	}
 
 	public void afterFrameByIndex(int frameIndex) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.frameByIndex);
+		DispatchedEvent event = newAfterEvent(Cmd.frameByIndex);
+		if (event == null)
+			return;
 		event.setParam1("" + frameIndex);
-		for (IEventListener listener : eventListeners)
-			listener.afterFrameByIndex(event, frameIndex);
+		event.setArguments(frameIndex);
+		dispatch(event);
 	}
 
 	public void beforeFrameByName(String frameName) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.frameByElement);
+		DispatchedEvent event = newBeforeEvent(Cmd.frameByName);
+		if (event == null)
+			return;
 		event.setParam1(frameName);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeFrameByName(event, frameName);
+		event.setArguments(frameName);
+		dispatch(event);
 	}
 
 	public void afterFrameByName(String frameName) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.frameByElement);
+		DispatchedEvent event = newAfterEvent(Cmd.frameByName);
+		if (event == null)
+			return;
 		event.setParam1(frameName);
-		for (IEventListener listener : eventListeners)
-			listener.afterFrameByName(event, frameName);
+		event.setArguments(frameName);
+		dispatch(event);
 	}
 
 	public void beforeFrameByElement(WebElement frameElement) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.frameByElement);
-		event.setParam1(WebDriverEvent.getLocatorFromWebElement(frameElement));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeFrameByElement(event, frameElement);
+		DispatchedEvent event = newBeforeEvent(Cmd.frameByElement);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::locatorOf, frameElement);
+		event.setArguments(frameElement);
+		dispatch(event);
 	}
 
 	public void afterFrameByElement(WebElement frameElement) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.frameByElement);
-		event.setParam1(WebDriverEvent.getLocatorFromWebElement(frameElement));
-		for (IEventListener listener : eventListeners)
-			listener.afterFrameByElement(event, frameElement);
+		DispatchedEvent event = newAfterEvent(Cmd.frameByElement);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::locatorOf, frameElement);
+		event.setArguments(frameElement);
+		dispatch(event);
 	}
 
 	public void beforeParentFrame() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.parentFrame);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeParentFrame(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.parentFrame);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterParentFrame() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.parentFrame);
-		for (IEventListener listener : eventListeners)
-			listener.afterParentFrame(event);
+		DispatchedEvent event = newAfterEvent(Cmd.parentFrame);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeWindow(String windowHandleOrName) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.window);
+		DispatchedEvent event = newBeforeEvent(Cmd.window);
+		if (event == null)
+			return;
 		event.setParam1(windowHandleOrName);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeWindow(event, windowHandleOrName);
+		event.setArguments(windowHandleOrName);
+		dispatch(event);
 	}
 
 	public void afterWindow(String windowHandleOrName) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.window);
+		DispatchedEvent event = newAfterEvent(Cmd.window);
+		if (event == null)
+			return;
 		event.setParam1(windowHandleOrName);
-		for (IEventListener listener : eventListeners)
-			listener.afterWindow(event, windowHandleOrName);
+		event.setArguments(windowHandleOrName);
+		dispatch(event);
 	}
 
 	public void beforeNewWindow(WindowType typeHint) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.newWindow);
+		DispatchedEvent event = newBeforeEvent(Cmd.newWindow);
+		if (event == null)
+			return;
 		event.setParam1(typeHint.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeNewWindow(event, typeHint);
+		event.setArguments(typeHint);
+		dispatch(event);
 	}
 
 	public void afterNewWindow(WindowType typeHint) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber, Cmd.newWindow);
+		DispatchedEvent event = newAfterEvent(Cmd.newWindow);
+		if (event == null)
+			return;
 		event.setParam1(typeHint.toString());
-		for (IEventListener listener : eventListeners)
-			listener.afterNewWindow(event, typeHint);
+		event.setArguments(typeHint);
+		dispatch(event);
 	}
 
 	public void beforeDefaultContent() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.defaultContent);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeDefaultContent(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.defaultContent);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterDefaultContent() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.defaultContent);
-		for (IEventListener listener : eventListeners)
-			listener.afterDefaultContent(event);
+		DispatchedEvent event = newAfterEvent(Cmd.defaultContent);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 	
 	public void beforeActiveElement() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.activeElement);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeActiveElement(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.activeElement);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterActiveElement(WebElement activeElement) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.activeElement);
-		event.setReturnValue(WebDriverEvent.getLocatorFromWebElement(activeElement));
+		DispatchedEvent event = newAfterEvent(Cmd.activeElement);
+		if (event == null)
+			return;
+		event.deferReturnValue(EventDispatcher::locatorOf, activeElement);
 		event.setReturnObject(activeElement);
-		for (IEventListener listener : eventListeners)
-			listener.afterActiveElement(event, activeElement);
+		event.setArguments(activeElement);
+		dispatch(event);
 	}
 
 	/* End of methods provided by RemoteTargetLocator */
@@ -841,58 +1140,65 @@ public class EventDispatcher {
 	/* Begin of methods provided by RemoteAlert class */
 
 	public void beforeDismiss() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.dismiss);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeDismiss(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.dismiss);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterDismiss() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.dismiss);
-		for (IEventListener listener : eventListeners)
-			listener.afterDismiss(event);
+		DispatchedEvent event = newAfterEvent(Cmd.dismiss);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeAccept() {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.accept);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeAccept(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.accept);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterAccept() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.accept);
-		for (IEventListener listener : eventListeners)
-			listener.afterAccept(event);
+		DispatchedEvent event = newAfterEvent(Cmd.accept);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void beforeGetTextByAlert() {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getTextByAlert);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetTextByAlert(event);
+		DispatchedEvent event = newBeforeEvent(Cmd.getTextByAlert);
+		if (event == null)
+			return;
+		dispatch(event);
 	}
 
 	public void afterGetTextByAlert(String text) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getTextByAlert);
+		DispatchedEvent event = newAfterEvent(Cmd.getTextByAlert);
+		if (event == null)
+			return;
 		event.setReturnValue(text);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetTextByAlert(event, text);
+		event.setArguments(text);
+		dispatch(event);
 	}
 
 	public void beforeSendKeysByAlert(String keysToSend) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.sendKeysByAlert);
+		DispatchedEvent event = newBeforeEvent(Cmd.sendKeysByAlert);
+		if (event == null)
+			return;
 		event.setParam1(keysToSend);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeSendKeysByAlert(event, keysToSend);
+		event.setArguments(keysToSend);
+		dispatch(event);
 	}
 
 	public void afterSendKeysByAlert(String keysToSend) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.accept);
+		DispatchedEvent event = newAfterEvent(Cmd.sendKeysByAlert);
+		if (event == null)
+			return;
 		event.setParam1(keysToSend);
-		for (IEventListener listener : eventListeners)
-			listener.afterSendKeysByAlert(event, keysToSend);
+		event.setArguments(keysToSend);
+		dispatch(event);
 	}
 
 	/* End of methods provided by RemoteWebDriver and its inner classes */
@@ -900,365 +1206,432 @@ public class EventDispatcher {
 	/* Begin of methods provided by RemoteWebElement class */
 	
 	public void beforeClick(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.clickByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeClick(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.clickByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterClick(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.clickByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		for (IEventListener listener : eventListeners)
-			listener.afterClick(event, element);
+		DispatchedEvent event = newAfterEvent(Cmd.clickByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void beforeSubmit(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.submit);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeSubmit(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.submit);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterSubmit(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.submit);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		for (IEventListener listener : eventListeners)
-			listener.afterSubmit(event, element);
+		DispatchedEvent event = newAfterEvent(Cmd.submit);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void beforeSendKeysByElement(WebElement element, CharSequence... keysToSend) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.sendKeysByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		event.setParam1(maskTextIfPassword(event.getElementLocator(), keysToSend));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeSendKeysByElement(event, element, keysToSend);
+		DispatchedEvent event = newBeforeEvent(Cmd.sendKeysByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.deferParam1(EventDispatcher::maskedKeysOf, keysToSend);
+		event.setArguments(element, keysToSend);
+		dispatch(event);
 	}
 
 	public void afterSendKeysByElement(WebElement element, CharSequence... keysToSend) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.sendKeysByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		event.setParam1(maskTextIfPassword(event.getElementLocator(), keysToSend));
-		for (IEventListener listener : eventListeners)
-			listener.afterSendKeysByElement(event, element, keysToSend);
+		DispatchedEvent event = newAfterEvent(Cmd.sendKeysByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.deferParam1(EventDispatcher::maskedKeysOf, keysToSend);
+		event.setArguments(element, keysToSend);
+		dispatch(event);
 	}
 
 	public void beforeUploadFile(WebElement element, File localFile) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.uploadFile);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newBeforeEvent(Cmd.uploadFile);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(localFile.getPath());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeUploadFile(event, element, localFile);
+		event.setArguments(element, localFile);
+		dispatch(event);
 	}
 
 	public void afterUploadFile(WebElement element, File localFile, String response) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.uploadFile);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.uploadFile);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(localFile.getPath());
-		for (IEventListener listener : eventListeners)
-			listener.afterUploadFile(event, element, localFile, response);
+		event.setArguments(element, localFile, response);
+		dispatch(event);
 	}
 
 	public void beforeClear(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.clear);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeClear(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.clear);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterClear(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.clear);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		for (IEventListener listener : eventListeners)
-			listener.afterClear(event, element);
+		DispatchedEvent event = newAfterEvent(Cmd.clear);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void beforeGetAttribute(String name, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getAttribute);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newBeforeEvent(Cmd.getAttribute);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(name);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetAttribute(event, name, element);
+		event.setArguments(name, element);
+		dispatch(event);
 	}
 
 	public void afterGetAttribute(String value, String name, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getAttribute);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getAttribute);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(name);
 		event.setReturnValue(value);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetAttribute(event, value, name, element);		
+		event.setArguments(value, name, element);
+		dispatch(event);
 	}
 
 	public void beforeGetDomAttribute(String name, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getDomAttribute);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newBeforeEvent(Cmd.getDomAttribute);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(name);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetDomAttribute(event, name, element);
+		event.setArguments(name, element);
+		dispatch(event);
 	}
 
 	public void afterGetDomAttribute(String name, String value, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getDomAttribute);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getDomAttribute);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(name);
 		event.setReturnValue(value);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetDomAttribute(event, value, name, element);		
+		event.setArguments(value, name, element);
+		dispatch(event);
 	}
 
 	public void beforeGetDomProperty(String name, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getDomProperty);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newBeforeEvent(Cmd.getDomProperty);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(name);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetDomProperty(event, name, element);
+		event.setArguments(name, element);
+		dispatch(event);
 	}
 
 	public void afterGetDomProperty(String name, String value, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getDomProperty);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getDomProperty);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(name);
 		event.setReturnValue(value);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetDomProperty(event, value, name, element);		
+		event.setArguments(value, name, element);
+		dispatch(event);
 	}
 
 	public void beforeGetAriaRole(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getAriaRole);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetAriaRole(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getAriaRole);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetAriaRole(String role, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getAriaRole);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getAriaRole);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setReturnValue(role);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetAriaRole(event, role, element);
+		event.setArguments(role, element);
+		dispatch(event);
 	}
 
 	public void beforeGetAccessibleName(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getAccessibleName);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetAccessibleName(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getAccessibleName);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetAccessibleName(String role, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getAccessibleName);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getAccessibleName);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setReturnValue(role);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetAccessibleName(event, role, element);
+		event.setArguments(role, element);
+		dispatch(event);
 	}
 
 	public void beforeGetTagName(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getTagName);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetTagName(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getTagName);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetTagName(String tagName, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getTagName);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getTagName);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setReturnValue(tagName);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetTagName(event, tagName, element);		
+		event.setArguments(tagName, element);
+		dispatch(event);
 	}
 
 	public void beforeIsSelected(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.isSelected);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeIsSelected(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.isSelected);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterIsSelected(boolean isSelected, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.isSelected);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.isSelected);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setReturnValue(Boolean.toString(isSelected));
-		for (IEventListener listener : eventListeners)
-			listener.afterIsSelected(event, isSelected, element);		
+		event.setArguments(isSelected, element);
+		dispatch(event);
 	}
 
 	public void beforeIsEnabled(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.isEnabled);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeIsEnabled(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.isEnabled);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterIsEnabled(boolean isEnabled, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.isEnabled);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.isEnabled);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setReturnValue(Boolean.toString(isEnabled));
-		for (IEventListener listener : eventListeners)
-			listener.afterIsEnabled(event, isEnabled, element);		
+		event.setArguments(isEnabled, element);
+		dispatch(event);
 	}
 
 	public void beforeGetText(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getText);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetText(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getText);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetText(String text, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getText);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getText);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setReturnValue(text);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetText(event, text, element);		
+		event.setArguments(text, element);
+		dispatch(event);
 	}
 
 	public void beforeGetCssValue(String propertyName, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getCssValue);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newBeforeEvent(Cmd.getCssValue);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(propertyName);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetCssValue(event, propertyName, element);
+		event.setArguments(propertyName, element);
+		dispatch(event);
 	}
 
 	public void afterGetCssValue(String propertyName, String value, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getCssValue);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getCssValue);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(propertyName);
 		event.setReturnValue(value);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetCssValue(event, propertyName, value, element);		
+		event.setArguments(propertyName, value, element);
+		dispatch(event);
 	}
 
 	public void beforeIsDisplayed(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.isDisplayed);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeIsDisplayed(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.isDisplayed);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterIsDisplayed(boolean isDisplayed, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.isDisplayed);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.isDisplayed);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setReturnValue(Boolean.toString(isDisplayed));
-		for (IEventListener listener : eventListeners)
-			listener.afterIsDisplayed(event, isDisplayed, element);		
+		event.setArguments(isDisplayed, element);
+		dispatch(event);
 	}
 
 	public void beforeGetLocation(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getLocation);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetLocation(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getLocation);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetLocation(Point point, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getLocation);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		event.setReturnValue(String.format("x:%d,y:%d", point.x, point.y));
+		DispatchedEvent event = newAfterEvent(Cmd.getLocation);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.deferReturnValue(EventDispatcher::xAndYOf, point);
 		event.setReturnObject(point);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetLocation(event, point, element);		
+		event.setArguments(point, element);
+		dispatch(event);
 	}
 
 	public void beforeGetSizeByElement(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getSizeByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetSizeByElement(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getSizeByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetSizeByElement(Dimension size, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getSizeByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		event.setReturnValue(String.format("h:%d,w:%d", size.height, size.width));
+		DispatchedEvent event = newAfterEvent(Cmd.getSizeByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.deferReturnValue(EventDispatcher::heightAndWidthOf, size);
 		event.setReturnObject(size);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetSizeByElement(event, size, element);		
+		event.setArguments(size, element);
+		dispatch(event);
 	}
 
 	public void beforeGetRect(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getRect);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetRect(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getRect);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetRect(Rectangle rectangle, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getRect);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		event.setReturnValue(String.format("h:%d,w:%d", rectangle.height, rectangle.width));
+		DispatchedEvent event = newAfterEvent(Cmd.getRect);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.deferReturnValue(EventDispatcher::heightAndWidthOf, rectangle);
 		event.setReturnObject(rectangle);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetRect(event, rectangle, element);		
+		event.setArguments(rectangle, element);
+		dispatch(event);
 	}
 
 	public void beforeGetCoordinates(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getCoordinates);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetCoordinates(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getCoordinates);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetCoordinates(Coordinates coordinates, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getCoordinates);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
-		event.setReturnValue(getCoordinatesAsString(coordinates));
+		DispatchedEvent event = newAfterEvent(Cmd.getCoordinates);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
+		Point coordinatesInViewPort = inViewPort(coordinates);
+		event.deferReturnValue(EventDispatcher::coordinatesOf, coordinatesInViewPort);
 		event.setReturnObject(coordinates);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetCoordinates(event, coordinates, element);		
+		event.setArguments(coordinates, element);
+		dispatch(event);
 	}
 
 	public <X> void beforeGetScreenshotAsByElement(OutputType<X> target, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getScreenshotAsByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newBeforeEvent(Cmd.getScreenshotAsByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(target.toString());
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetScreenshotAsByElement(event, target, element);
+		event.setArguments(target, element);
+		dispatch(event);
 	}
 
 	public <X> void afterGetScreenshotAsByElement(OutputType<X> target, X screenshot, WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber, Cmd.getScreenshotAsByElement);
-		event.setElementLocator(WebDriverEvent.getLocatorFromWebElement(element));
+		DispatchedEvent event = newAfterEvent(Cmd.getScreenshotAsByElement);
+		if (event == null)
+			return;
+		event.deferElementLocator(EventDispatcher::locatorOf, element);
 		event.setParam1(target.toString());
 		event.setReturnObject(screenshot);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetScreenshotAsByElement(event, target, screenshot, element);
+		event.setArguments(target, screenshot, element);
+		dispatch(event);
 	}
 
 	public void beforeGetShadowRoot(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getShadowRoot);
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeGetShadowRoot(event, element);
+		DispatchedEvent event = newBeforeEvent(Cmd.getShadowRoot);
+		if (event == null)
+			return;
+		event.setArguments(element);
+		dispatch(event);
 	}
 
 	public void afterGetShadowRoot(WebElement element) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, eventNumber++, Cmd.getShadowRoot);
-		for (IEventListener listener : eventListeners)
-			listener.afterGetShadowRoot(event, element);
+		DispatchedEvent event = newAfterEvent(Cmd.getShadowRoot);
+		if (event == null)
+			return;
+		event.setArguments(element);
+		dispatch(event);
 	}
 	
 	/* End of methods provided by RemoteWebElement class */
@@ -1266,47 +1639,57 @@ public class EventDispatcher {
 	/* Begin of methods provided by RemoteKeyboard class */
 
 	public void beforeSendKeysByKeyboard(CharSequence... keysToSend) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.sendKeysByKeyboard);
-		event.setParam1(charSequence2String(keysToSend));
-		for (IEventListener listener : eventListeners)
-			listener.beforeSendKeysByKeyboard(event, keysToSend);
+		DispatchedEvent event = newBeforeEvent(Cmd.sendKeysByKeyboard);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::keysOf, keysToSend);
+		event.setArguments(keysToSend);
+		dispatch(event);
 	}
 
 	public void afterSendKeysByKeyboard(CharSequence... keysToSend) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.sendKeysByKeyboard);
-		event.setParam1(charSequence2String(keysToSend));
-		for (IEventListener listener : eventListeners)
-			listener.afterSendKeysByKeyboard(event, keysToSend);
+		DispatchedEvent event = newAfterEvent(Cmd.sendKeysByKeyboard);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::keysOf, keysToSend);
+		event.setArguments(keysToSend);
+		dispatch(event);
 	}
 
 	public void beforePressKey(CharSequence... keyToPress) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.pressKey);
-		event.setParam1(charSequence2String(keyToPress));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforePressKey(event, keyToPress);
+		DispatchedEvent event = newBeforeEvent(Cmd.pressKey);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::keysOf, keyToPress);
+		event.setArguments(keyToPress);
+		dispatch(event);
 	}
 
 	public void afterPressKey(CharSequence... keyToPress) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.pressKey);
-		event.setParam1(charSequence2String(keyToPress));
-		for (IEventListener listener : eventListeners)
-			listener.afterPressKey(event, keyToPress);
+		DispatchedEvent event = newAfterEvent(Cmd.pressKey);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::keysOf, keyToPress);
+		event.setArguments(keyToPress);
+		dispatch(event);
 	}
 
 	public void beforeReleaseKey(CharSequence... keyToRelease) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.releaseKey);
-		event.setParam1(charSequence2String(keyToRelease));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeReleaseKey(event, keyToRelease);
+		DispatchedEvent event = newBeforeEvent(Cmd.releaseKey);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::keysOf, keyToRelease);
+		event.setArguments(keyToRelease);
+		dispatch(event);
 	}
 
 	public void afterReleaseKey(CharSequence... keyToRelease) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.releaseKey);
-		event.setParam1(charSequence2String(keyToRelease));
-		for (IEventListener listener : eventListeners)
-			listener.afterReleaseKey(event, keyToRelease);
+		DispatchedEvent event = newAfterEvent(Cmd.releaseKey);
+		if (event == null)
+			return;
+		event.deferParam1(EventDispatcher::keysOf, keyToRelease);
+		event.setArguments(keyToRelease);
+		dispatch(event);
 	}
 	
 	/* End of methods provided by RemoteKeyboard class */
@@ -1314,141 +1697,391 @@ public class EventDispatcher {
 	/* Begin of methods provided by RemoteMouse class */
 
 	public void beforeClickByMouse(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.clickByMouse);
-		event.setParam1(getCoordinatesAsString(where));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeClickByMouse(event, where);
+		DispatchedEvent event = newBeforeEvent(Cmd.clickByMouse);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void afterClickByMouse(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.clickByMouse);
-		event.setParam1(getCoordinatesAsString(where));
-		for (IEventListener listener : eventListeners)
-			listener.afterClickByMouse(event, where);
+		DispatchedEvent event = newAfterEvent(Cmd.clickByMouse);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void beforeContextClick(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.contextClick);
-		event.setParam1(getCoordinatesAsString(where));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeContextClick(event, where);
+		DispatchedEvent event = newBeforeEvent(Cmd.contextClick);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void afterContextClick(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.contextClick);
-		event.setParam1(getCoordinatesAsString(where));
-		for (IEventListener listener : eventListeners)
-			listener.afterContextClick(event, where);
+		DispatchedEvent event = newAfterEvent(Cmd.contextClick);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void beforeDoubleClick(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.doubleClick);
-		event.setParam1(getCoordinatesAsString(where));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeDoubleClick(event, where);
+		DispatchedEvent event = newBeforeEvent(Cmd.doubleClick);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void afterDoubleClick(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.doubleClick);
-		event.setParam1(getCoordinatesAsString(where));
-		for (IEventListener listener : eventListeners)
-			listener.afterDoubleClick(event, where);
+		DispatchedEvent event = newAfterEvent(Cmd.doubleClick);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void beforeMouseDown(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.mouseDown);
-		event.setParam1(getCoordinatesAsString(where));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeMouseDown(event, where);
+		DispatchedEvent event = newBeforeEvent(Cmd.mouseDown);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void afterMouseDown(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.mouseDown);
-		event.setParam1(getCoordinatesAsString(where));
-		for (IEventListener listener : eventListeners)
-			listener.afterMouseDown(event, where);
+		DispatchedEvent event = newAfterEvent(Cmd.mouseDown);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void beforeMouseUp(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.mouseUp);
-		event.setParam1(getCoordinatesAsString(where));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeMouseUp(event, where);
+		DispatchedEvent event = newBeforeEvent(Cmd.mouseUp);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void afterMouseUp(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.mouseUp);
-		event.setParam1(getCoordinatesAsString(where));
-		for (IEventListener listener : eventListeners)
-			listener.afterMouseUp(event, where);
+		DispatchedEvent event = newAfterEvent(Cmd.mouseUp);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void beforeMouseMove(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.mouseMove);
-		event.setParam1(getCoordinatesAsString(where));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeMouseMove(event, where);
+		DispatchedEvent event = newBeforeEvent(Cmd.mouseMove);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void afterMouseMove(Coordinates where) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.mouseMove);
-		event.setParam1(getCoordinatesAsString(where));
-		for (IEventListener listener : eventListeners)
-			listener.afterMouseMove(event, where);
+		DispatchedEvent event = newAfterEvent(Cmd.mouseMove);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesOf, whereInViewPort);
+		event.setArguments(where);
+		dispatch(event);
 	}
 
 	public void beforeMouseMove(Coordinates where, long xOffset, long yOffset) {
-		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.mouseMoveWithOffset);
-		event.setParam1(getCoordinatesWithOffsetAsString(where, xOffset, yOffset));
-		currentEvent = event;
-		for (IEventListener listener : eventListeners)
-			listener.beforeMouseMove(event, where, xOffset, yOffset);
+		DispatchedEvent event = newBeforeEvent(Cmd.mouseMoveWithOffset);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesWithOffsetOf, whereInViewPort);
+		event.setArguments(where);
+		event.setLongArguments(xOffset, yOffset);
+		dispatch(event);
 	}
 
 	public void afterMouseMove(Coordinates where, long xOffset, long yOffset) {
-		WebDriverEvent event = new WebDriverEvent(Type.AfterAction, eventNumber++, Cmd.mouseMoveWithOffset);
-		event.setParam1(getCoordinatesWithOffsetAsString(where, xOffset, yOffset));
-		for (IEventListener listener : eventListeners)
-			listener.afterMouseMove(event, where, xOffset, yOffset);
+		DispatchedEvent event = newAfterEvent(Cmd.mouseMoveWithOffset);
+		if (event == null)
+			return;
+		Point whereInViewPort = inViewPort(where);
+		event.deferParam1(EventDispatcher::coordinatesWithOffsetOf, whereInViewPort);
+		event.setArguments(where);
+		event.setLongArguments(xOffset, yOffset);
+		dispatch(event);
 	}
 
 	public void onException(String cmd, Throwable throwable) {
-		// if the field currentEvent is NULL, then we haven't established
+		// if the field currentCmd is NULL, then we haven't established
 		// a session and it makes no sense to process the exception
-		if (currentEvent == null)
+		Cmd lastCmd = currentCmd;
+		if (lastCmd == null)
 			return;
+		if (flightRecorder != null)
+			flightRecorder.onException();
 
-		WebDriverEvent event = new WebDriverEvent(Type.Exception, eventNumber, currentEvent.getCmd());
+		DispatchedEvent event = newEvent(Type.Exception, eventNumber.get(), lastCmd);
+		if (event == null)
+			return;
 		event.setParam1(String.format("Exception Type: %s, message: %s", throwable.getClass().getName(), throwable.getMessage()));
-		for (IEventListener listener : eventListeners)
-			listener.onException(event, currentEvent.getCmd(), throwable);
+		event.setIssue(throwable);
+		event.setTestCase(getTestCase());
+		// exceptions are rare and belong to the current test case, so deliver them
+		// synchronously to all listeners once all pending events have been processed
+		flush();
+		event.setArguments(throwable);
+		int index = subscriptionIndex(lastCmd, Type.Exception);
+		for (IEventSink sink : synchronousSubscribers[index])
+			sink.onEvent(event);
+		for (IEventSink sink : asynchronousSubscribers[index])
+			sink.onEvent(event);
+	}
+
+	/**
+	 * Creates the record of the event sent before a command is executed.
+	 * Its type and number are derived from the command, see {@link Cmd#getKind()}.
+	 * @return event record or null if the event does not have to be dispatched
+	 */
+	private DispatchedEvent newBeforeEvent(Cmd cmd) {
+		return newEvent(cmd.getBeforeType(), eventNumber.get(), cmd);
+	}
+
+	/**
+	 * Creates the record of the event sent after a command has been executed.
+	 * Each action completes an event number, gather commands share the number of the next action.
+	 * @return event record or null if the event does not have to be dispatched
+	 */
+	private DispatchedEvent newAfterEvent(Cmd cmd) {
+		Type type = cmd.getAfterType();
+		return newEvent(type, (type == Type.AfterAction) ? eventNumber.getAndIncrement() : eventNumber.get(), cmd);
+	}
+
+	/**
+	 * Creates the record of an event, unless no listener is subscribed to it.
+	 * If pooling is enabled and the event is only dispatched synchronously, a pooled record is reused.
+	 * @return event record or null if the event does not have to be dispatched
+	 */
+	private DispatchedEvent newEvent(Type type, int eventNumber, Cmd cmd) {
+		if (!isEnabled)
+			return null;
+		if (type == Type.BeforeAction || type == Type.BeforeGather)
+			currentCmd = cmd;
+		int index = subscriptionIndex(cmd, type);
+		if (synchronousSubscribers[index].length == 0 && asynchronousSubscribers[index].length == 0) {
+			WebDriverEvent.markTime(type, timeMarkers);
+			return null;
+		}
+		// events queued for asynchronous listeners outlive the callback, so they are never pooled
+		if (eventPool != null && asynchronousSubscribers[index].length == 0)
+			return eventPool[eventPoolCursor.getAndIncrement() & (EVENT_POOL_SIZE - 1)].reset(type, eventNumber, cmd, timeMarkers);
+		return new DispatchedEvent(false, dictionary).reset(type, eventNumber, cmd, timeMarkers);
+	}
+
+	/**
+	 * Passes the event to all subscribed sinks. The arguments of the WebDriver call have to be set before,
+	 * see {@link DispatchedEvent#replay(IEventListener)}.
+	 */
+	private void dispatch(DispatchedEvent event) {
+		checkTestCase();
+		// asynchronous listeners may see the event after the next test case has started
+		event.setTestCase(currentTestCase);
+		event.internStrings();
+		int index = subscriptionIndex(event.getCmd(), event.getTypeOfLog());
+		for (IEventSink sink : synchronousSubscribers[index])
+			sink.onEvent(event);
+		IEventSink[] subscribers = asynchronousSubscribers[index];
+		boolean isQueued = subscribers.length > 0 && asyncPipeline.publish(event, subscribers);
+		// queued events are handled by the pipeline once they have been delivered
+		if (!isQueued && returnObjectRetention != ReturnObjectRetention.KEEP)
+			event.retainReturnObject(returnObjectRetention);
+	}
+
+	/**
+	 * Finishes the test case whenever TestAdvisor reports a different test case execution.
+	 */
+	private void checkTestCase() {
+		TestCaseExecution testCase = TestAdvisorAdministrator.getInstance().getTestCaseExecution();
+		if (testCase == currentTestCase)
+			return;
+		synchronized (this) {
+			if (testCase == currentTestCase)
+				return;
+			TestCaseExecution finishedTestCase = currentTestCase;
+			currentTestCase = testCase;
+			if (finishedTestCase != null)
+				finishTestCase(finishedTestCase);
+		}
+	}
+
+	/**
+	 * Marks the end of a test case: waits until all its events have been delivered and calls
+	 * {@link IEventSink#onTestCaseFinished()} of all sinks. This happens automatically before the first event
+	 * of the next test case; test frameworks may call it explicitly, e.g. when a test method ends.
+	 * Listeners which tripped during the test case are reported as well.
+	 */
+	public void finishTestCase() {
+		finishTestCase(getTestCase());
+	}
+
+	/**
+	 * @param testCase test case which has finished, the flight recorder adds its screenshots to it
+	 */
+	private void finishTestCase(TestCaseExecution testCase) {
+		if (!isEnabled)
+			return;
+		if (asyncPipeline != null)
+			asyncPipeline.flush();
+		// before the listeners start recording the next test case
+		if (flightRecorder != null)
+			flightRecorder.finishTestCase(testCase);
+		for (IEventSink sink : eventSinks) {
+			try {
+				sink.onTestCaseFinished();
+			} catch (RuntimeException e) {
+				LOGGER.log(Level.WARNING, "Listener " + sink + " failed to finish the test case", e);
+			}
+		}
+		reportTrippedSinks();
+	}
+
+	/**
+	 * @return test case of the events dispatched last, or the current test case if no event has been dispatched yet
+	 */
+	private TestCaseExecution getTestCase() {
+		TestCaseExecution testCase = currentTestCase;
+		return (testCase != null) ? testCase : TestAdvisorAdministrator.getInstance().getTestCaseExecution();
 	}
 
-	private String maskTextIfPassword(String locator, CharSequence... charSequence) {
-		return (locator.contains("password")) ? "********" : charSequence2String(charSequence);
+	private void reportTrippedSinks() {
+		for (GuardedEventSink guardedSink : guardedSinks) {
+			int trips = guardedSink.takeUnreportedTrips();
+			if (trips > 0)
+				LOGGER.log(Level.WARNING, "Listener was tripped {0} time(s) since the last report: {1}", new Object[] { trips, guardedSink });
+		}
+	}
+
+	private static IEventSink[][] subscribersOf(List<IEventSink> sinks) {
+		IEventSink[][] subscribers = new IEventSink[Cmd.values().length * TYPES.length][];
+		List<IEventSink> interested = new ArrayList<>();
+		for (Cmd cmd : Cmd.values()) {
+			for (Type type : TYPES) {
+				interested.clear();
+				for (IEventSink sink : sinks) {
+					if (sink.isSubscribedTo(cmd, type))
+						interested.add(sink);
+				}
+				subscribers[subscriptionIndex(cmd, type)] = interested.toArray(new IEventSink[0]);
+			}
+		}
+		return subscribers;
+	}
+
+	private static int subscriptionIndex(Cmd cmd, Type type) {
+		return cmd.ordinal() * TYPES.length + type.ordinal();
 	}
 
-	private String charSequence2String(CharSequence... charSequence) {
+	// renderers of the deferred values of events, they must not capture any state of the dispatcher
+
+	private static String locatorOf(WebElement element, DispatchedEvent event) {
+		return WebDriverEvent.getLocatorFromWebElement(element, event.getDictionary());
+	}
+
+	private static String locatorOf(By by, DispatchedEvent event) {
+		return WebDriverEvent.getLocatorFromBy(by, event.getDictionary());
+	}
+
+	private static String locatorsOf(List<WebElement> elements, DispatchedEvent event) {
+		if (elements.size() == 1)
+			return WebDriverEvent.getLocatorFromWebElement(elements.get(0), event.getDictionary());
+		// the same lists of elements are usually found again, so their locator recurs as well
+		String locators = WebDriverEvent.getLocatorFromWebElement(elements.get(0)) + " and " + (elements.size() - 1) + " more";
+		StringDictionary dictionary = event.getDictionary();
+		return (dictionary != null) ? dictionary.intern(locators) : locators;
+	}
+
+	private static String stringOf(Object object, DispatchedEvent event) {
+		return object.toString();
+	}
+
+	private static String maskedKeysOf(CharSequence[] charSequence, DispatchedEvent event) {
+		return (event.getElementLocator().contains("password")) ? "********" : keysOf(charSequence, event);
+	}
+
+	private static String keysOf(CharSequence[] charSequence, DispatchedEvent event) {
 		return Arrays.toString(charSequence);
 	}
 
-	private String getCoordinatesAsString(Coordinates where) {
-		if (where == null || where.inViewPort() == null)
+	private static String sizeOf(Dimension size, DispatchedEvent event) {
+		return size.getHeight() + "x" + size.getWidth();
+	}
+
+	private static String positionOf(Point position, DispatchedEvent event) {
+		return "x:" + position.x + ",y:" + position.y;
+	}
+
+	private static String heightAndWidthOf(Dimension size, DispatchedEvent event) {
+		return String.format("h:%d,w:%d", size.height, size.width);
+	}
+
+	private static String heightAndWidthOf(Rectangle rectangle, DispatchedEvent event) {
+		return String.format("h:%d,w:%d", rectangle.height, rectangle.width);
+	}
+
+	private static String xAndYOf(Point point, DispatchedEvent event) {
+		return String.format("x:%d,y:%d", point.x, point.y);
+	}
+
+	/**
+	 * Asking the coordinates for their position sends a command to the browser, so this has to be
+	 * done while the event is dispatched, even if the string is rendered later.
+	 */
+	private Point inViewPort(Coordinates where) {
+		return (where == null) ? null : where.inViewPort();
+	}
+
+	private static String coordinatesOf(Point inViewPort, DispatchedEvent event) {
+		if (inViewPort == null)
 			return "x:<unknown>,y:<unknown> in view port";
 		else
-			return String.format("x:%d,y:%d in view port", where.inViewPort().x, where.inViewPort().y);
+			return String.format("x:%d,y:%d in view port", inViewPort.x, inViewPort.y);
 	}
 
-	private String getCoordinatesWithOffsetAsString(Coordinates where, long xOffset, long yOffset) {
-		if (where == null || where.inViewPort() == null)
+	/**
+	 * The offsets are taken from the long arguments of the event, see {@link DispatchedEvent#setLongArguments(long, long)}.
+	 */
+	private static String coordinatesWithOffsetOf(Point inViewPort, DispatchedEvent event) {
+		long xOffset = event.getLongArgument1();
+		long yOffset = event.getLongArgument2();
+		if (inViewPort == null)
 			return String.format("x:<unknown>,y:<unknown> in view port, x:%d,y:%d offset", xOffset, yOffset);
 		else
-			return String.format("x:%d,y:%d in view port, x:%d,y:%d offset", where.inViewPort().x, where.inViewPort().y, xOffset, yOffset);
+			return String.format("x:%d,y:%d in view port, x:%d,y:%d offset", inViewPort.x, inViewPort.y, xOffset, yOffset);
 	}
 }
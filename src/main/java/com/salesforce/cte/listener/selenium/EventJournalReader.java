@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Recovers the events of a {@link MappedEventJournal}, e.g. after the JVM writing it has been killed.
+ *
+ * All complete frames are read until the first frame which is missing or does not match its checksum.
+ */
+public class EventJournalReader {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+
+	private EventJournalReader() {
+		// static helper class
+	}
+
+	/**
+	 * Converts the recovered events to JSON lines of the same shape as written by {@link JsonLinesEventSink}.
+	 * @param journalFile base name of the segment files
+	 * @param out stream to write the JSON lines to, it is not closed
+	 * @return number of events recovered
+	 */
+	public static int recoverToJsonLines(File journalFile, OutputStream out) throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		stream.write(BinaryEventEncoder.MAGIC);
+		stream.write(BinaryEventEncoder.VERSION);
+		for (int index = 0; MappedEventJournal.getSegmentFile(journalFile, index).isFile(); index++) {
+			if (!readSegment(MappedEventJournal.getSegmentFile(journalFile, index), stream))
+				break;
+		}
+		try (BinaryEventDecoder decoder = new BinaryEventDecoder(new ByteArrayInputStream(stream.toByteArray()))) {
+			return decoder.convertToJsonLines(out);
+		}
+	}
+
+	/**
+	 * @return true if the segment has been read completely
+	 */
+	private static boolean readSegment(File segmentFile, ByteArrayOutputStream stream) throws IOException {
+		ByteBuffer segment = ByteBuffer.wrap(Files.readAllBytes(segmentFile.toPath()));
+		if (segment.remaining() < MappedEventJournal.HEADER_SIZE)
+			return false;
+		byte[] magic = new byte[MappedEventJournal.MAGIC.length];
+		segment.get(magic);
+		int version = segment.get();
+		if (!Arrays.equals(magic, MappedEventJournal.MAGIC) || version != BinaryEventEncoder.VERSION)
+			throw new IOException("Not a journal segment: " + segmentFile);
+
+		CRC32 crc = new CRC32();
+		while (segment.remaining() >= MappedEventJournal.FRAME_HEADER_SIZE) {
+			int length = segment.getInt();
+			int checksum = segment.getInt();
+			if (length == 0)
+				return true;
+			if (length < 0 || length > segment.remaining()) {
+				LOGGER.log(Level.WARNING, "Journal {0} ends with an incomplete record", segmentFile);
+				return false;
+			}
+			crc.reset();
+			crc.update(segment.array(), segment.position(), length);
+			if ((int) crc.getValue() != checksum) {
+				LOGGER.log(Level.WARNING, "Journal {0} ends with a corrupted record", segmentFile);
+				return false;
+			}
+			stream.write(segment.array(), segment.position(), length);
+			segment.position(segment.position() + length);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Adapts an {@link IEventListener} to the {@link IEventSink} interface by calling the
+ * callback method of the listener which corresponds to the event.
+ */
+public class EventListenerSink implements IEventSink {
+	private final IEventListener listener;
+
+	public EventListenerSink(IEventListener listener) {
+		this.listener = listener;
+	}
+
+	public IEventListener getListener() {
+		return listener;
+	}
+
+	@Override
+	public void onEvent(WebDriverEvent event) {
+		event.replay(listener);
+	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return listener.isSubscribedTo(cmd, type);
+	}
+
+	@Override
+	public boolean isSynchronous() {
+		return listener.isSynchronous();
+	}
+
+	@Override
+	public int getPriority() {
+		return listener.getPriority();
+	}
+
+	@Override
+	public void onTestCaseFinished() {
+		listener.onTestCaseFinished();
+	}
+
+	@Override
+	public String toString() {
+		return listener.getClass().getName();
+	}
+}
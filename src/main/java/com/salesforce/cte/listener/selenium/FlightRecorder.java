@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.salesforce.cte.admin.TestAdvisorAdministrator;
+import com.salesforce.cte.common.TestCaseExecution;
+import com.salesforce.cte.common.TestEvent;
+
+/**
+ * Keeps the latest events and screenshots of a WebDriver session in memory and only persists them on failure.
+ *
+ * Passing tests usually don't need their event log or screenshots, so in flight recorder mode the listeners
+ * keep only their last events with long values compressed, see {@link AbstractEventListener#record(WebDriverEvent)},
+ * and screenshots are kept as PNG bytes instead of files. {@link #persist()} moves the events to the listeners' logs,
+ * writes the screenshots to files and adds them to the test case.
+ *
+ * A failing WebDriver command only marks the test case, see {@link #onException()}. Its recording is persisted
+ * once when the test case finishes, so that waits polling for an element do not persist it over and over.
+ * Test framework integrations can call {@link #persist()} for tests which fail for other reasons.
+ */
+public class FlightRecorder {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+
+	private final List<AbstractEventListener> listeners = new CopyOnWriteArrayList<>();
+	private final Deque<Screenshot> screenshots = new ArrayDeque<>();
+	private final int maxEvents;
+	private final int maxScreenshots;
+	private final ScreenshotStore screenshotStore = ScreenshotStore.getConfiguredInstance();
+	// true if a command of the current test case has failed since the recording was persisted
+	private volatile boolean hasException = false;
+
+	/**
+	 * @param maxEvents number of events kept by each listener
+	 * @param maxScreenshots number of screenshots kept
+	 */
+	public FlightRecorder(int maxEvents, int maxScreenshots) {
+		this.maxEvents = Math.max(1, maxEvents);
+		this.maxScreenshots = Math.max(0, maxScreenshots);
+	}
+
+	/**
+	 * Switches the listener to flight recorder mode.
+	 */
+	void register(AbstractEventListener listener) {
+		listener.setFlightRecorder(this, maxEvents);
+		listeners.add(listener);
+	}
+
+	/**
+	 * Keeps the screenshot until it is persisted or replaced by newer screenshots.
+	 * @param testEvent test event to be added to the test case once the screenshot has been written
+	 * @param png screenshot
+	 */
+	public synchronized void addScreenshot(TestEvent testEvent, byte[] png) {
+		if (maxScreenshots == 0)
+			return;
+		if (screenshots.size() == maxScreenshots)
+			screenshots.removeFirst();
+		screenshots.addLast(new Screenshot(testEvent, png));
+	}
+
+	/**
+	 * Drops the screenshots kept so far, e.g. since the test case they belong to has passed.
+	 */
+	public synchronized void discardScreenshots() {
+		screenshots.clear();
+	}
+
+	/**
+	 * @return number of screenshots kept in memory
+	 */
+	public synchronized int getNumOfScreenshots() {
+		return screenshots.size();
+	}
+
+	/**
+	 * Marks the current test case as failing, so that its recording is persisted when it finishes.
+	 */
+	public void onException() {
+		hasException = true;
+	}
+
+	/**
+	 * Persists the recording of the finished test case if a command has failed in it. Otherwise its screenshots
+	 * are dropped, so that they are not added to a later test case which fails.
+	 * @param testCase test case the screenshots are added to
+	 */
+	void finishTestCase(TestCaseExecution testCase) {
+		if (hasException)
+			persist(testCase);
+		else
+			discardScreenshots();
+	}
+
+	/**
+	 * Persists the events and screenshots kept so far and adds the screenshots to the current test case.
+	 * Recording continues afterwards, i.e. a later call only persists what has been recorded in the meantime.
+	 */
+	public void persist() {
+		persist(TestAdvisorAdministrator.getInstance().getTestCaseExecution());
+	}
+
+	private void persist(TestCaseExecution testCase) {
+		hasException = false;
+		int numOfEvents = 0;
+		for (AbstractEventListener listener : listeners)
+			numOfEvents += listener.persistPendingEvents();
+
+		List<Screenshot> pendingScreenshots;
+		synchronized (this) {
+			pendingScreenshots = new ArrayList<>(screenshots);
+			screenshots.clear();
+		}
+		for (Screenshot screenshot : pendingScreenshots) {
+			try {
+				File file = ScreenshotStore.write(screenshotStore, screenshot.png);
+				screenshot.testEvent.setScreenshotPath(file.getAbsolutePath());
+				testCase.appendEvent(screenshot.testEvent);
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Unable to write screenshot", e);
+			}
+		}
+		LOGGER.log(Level.INFO, "Flight recorder persisted {0} events and {1} screenshots",
+				new Object[] { numOfEvents, pendingScreenshots.size() });
+	}
+
+	private static class Screenshot {
+		private final TestEvent testEvent;
+		private final byte[] png;
+
+		Screenshot(TestEvent testEvent, byte[] png) {
+			this.testEvent = testEvent;
+			this.png = png;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Protects the WebDriver command from a sink which is slow or fails.
+ *
+ * Exceptions thrown by the sink are logged instead of being passed to the test. If a latency budget
+ * is configured, each call is timed. A call which throws or exceeds the budget is a violation.
+ * After too many violations in a row the guard trips: events are then skipped, or only every n-th event
+ * is delivered if sampling is configured. A sampled event handled within budget closes the guard again.
+ *
+ * The counters are not synchronized because each sink is called either by the thread driving the session
+ * or by the thread of the asynchronous pipeline, so they can be slightly off if a session is shared.
+ */
+public class GuardedEventSink implements IEventSink {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+
+	private final IEventSink sink;
+	private final long budgetNanos;
+	private final int maxViolations;
+	private final int samplingRate;
+
+	private int consecutiveViolations = 0;
+	private int violations = 0;
+	private int trips = 0;
+	private int reportedTrips = 0;
+	private long skippedEvents = 0;
+	private long eventsSinceTrip = 0;
+	private volatile boolean isTripped = false;
+
+	/**
+	 * @param sink sink to protect
+	 * @param budgetMillis maximum duration of a call, 0 to only guard against exceptions
+	 * @param maxViolations number of violations in a row which trips the guard
+	 * @param samplingRate 0 to skip all events once tripped, otherwise 1 in this many events is still delivered
+	 */
+	public GuardedEventSink(IEventSink sink, long budgetMillis, int maxViolations, int samplingRate) {
+		this.sink = sink;
+		this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		this.maxViolations = Math.max(1, maxViolations);
+		this.samplingRate = Math.max(0, samplingRate);
+	}
+
+	/**
+	 * Creates a guard using the settings of {@link ListenerConfiguration}.
+	 */
+	static GuardedEventSink of(IEventSink sink) {
+		Class<?> sinkClass = (sink instanceof EventListenerSink) ? ((EventListenerSink) sink).getListener().getClass() : sink.getClass();
+		return new GuardedEventSink(sink, ListenerConfiguration.getListenerBudget(sinkClass),
+				ListenerConfiguration.getListenerMaxViolations(), ListenerConfiguration.getListenerSamplingRate());
+	}
+
+	public IEventSink getSink() {
+		return sink;
+	}
+
+	@Override
+	public void onEvent(WebDriverEvent event) {
+		if (isTripped && !isSampled()) {
+			skippedEvents++;
+			return;
+		}
+
+		long start = (budgetNanos > 0) ? System.nanoTime() : 0L;
+		try {
+			sink.onEvent(event);
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Listener " + sink + " failed to process event", e);
+			recordViolation();
+			return;
+		}
+		if (budgetNanos > 0 && System.nanoTime() - start > budgetNanos) {
+			recordViolation();
+			return;
+		}
+		consecutiveViolations = 0;
+		if (isTripped) {
+			isTripped = false;
+			LOGGER.log(Level.INFO, "Listener {0} is within its budget again", sink);
+		}
+	}
+
+	private boolean isSampled() {
+		return samplingRate > 0 && ++eventsSinceTrip % samplingRate == 0;
+	}
+
+	private void recordViolation() {
+		violations++;
+		if (++consecutiveViolations >= maxViolations && !isTripped) {
+			trips++;
+			eventsSinceTrip = 0;
+			isTripped = true;
+			LOGGER.log(Level.WARNING, "Listener {0} tripped after {1} violations in a row, {2}",
+					new Object[] { sink, consecutiveViolations, (samplingRate > 0) ? "sampling 1 in " + samplingRate + " events" : "skipping its events" });
+		}
+	}
+
+	/**
+	 * @return true if events are currently skipped or sampled
+	 */
+	public boolean isTripped() {
+		return isTripped;
+	}
+
+	/**
+	 * @return number of times the guard has tripped
+	 */
+	public int getTrips() {
+		return trips;
+	}
+
+	/**
+	 * Marks all trips so far as reported, so that each trip is reported once, either at the end of
+	 * the test case it happened in or when the session quits.
+	 * @return number of times the guard has tripped since the previous call
+	 */
+	public int takeUnreportedTrips() {
+		int unreportedTrips = trips - reportedTrips;
+		reportedTrips = trips;
+		return unreportedTrips;
+	}
+
+	/**
+	 * @return number of calls which have thrown or exceeded the budget
+	 */
+	public int getViolations() {
+		return violations;
+	}
+
+	/**
+	 * @return number of events not delivered to the sink because the guard had tripped
+	 */
+	public long getSkippedEvents() {
+		return skippedEvents;
+	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return sink.isSubscribedTo(cmd, type);
+	}
+
+	@Override
+	public boolean isSynchronous() {
+		return sink.isSynchronous();
+	}
+
+	@Override
+	public int getPriority() {
+		return sink.getPriority();
+	}
+
+	@Override
+	public void onTestCaseFinished() {
+		sink.onTestCaseFinished();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (violations: %d, trips: %d, skipped events: %d)", sink, violations, trips, skippedEvents);
+	}
+}
@@ -38,6 +38,7 @@ import org.openqa.selenium.interactions.Sequence;
 import org.openqa.selenium.print.PrintOptions;
 
 import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
 
 /**
  * Interface which supports registering of a listener with {@link com.salesforce.cte.listener.selenium.EventDispatcher} for logging
@@ -50,6 +51,9 @@ import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
  * @since 1.0
  */
 public interface IEventListener {
+	/** priority of listeners which do not override {@link #getPriority()} */
+	int DEFAULT_PRIORITY = 1000;
+
 	/**
 	 * Location of logfiles produced by Test Drop-in Framework and
 	 * its dependent classes: {@value}
@@ -1811,4 +1815,52 @@ public interface IEventListener {
 	 * @return events logged so far as string or NULL
 	 */
 	String getEventsFormatted();
+
+	/**
+	 * Tells whether this listener has to be called on the thread executing the WebDriver command.
+	 * 
+	 * If asynchronous dispatching is enabled, events for listeners returning false are delivered
+	 * by a background thread after the command has been executed. Listeners which need to act
+	 * before the command is sent to the browser, e.g. for capturing a screenshot, must return true.
+	 * 
+	 * @return true if events have to be delivered synchronously
+	 */
+	default boolean isSynchronous() {
+		return true;
+	}
+
+	/**
+	 * Tells whether this listener wants to be notified about the given command and event type.
+	 * 
+	 * The dispatcher asks each listener once for every combination when the session is created.
+	 * If no listener is interested in a combination, the dispatcher neither creates the event
+	 * record nor renders its parameters.
+	 * 
+	 * @param cmd WebDriver command
+	 * @param type type of event
+	 * @return true if the corresponding callback of this listener has to be called
+	 */
+	default boolean isSubscribedTo(Cmd cmd, Type type) {
+		return true;
+	}
+
+	/**
+	 * Determines the order in which listeners are called. Listeners with lower values are called first.
+	 * The listeners shipped with this library use values below {@link #DEFAULT_PRIORITY}.
+	 * 
+	 * @return priority of this listener
+	 */
+	default int getPriority() {
+		return DEFAULT_PRIORITY;
+	}
+
+	/**
+	 * Called once all events of a test case have been delivered, before the first event of the next test case.
+	 * Listeners release the events and reset the state they keep per test case.
+	 * 
+	 * @see EventDispatcher#finishTestCase()
+	 */
+	default void onTestCaseFinished() {
+		// nothing kept per test case
+	}
 }
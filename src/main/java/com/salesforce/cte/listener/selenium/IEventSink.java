@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Receives all WebDriver events through a single method.
+ *
+ * This is the lightweight alternative to {@link IEventListener} for metrics, exporters and other
+ * consumers which handle all events alike. Command and event type are available from the event.
+ * The typed arguments of the original callback can be obtained by passing an {@link IEventListener}
+ * to {@link WebDriverEvent#replay(IEventListener)}.
+ *
+ * Sinks are discovered like listeners, i.e. they have to be registered in
+ * <code>META-INF/services/com.salesforce.cte.listener.selenium.IEventSink</code>.
+ */
+public interface IEventSink {
+	/**
+	 * Called for each event this sink is subscribed to.
+	 * @param event event record, only valid during this call if it is pooled
+	 */
+	void onEvent(WebDriverEvent event);
+
+	/**
+	 * @param cmd WebDriver command
+	 * @param type type of event
+	 * @return true if {@link #onEvent(WebDriverEvent)} has to be called for this combination
+	 * @see IEventListener#isSubscribedTo(Cmd, Type)
+	 */
+	default boolean isSubscribedTo(Cmd cmd, Type type) {
+		return true;
+	}
+
+	/**
+	 * @return true if events have to be delivered on the thread executing the WebDriver command
+	 * @see IEventListener#isSynchronous()
+	 */
+	default boolean isSynchronous() {
+		return true;
+	}
+
+	/**
+	 * @return priority of this sink, sinks with lower values are called first
+	 * @see IEventListener#getPriority()
+	 */
+	default int getPriority() {
+		return IEventListener.DEFAULT_PRIORITY;
+	}
+
+	/**
+	 * Called once all events of a test case have been delivered.
+	 * @see IEventListener#onTestCaseFinished()
+	 */
+	default void onTestCaseFinished() {
+		// nothing kept per test case
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.List;
+
+/**
+ * Keeps the events recorded by a listener, see {@link AbstractEventListener#getListOfEventsRecorded()}.
+ *
+ * The default is a bounded {@link RingBufferEventStore}. Other implementations can be registered in
+ * <code>META-INF/services/com.salesforce.cte.listener.selenium.IEventStore</code>, each listener
+ * then gets its own instance of the first one found.
+ * Events can be added by several threads at the same time, so implementations have to be thread-safe.
+ */
+public interface IEventStore {
+	/**
+	 * @param event event to be stored, must not be a pooled event
+	 */
+	void add(WebDriverEvent event);
+
+	/**
+	 * @return events currently stored, oldest first; later changes of the store are not reflected
+	 */
+	List<WebDriverEvent> snapshot();
+
+	/**
+	 * @return number of events currently stored
+	 */
+	int size();
+
+	/**
+	 * @return number of events which have been added but are no longer or were never stored due to limited capacity
+	 */
+	long getEvictedEvents();
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes the events to a {@link MappedEventJournal}, one journal per test case, in the directory
+ * configured by {@link ListenerConfiguration#JOURNAL_DIR}.
+ *
+ * Events are written on the thread executing the WebDriver command, so nothing is lost if the JVM
+ * gets killed. This is cheap since writing only stores bytes into mapped memory.
+ */
+public class JournalEventSink extends AbstractFileEventSink {
+	private final int segmentSize;
+	private MappedEventJournal journal = null;
+
+	public JournalEventSink() {
+		this(ListenerConfiguration.getJournalDirectory(), ListenerConfiguration.getJournalSegmentSize());
+	}
+
+	/**
+	 * @param directory directory to write the journals to, null to disable this sink
+	 * @param segmentSize size of the segment files in bytes
+	 */
+	public JournalEventSink(File directory, int segmentSize) {
+		// the operating system writes the mapped pages, so there is nothing to flush
+		super(directory, Integer.MAX_VALUE, Long.MAX_VALUE / 1_000_000L);
+		this.segmentSize = segmentSize;
+	}
+
+	@Override
+	public boolean isSynchronous() {
+		return true;
+	}
+
+	@Override
+	protected String getFileExtension() {
+		return ".journal";
+	}
+
+	@Override
+	protected void open(File file) throws IOException {
+		journal = new MappedEventJournal(file, segmentSize);
+	}
+
+	@Override
+	protected void write(WebDriverEvent event) throws IOException {
+		journal.append(event);
+	}
+
+	@Override
+	protected int getBufferedBytes() {
+		return 0;
+	}
+
+	@Override
+	protected void flush() {
+		// the pages are written by the operating system
+	}
+
+	@Override
+	protected void close() {
+		journal.close();
+		journal = null;
+	}
+}
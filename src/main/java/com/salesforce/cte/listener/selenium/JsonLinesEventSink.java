@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Writes each event as one line of JSON as soon as it is received.
+ *
+ * Unlike the lists kept by the listeners, the memory used does not grow with the length of a test,
+ * and the lines written so far can be read even if the JVM gets killed.
+ * Files are written to the directory configured by {@link ListenerConfiguration#JSON_LINES_DIR}.
+ *
+ * Each line has the properties of an event as exported with the <code>logEntries</code> of the listeners,
+ * in the same order and with null values written. The one difference is <code>issue</code>: it is the string
+ * of the exception, see {@link Throwable#toString()}, instead of the exception serialized with its stack trace,
+ * so that the lines stay short and flat. Readers of both formats have to accept either form.
+ */
+public class JsonLinesEventSink extends AbstractFileEventSink {
+	static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private JsonGenerator generator = null;
+
+	public JsonLinesEventSink() {
+		this(ListenerConfiguration.getJsonLinesDirectory(), ListenerConfiguration.getEventLogFlushBytes(),
+				ListenerConfiguration.getEventLogFlushMillis());
+	}
+
+	/**
+	 * @param directory directory to write the files to, null to disable this sink
+	 * @param flushBytes number of buffered bytes which are flushed to the file
+	 * @param flushMillis time after which buffered events are flushed to the file
+	 */
+	public JsonLinesEventSink(File directory, int flushBytes, long flushMillis) {
+		super(directory, flushBytes, flushMillis);
+	}
+
+	@Override
+	protected String getFileExtension() {
+		return ".jsonl";
+	}
+
+	@Override
+	protected void open(File file) throws IOException {
+		generator = JSON_FACTORY.createGenerator(new FileOutputStream(file, true), JsonEncoding.UTF8);
+		generator.setRootValueSeparator(null);
+	}
+
+	@Override
+	protected void write(WebDriverEvent event) throws IOException {
+		writeEvent(generator, event.getRecordNumber(), event.getEventNumber(), event.getTimeStamp(),
+				event.getTimeSinceLastAction(), event.getTimeElapsedEvent(), event.getTypeOfLog(), event.getCmd(),
+				event.getParam1(), event.getParam2(), event.getReturnValue(), event.getElementLocator(),
+				(event.getIssue() == null) ? null : event.getIssue().toString());
+	}
+
+	@Override
+	protected int getBufferedBytes() {
+		return generator.getOutputBuffered();
+	}
+
+	@Override
+	protected void flush() throws IOException {
+		generator.flush();
+	}
+
+	@Override
+	protected void close() throws IOException {
+		generator.close();
+		generator = null;
+	}
+
+	/**
+	 * Writes one line of JSON. This defines the JSON lines format of an event, which is shared by {@link BinaryEventDecoder}.
+	 */
+	static void writeEvent(JsonGenerator json, int recordNumber, int eventNumber, long timeStamp, long timeSinceLastAction,
+			long timeElapsedEvent, Type typeOfLog, Cmd cmd, String param1, String param2, String returnValue,
+			String elementLocator, String issue) throws IOException {
+		json.writeStartObject();
+		json.writeNumberField("recordNumber", recordNumber);
+		json.writeNumberField("eventNumber", eventNumber);
+		json.writeNumberField("timeStamp", timeStamp);
+		json.writeNumberField("timeSinceLastAction", timeSinceLastAction);
+		json.writeNumberField("timeElapsedEvent", timeElapsedEvent);
+		json.writeStringField("typeOfLog", typeOfLog.name());
+		json.writeStringField("cmd", cmd.name());
+		writeNullableField(json, "param1", param1);
+		writeNullableField(json, "param2", param2);
+		writeNullableField(json, "returnValue", returnValue);
+		writeNullableField(json, "issue", issue);
+		writeNullableField(json, "elementLocator", elementLocator);
+		json.writeEndObject();
+		json.writeRaw('\n');
+	}
+
+	private static void writeNullableField(JsonGenerator json, String name, String value) throws IOException {
+		if (value != null)
+			json.writeStringField(name, value);
+		else
+			json.writeNullField(name);
+	}
+}
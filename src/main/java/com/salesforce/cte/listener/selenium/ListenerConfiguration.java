@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Settings of the Selenium event dispatching and its listeners.
+ *
+ * All settings are read from system properties using the same "testadvisor." prefix as
+ * {@link com.salesforce.cte.admin.TestAdvisorConfiguration}, e.g. <code>-Dtestadvisor.dispatch.async=true</code>.
+ */
+public class ListenerConfiguration {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+
+	public static final String ENABLED = "testadvisor.enabled";
+	public static final String DISPATCH_ASYNC = "testadvisor.dispatch.async";
+	public static final String DISPATCH_BUFFER_SIZE = "testadvisor.dispatch.buffersize";
+	public static final String DISPATCH_BACKPRESSURE = "testadvisor.dispatch.backpressure";
+	public static final String DISPATCH_POOLING = "testadvisor.dispatch.pooling";
+	public static final String LISTENER_ENABLED = "testadvisor.listener.%s.enabled";
+	public static final String LISTENER_BUDGET = "testadvisor.listener.budget";
+	public static final String LISTENER_BUDGET_OF = "testadvisor.listener.%s.budget";
+	public static final String LISTENER_MAX_VIOLATIONS = "testadvisor.listener.maxviolations";
+	public static final String LISTENER_SAMPLING = "testadvisor.listener.sampling";
+	public static final String STORE_CAPACITY = "testadvisor.listener.store.capacity";
+	public static final String STORE_OVERFLOW = "testadvisor.listener.store.overflow";
+	public static final String STORE_OFF_HEAP = "testadvisor.listener.store.offheap";
+	public static final String STORE_OFF_HEAP_MB = "testadvisor.listener.store.offheap.mb";
+	public static final String FLIGHT_RECORDER = "testadvisor.flightrecorder";
+	public static final String FLIGHT_RECORDER_EVENTS = "testadvisor.flightrecorder.events";
+	public static final String FLIGHT_RECORDER_SCREENSHOTS = "testadvisor.flightrecorder.screenshots";
+	public static final String COMMAND_RECORDS = "testadvisor.commandrecords";
+	public static final String JSON_LINES_DIR = "testadvisor.jsonlines.dir";
+	public static final String BINARY_LOG_DIR = "testadvisor.binarylog.dir";
+	public static final String JOURNAL_DIR = "testadvisor.journal.dir";
+	public static final String JOURNAL_SEGMENT_SIZE = "testadvisor.journal.segmentsize";
+	public static final String PAYLOAD_THRESHOLD = "testadvisor.payload.threshold";
+	public static final String PAYLOAD_DIR = "testadvisor.payload.dir";
+	public static final String DICTIONARY_SIZE = "testadvisor.dictionary.size";
+	public static final String RETURN_OBJECT_RETENTION = "testadvisor.returnobject.retention";
+	public static final String SEGMENTATION = "testadvisor.segmentation";
+	public static final String SCREENSHOT_ASYNC = "testadvisor.screenshot.async";
+	public static final String SCREENSHOT_QUEUE = "testadvisor.screenshot.queue";
+	public static final String SCREENSHOT_DIR = "testadvisor.screenshot.dir";
+	public static final String SCREENSHOT_WIDTH = "testadvisor.screenshot.width";
+	public static final String SCREENSHOT_FORMAT = "testadvisor.screenshot.format";
+	public static final String SCREENSHOT_QUALITY = "testadvisor.screenshot.quality";
+	public static final String SCREENSHOT_GRAYSCALE = "testadvisor.screenshot.grayscale";
+	public static final String SCREENSHOT_MIN_INTERVAL = "testadvisor.screenshot.mininterval";
+	public static final String SCREENSHOT_MAX_PER_PAGE = "testadvisor.screenshot.maxperpage";
+	public static final String SCREENSHOT_POLICY = "testadvisor.screenshot.policy.%s";
+	public static final String EVENT_LOG_FLUSH_BYTES = "testadvisor.eventlog.flushbytes";
+	public static final String EVENT_LOG_FLUSH_MILLIS = "testadvisor.eventlog.flushmillis";
+
+	private ListenerConfiguration() {
+		// static helper class
+	}
+
+	/**
+	 * If disabled, WebDriver sessions neither create events nor highlight elements or rename threads.
+	 * The setting is read once when a session is created.
+	 * @return true if WebDriver commands are instrumented
+	 */
+	public static boolean getInstrumentationEnabled() {
+		return getBoolean(ENABLED, true);
+	}
+
+	/**
+	 * @return true if listeners which are not synchronous receive their events from a background thread
+	 */
+	public static boolean getAsyncDispatchEnabled() {
+		return getBoolean(DISPATCH_ASYNC, false);
+	}
+
+	/**
+	 * @return number of events which can be queued for asynchronous listeners of a single session
+	 */
+	public static int getDispatchBufferSize() {
+		return getInt(DISPATCH_BUFFER_SIZE, 1024);
+	}
+
+	/**
+	 * @return strategy applied when the queue of asynchronous listeners is full
+	 */
+	public static AsyncEventPipeline.Backpressure getDispatchBackpressure() {
+		return getEnum(DISPATCH_BACKPRESSURE, AsyncEventPipeline.Backpressure.class, AsyncEventPipeline.Backpressure.BLOCK);
+	}
+
+	/**
+	 * @return true if events dispatched synchronously are taken from a per-session pool instead of being allocated
+	 */
+	public static boolean getEventPoolingEnabled() {
+		return getBoolean(DISPATCH_POOLING, false);
+	}
+
+	/**
+	 * Listeners and sinks are enabled by default and can be switched off one by one using their simple class name,
+	 * e.g. <code>-Dtestadvisor.listener.FullListener.enabled=false</code>.
+	 * @param listenerClass class of the {@link IEventListener} or {@link IEventSink}
+	 * @return true if the listener has to be registered with new WebDriver sessions
+	 */
+	public static boolean getListenerEnabled(Class<?> listenerClass) {
+		return getBoolean(String.format(LISTENER_ENABLED, listenerClass.getSimpleName()), true);
+	}
+
+	/**
+	 * The budget applies to each call of a listener. It can be set for all listeners and overridden by
+	 * simple class name, e.g. <code>-Dtestadvisor.listener.ScreenshotListener.budget=500</code>.
+	 * @param listenerClass class of the {@link IEventListener} or {@link IEventSink}
+	 * @return maximum duration of a call in milliseconds, 0 if calls are not timed
+	 */
+	public static long getListenerBudget(Class<?> listenerClass) {
+		return getInt(String.format(LISTENER_BUDGET_OF, listenerClass.getSimpleName()), getInt(LISTENER_BUDGET, 0));
+	}
+
+	/**
+	 * @return number of calls in a row which have to throw or exceed the budget before a listener is tripped
+	 */
+	public static int getListenerMaxViolations() {
+		return getInt(LISTENER_MAX_VIOLATIONS, 3);
+	}
+
+	/**
+	 * @return 0 if a tripped listener receives no more events, otherwise it still receives 1 in this many events
+	 */
+	public static int getListenerSamplingRate() {
+		return getInt(LISTENER_SAMPLING, 0);
+	}
+
+	/**
+	 * @return minimum number of events kept by each listener in the default {@link RingBufferEventStore}
+	 */
+	public static int getEventStoreCapacity() {
+		return getInt(STORE_CAPACITY, 10_000);
+	}
+
+	/**
+	 * @return handling of events recorded by a listener whose {@link RingBufferEventStore} is full
+	 */
+	public static RingBufferEventStore.Overflow getEventStoreOverflow() {
+		return getEnum(STORE_OVERFLOW, RingBufferEventStore.Overflow.class, RingBufferEventStore.Overflow.DROP_OLDEST);
+	}
+
+	/**
+	 * @return true if listeners keep their events in an {@link OffHeapEventStore} instead of a {@link RingBufferEventStore}
+	 */
+	public static boolean getOffHeapEventStoreEnabled() {
+		return getBoolean(STORE_OFF_HEAP, false);
+	}
+
+	/**
+	 * @return megabytes of direct memory each listener may use in an {@link OffHeapEventStore}
+	 */
+	public static int getOffHeapEventStoreMegabytes() {
+		return getInt(STORE_OFF_HEAP_MB, 64);
+	}
+
+	/**
+	 * @return true if events and screenshots are kept in memory and only persisted on failure, see {@link FlightRecorder}
+	 */
+	public static boolean getFlightRecorderEnabled() {
+		return getBoolean(FLIGHT_RECORDER, false);
+	}
+
+	/**
+	 * @return minimum number of events each listener keeps in flight recorder mode, rounded up to a power of two
+	 */
+	public static int getFlightRecorderEvents() {
+		return getInt(FLIGHT_RECORDER_EVENTS, 200);
+	}
+
+	/**
+	 * @return number of screenshots kept per session in flight recorder mode
+	 */
+	public static int getFlightRecorderScreenshots() {
+		return getInt(FLIGHT_RECORDER_SCREENSHOTS, 3);
+	}
+
+	/**
+	 * @return true if the {@link CommandRecorder} keeps one record per command
+	 */
+	public static boolean getCommandRecordsEnabled() {
+		return getBoolean(COMMAND_RECORDS, false);
+	}
+
+	/**
+	 * @return directory the {@link JsonLinesEventSink} writes to or null if events are not written as JSON lines
+	 */
+	public static File getJsonLinesDirectory() {
+		return getDirectory(JSON_LINES_DIR);
+	}
+
+	/**
+	 * @return directory the {@link BinaryEventSink} writes to or null if events are not written in binary format
+	 */
+	public static File getBinaryLogDirectory() {
+		return getDirectory(BINARY_LOG_DIR);
+	}
+
+	/**
+	 * @return directory the {@link JournalEventSink} writes to or null if events are not journaled
+	 */
+	public static File getJournalDirectory() {
+		return getDirectory(JOURNAL_DIR);
+	}
+
+	/**
+	 * @return size in bytes of the segment files of a {@link MappedEventJournal}
+	 */
+	public static int getJournalSegmentSize() {
+		return getInt(JOURNAL_SEGMENT_SIZE, 1 << 20);
+	}
+
+	/**
+	 * @return maximum number of characters of a parameter or return value kept in an event, 0 to keep all, see {@link PayloadStore}
+	 */
+	public static int getPayloadThreshold() {
+		return getInt(PAYLOAD_THRESHOLD, 0);
+	}
+
+	/**
+	 * @return directory the {@link PayloadStore} writes values exceeding the threshold to or null if only references are kept
+	 */
+	public static File getPayloadDirectory() {
+		return getDirectory(PAYLOAD_DIR);
+	}
+
+	/**
+	 * @return maximum number of locators, scripts and URLs in the {@link StringDictionary} of a session,
+	 *         0 (the default) to not intern strings
+	 */
+	public static int getDictionarySize() {
+		return getInt(DICTIONARY_SIZE, 0);
+	}
+
+	/**
+	 * @return what events keep of the objects returned by WebDriver commands once they have been delivered
+	 */
+	public static ReturnObjectRetention getReturnObjectRetention() {
+		return getEnum(RETURN_OBJECT_RETENTION, ReturnObjectRetention.class, ReturnObjectRetention.KEEP);
+	}
+
+	/**
+	 * @return true if listeners release their events at the end of each test case, see {@link EventDispatcher#finishTestCase()}
+	 */
+	public static boolean getSegmentationEnabled() {
+		return getBoolean(SEGMENTATION, false);
+	}
+
+	/**
+	 * @return true if the {@link ScreenshotListener} writes screenshots in the background, see {@link AsyncScreenshotWriter}
+	 */
+	public static boolean getAsyncScreenshotsEnabled() {
+		return getBoolean(SCREENSHOT_ASYNC, false);
+	}
+
+	/**
+	 * @return maximum number of screenshots waiting to be written in the background
+	 */
+	public static int getAsyncScreenshotQueueSize() {
+		return getInt(SCREENSHOT_QUEUE, 16);
+	}
+
+	/**
+	 * @return directory of the {@link ScreenshotStore} or null if screenshots are written to temporary files
+	 */
+	public static File getScreenshotDirectory() {
+		return getDirectory(SCREENSHOT_DIR);
+	}
+
+	/**
+	 * @return width in pixels wider screenshots are scaled down to, 0 to keep their width, see {@link ScreenshotProcessor}
+	 */
+	public static int getScreenshotWidth() {
+		return getInt(SCREENSHOT_WIDTH, 0);
+	}
+
+	/**
+	 * @return format screenshots are re-encoded in or null to keep the format, see {@link ScreenshotProcessor}
+	 */
+	public static ScreenshotProcessor.Format getScreenshotFormat() {
+		return getEnum(SCREENSHOT_FORMAT, ScreenshotProcessor.Format.class, null);
+	}
+
+	/**
+	 * @return quality of screenshots re-encoded as JPEG in percent, PNG screenshots do not use it
+	 */
+	public static int getScreenshotQuality() {
+		return getInt(SCREENSHOT_QUALITY, 80);
+	}
+
+	/**
+	 * @return true if screenshots are converted to grayscale, see {@link ScreenshotProcessor}
+	 */
+	public static boolean getScreenshotGrayscale() {
+		return getBoolean(SCREENSHOT_GRAYSCALE, false);
+	}
+
+	/**
+	 * @return minimum number of milliseconds between two sampled screenshots, 0 for no minimum, see {@link ScreenshotPolicy}
+	 */
+	public static int getScreenshotMinInterval() {
+		return getInt(SCREENSHOT_MIN_INTERVAL, 0);
+	}
+
+	/**
+	 * @return maximum number of sampled screenshots per page, 0 for no maximum, see {@link ScreenshotPolicy}
+	 */
+	public static int getScreenshotMaxPerPage() {
+		return getInt(SCREENSHOT_MAX_PER_PAGE, 0);
+	}
+
+	/**
+	 * The policy can be set per command using its name,
+	 * e.g. <code>-Dtestadvisor.screenshot.policy.clickByElement=always</code>.
+	 * @param cmd command a screenshot is taken before
+	 * @return when screenshots are taken before the command, see {@link ScreenshotPolicy}
+	 */
+	public static ScreenshotPolicy.Mode getScreenshotPolicy(WebDriverEvent.Cmd cmd) {
+		return getEnum(String.format(SCREENSHOT_POLICY, cmd.name()), ScreenshotPolicy.Mode.class, ScreenshotPolicy.Mode.SAMPLED);
+	}
+
+	/**
+	 * @return number of bytes the sinks writing events to files buffer before writing them, see {@link AbstractFileEventSink}
+	 */
+	public static int getEventLogFlushBytes() {
+		return getInt(EVENT_LOG_FLUSH_BYTES, 4096);
+	}
+
+	/**
+	 * @return milliseconds after which the sinks writing events to files write buffered events, see {@link AbstractFileEventSink}
+	 */
+	public static int getEventLogFlushMillis() {
+		return getInt(EVENT_LOG_FLUSH_MILLIS, 1000);
+	}
+
+	static File getDirectory(String key) {
+		String value = System.getProperty(key);
+		return (value == null || value.trim().isEmpty()) ? null : new File(value.trim());
+	}
+
+	static boolean getBoolean(String key, boolean defaultValue) {
+		String value = System.getProperty(key);
+		return (value == null) ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
+
+	static int getInt(String key, int defaultValue) {
+		String value = System.getProperty(key);
+		if (value == null)
+			return defaultValue;
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			LOGGER.log(Level.WARNING, "Ignoring invalid value {0} of property {1}", new Object[] { value, key });
+			return defaultValue;
+		}
+	}
+
+	static <E extends Enum<E>> E getEnum(String key, Class<E> enumType, E defaultValue) {
+		String value = System.getProperty(key);
+		if (value == null)
+			return defaultValue;
+		try {
+			return Enum.valueOf(enumType, value.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			LOGGER.log(Level.WARNING, "Ignoring invalid value {0} of property {1}", new Object[] { value, key });
+			return defaultValue;
+		}
+	}
+}
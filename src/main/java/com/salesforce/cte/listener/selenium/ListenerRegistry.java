@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Discovers the {@link IEventListener} and {@link IEventSink} implementations available on the class path.
+ *
+ * Listeners are registered in <code>META-INF/services/com.salesforce.cte.listener.selenium.IEventListener</code>
+ * and need a public no-argument constructor. Each call to {@link #createListeners()} returns new
+ * instances, so every WebDriver session gets its own set of listeners. The same applies to sinks.
+ *
+ * The registrations are read the way {@link java.util.ServiceLoader} reads them, but only once per service,
+ * and a class is only instantiated if it is enabled, so a disabled listener does not run its constructor.
+ */
+public class ListenerRegistry {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final String SERVICES = "META-INF/services/";
+	// registered classes by service, in the order they were found
+	private static final Map<Class<?>, List<Class<?>>> providers = new ConcurrentHashMap<>();
+
+	private ListenerRegistry() {
+		// static helper class
+	}
+
+	/**
+	 * Instantiates all enabled listeners.
+	 * @return listeners ordered by ascending priority
+	 */
+	public static List<IEventListener> createListeners() {
+		List<IEventListener> listeners = load(IEventListener.class);
+		// stable sort, listeners with the same priority keep the order in which they were found
+		listeners.sort(Comparator.comparingInt(IEventListener::getPriority));
+		return listeners;
+	}
+
+	/**
+	 * Instantiates all enabled sinks, registered in <code>META-INF/services/com.salesforce.cte.listener.selenium.IEventSink</code>.
+	 * @return sinks ordered by ascending priority
+	 */
+	public static List<IEventSink> createSinks() {
+		List<IEventSink> sinks = load(IEventSink.class);
+		sinks.sort(Comparator.comparingInt(IEventSink::getPriority));
+		return sinks;
+	}
+
+	/**
+	 * Instantiates the first enabled event store registered in
+	 * <code>META-INF/services/com.salesforce.cte.listener.selenium.IEventStore</code>.
+	 * @return new event store, by default a {@link RingBufferEventStore} or {@link OffHeapEventStore} as configured in {@link ListenerConfiguration}
+	 */
+	public static IEventStore createEventStore() {
+		for (Class<?> provider : getProviders(IEventStore.class)) {
+			IEventStore store = instantiate(IEventStore.class, provider);
+			if (store != null)
+				return store;
+		}
+		// chunks have a size of one megabyte
+		if (ListenerConfiguration.getOffHeapEventStoreEnabled())
+			return new OffHeapEventStore(OffHeapEventStore.CHUNK_SIZE, ListenerConfiguration.getOffHeapEventStoreMegabytes(),
+					ListenerConfiguration.getEventStoreOverflow());
+		int capacity = ListenerConfiguration.getEventStoreCapacity();
+		if (capacity < 1) {
+			LOGGER.log(Level.WARNING, "Ignoring invalid event store capacity {0}", capacity);
+			capacity = 10_000;
+		}
+		return new RingBufferEventStore(capacity, ListenerConfiguration.getEventStoreOverflow());
+	}
+
+	private static <T> List<T> load(Class<T> service) {
+		List<T> instances = new ArrayList<>();
+		for (Class<?> provider : getProviders(service)) {
+			T instance = instantiate(service, provider);
+			if (instance != null)
+				instances.add(instance);
+		}
+		return instances;
+	}
+
+	/**
+	 * @return new instance of the provider or null if it is disabled or cannot be instantiated
+	 */
+	private static <T> T instantiate(Class<T> service, Class<?> provider) {
+		if (!ListenerConfiguration.getListenerEnabled(provider)) {
+			LOGGER.log(Level.FINE, "Listener {0} is disabled", provider.getName());
+			return null;
+		}
+		try {
+			return service.cast(provider.getConstructor().newInstance());
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			LOGGER.log(Level.WARNING, "Unable to load " + service.getSimpleName() + " " + provider.getName(), e);
+			return null;
+		}
+	}
+
+	private static List<Class<?>> getProviders(Class<?> service) {
+		return providers.computeIfAbsent(service, ListenerRegistry::findProviders);
+	}
+
+	/**
+	 * Reads the provider-configuration files of the service without initializing the classes they name.
+	 */
+	private static List<Class<?>> findProviders(Class<?> service) {
+		ClassLoader loader = ListenerRegistry.class.getClassLoader();
+		Set<String> names = new LinkedHashSet<>();
+		try {
+			Enumeration<URL> files = loader.getResources(SERVICES + service.getName());
+			while (files.hasMoreElements()) {
+				URL file = files.nextElement();
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openStream(), StandardCharsets.UTF_8))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						int comment = line.indexOf('#');
+						String name = ((comment >= 0) ? line.substring(0, comment) : line).trim();
+						if (!name.isEmpty())
+							names.add(name);
+					}
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Unable to read the registrations of " + service.getSimpleName(), e);
+		}
+
+		List<Class<?>> classes = new ArrayList<>();
+		for (String name : names) {
+			try {
+				Class<?> provider = Class.forName(name, false, loader);
+				if (service.isAssignableFrom(provider))
+					classes.add(provider);
+				else
+					LOGGER.log(Level.WARNING, "{0} does not implement {1}", new Object[] { name, service.getSimpleName() });
+			} catch (ClassNotFoundException | LinkageError e) {
+				LOGGER.log(Level.WARNING, "Unable to load " + service.getSimpleName() + " " + name, e);
+			}
+		}
+		return Collections.unmodifiableList(classes);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of events in memory-mapped segment files which survives an abrupt exit of the JVM.
+ *
+ * Writing an event only stores bytes into mapped memory, the operating system writes the pages to the file
+ * even if the process gets killed. Each segment starts with the magic bytes "TAEJ" and the version of the
+ * {@link BinaryEventEncoder} format, followed by frames of:
+ * <ul>
+ * <li>length of the payload as int, 0 marks the end of the segment</li>
+ * <li>CRC32 of the payload as int</li>
+ * <li>payload, i.e. one event encoded by {@link BinaryEventEncoder} without header</li>
+ * </ul>
+ * The length is stored last, so a frame only becomes visible once it is complete. The encoder state, e.g.
+ * its dictionary, spans all segments, which are named after the journal file with a four digit index appended.
+ * Use {@link EventJournalReader} to recover the events.
+ */
+public class MappedEventJournal implements Closeable {
+	static final byte[] MAGIC = { 'T', 'A', 'E', 'J' };
+	static final int HEADER_SIZE = MAGIC.length + 1;
+	static final int FRAME_HEADER_SIZE = 8;
+
+	private final File journalFile;
+	private final int segmentSize;
+	private final FrameBuffer frame = new FrameBuffer();
+	private final BinaryEventEncoder encoder;
+	private final CRC32 crc = new CRC32();
+
+	private int segmentIndex = -1;
+	private MappedByteBuffer segment = null;
+
+	/**
+	 * @param journalFile base name of the segment files
+	 * @param segmentSize size of a segment file in bytes, segments get larger if a single event does not fit
+	 */
+	public MappedEventJournal(File journalFile, int segmentSize) throws IOException {
+		this.journalFile = journalFile;
+		this.segmentSize = segmentSize;
+		this.encoder = new BinaryEventEncoder(frame, false);
+	}
+
+	static File getSegmentFile(File journalFile, int index) {
+		return new File(journalFile.getPath() + String.format(".%04d", index));
+	}
+
+	public synchronized void append(WebDriverEvent event) throws IOException {
+		frame.reset();
+		encoder.write(event);
+		encoder.flush();
+		int length = frame.size();
+		if (segment == null || segment.remaining() < FRAME_HEADER_SIZE + length + 4)
+			nextSegment(FRAME_HEADER_SIZE + length + 4);
+
+		crc.reset();
+		crc.update(frame.getBuffer(), 0, length);
+		int position = segment.position();
+		segment.position(position + FRAME_HEADER_SIZE);
+		segment.put(frame.getBuffer(), 0, length);
+		segment.putInt(position + 4, (int) crc.getValue());
+		segment.putInt(position, length);
+	}
+
+	private void nextSegment(int minFree) throws IOException {
+		int size = Math.max(segmentSize, HEADER_SIZE + minFree);
+		try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(journalFile, ++segmentIndex), "rw")) {
+			// the mapping stays valid after the channel has been closed
+			segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+		segment.put(MAGIC);
+		segment.put((byte) BinaryEventEncoder.VERSION);
+	}
+
+	/**
+	 * Asks the operating system to write the segment to the disk, which is only needed to survive a crash of the OS.
+	 */
+	public synchronized void force() {
+		if (segment != null)
+			segment.force();
+	}
+
+	@Override
+	public synchronized void close() {
+		// mapped segments are released by the garbage collector
+		segment = null;
+	}
+
+	private static class FrameBuffer extends ByteArrayOutputStream {
+		byte[] getBuffer() {
+			return buf;
+		}
+	}
+}
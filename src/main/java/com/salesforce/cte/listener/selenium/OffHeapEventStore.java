@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Event store which keeps the events in direct memory, so recording does not add to the heap
+ * nor to the work of the garbage collector during long test runs.
+ *
+ * Events are serialized into chunks of direct memory. Records grow from the start of a chunk, the index
+ * of their offsets grows from its end. Once the configured number of chunks is in use, either the oldest
+ * chunk is reused or new events are rejected, see {@link RingBufferEventStore.Overflow}. Hence the memory
+ * used is constant once all chunks have been allocated.
+ *
+ * Events can be read back through an {@link OffHeapEventView} without creating {@link WebDriverEvent} objects.
+ * Finding events by record number assumes that they are added in the order of their record numbers.
+ */
+public class OffHeapEventStore implements IEventStore {
+	public static final int CHUNK_SIZE = 1 << 20;
+
+	private final int chunkSize;
+	private final int maxChunks;
+	private final RingBufferEventStore.Overflow overflow;
+	private final Deque<Chunk> chunks = new ArrayDeque<>();
+	private int size = 0;
+	private long evictedEvents = 0L;
+
+	/**
+	 * @param chunkSize size of a chunk in bytes, which is also the maximum size of a single event
+	 * @param maxChunks maximum number of chunks
+	 * @param overflow handling of events added to a full store
+	 */
+	public OffHeapEventStore(int chunkSize, int maxChunks, RingBufferEventStore.Overflow overflow) {
+		this.chunkSize = chunkSize;
+		this.maxChunks = Math.max(1, maxChunks);
+		this.overflow = overflow;
+	}
+
+	@Override
+	public synchronized void add(WebDriverEvent event) {
+		byte[][] strings = {
+				bytesOf(event.getParam1()),
+				bytesOf(event.getParam2()),
+				bytesOf(event.getReturnValue()),
+				bytesOf(event.getElementLocator()),
+				bytesOf((event.getIssue() == null) ? null : event.getIssue().toString()) };
+		int recordSize = OffHeapEventView.STRINGS;
+		for (byte[] string : strings)
+			recordSize += 4 + ((string == null) ? 0 : string.length);
+
+		Chunk chunk = chunks.peekLast();
+		if (chunk == null || chunk.getFree() < recordSize + 4) {
+			chunk = (recordSize + 4 > chunkSize) ? null : nextChunk();
+			if (chunk == null) {
+				evictedEvents++;
+				return;
+			}
+		}
+
+		ByteBuffer buffer = chunk.buffer;
+		int offset = chunk.dataEnd;
+		buffer.putInt(offset + OffHeapEventView.RECORD_NUMBER, event.getRecordNumber());
+		buffer.putInt(offset + OffHeapEventView.EVENT_NUMBER, event.getEventNumber());
+		buffer.putLong(offset + OffHeapEventView.TIME_STAMP, event.getTimeStamp());
+		buffer.putLong(offset + OffHeapEventView.TIME_SINCE_LAST_ACTION, event.getTimeSinceLastAction());
+		buffer.putLong(offset + OffHeapEventView.TIME_ELAPSED_EVENT, event.getTimeElapsedEvent());
+		buffer.put(offset + OffHeapEventView.TYPE_OF_LOG, (byte) event.getTypeOfLog().ordinal());
+		buffer.putShort(offset + OffHeapEventView.CMD, (short) event.getCmd().ordinal());
+		buffer.position(offset + OffHeapEventView.STRINGS);
+		for (byte[] string : strings) {
+			buffer.putInt((string == null) ? -1 : string.length);
+			if (string != null)
+				buffer.put(string);
+		}
+		buffer.putInt(chunk.getIndexPosition(chunk.count), offset);
+		chunk.count++;
+		chunk.dataEnd += recordSize;
+		size++;
+	}
+
+	private static byte[] bytesOf(String value) {
+		return (value == null) ? null : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return empty chunk or null if the store is full and new events are rejected
+	 */
+	private Chunk nextChunk() {
+		Chunk chunk;
+		if (chunks.size() < maxChunks) {
+			chunk = new Chunk(ByteBuffer.allocateDirect(chunkSize));
+		} else if (overflow == RingBufferEventStore.Overflow.DROP_OLDEST) {
+			chunk = chunks.removeFirst();
+			evictedEvents += chunk.count;
+			size -= chunk.count;
+			chunk.count = 0;
+			chunk.dataEnd = 0;
+		} else {
+			return null;
+		}
+		chunks.addLast(chunk);
+		return chunk;
+	}
+
+	/**
+	 * Passes a view of each event to the consumer, oldest first. The view is reused for all events
+	 * and the store is locked until the method returns.
+	 * @param consumer consumer of the events
+	 */
+	public synchronized void forEach(Consumer<OffHeapEventView> consumer) {
+		OffHeapEventView view = new OffHeapEventView();
+		for (Chunk chunk : chunks) {
+			for (int i = 0; i < chunk.count; i++) {
+				view.moveTo(chunk.buffer, chunk.getOffset(i));
+				consumer.accept(view);
+			}
+		}
+	}
+
+	/**
+	 * Passes a view of the event with the given record number to the consumer.
+	 * @param recordNumber record number of the event
+	 * @param consumer consumer of the event, only called if the event is stored
+	 * @return true if the event has been found
+	 */
+	public synchronized boolean find(int recordNumber, Consumer<OffHeapEventView> consumer) {
+		OffHeapEventView view = new OffHeapEventView();
+		for (Chunk chunk : chunks) {
+			if (chunk.count == 0 || chunk.getRecordNumber(chunk.count - 1) < recordNumber)
+				continue;
+			int low = 0;
+			int high = chunk.count - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int middleRecordNumber = chunk.getRecordNumber(middle);
+				if (middleRecordNumber < recordNumber) {
+					low = middle + 1;
+				} else if (middleRecordNumber > recordNumber) {
+					high = middle - 1;
+				} else {
+					view.moveTo(chunk.buffer, chunk.getOffset(middle));
+					consumer.accept(view);
+					return true;
+				}
+			}
+			return false;
+		}
+		return false;
+	}
+
+	@Override
+	public List<WebDriverEvent> snapshot() {
+		List<WebDriverEvent> events = new ArrayList<>();
+		forEach(view -> events.add(view.toEvent()));
+		return events;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized long getEvictedEvents() {
+		return evictedEvents;
+	}
+
+	private static class Chunk {
+		private final ByteBuffer buffer;
+		private int count = 0;
+		private int dataEnd = 0;
+
+		Chunk(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		int getIndexPosition(int index) {
+			return buffer.capacity() - 4 * (index + 1);
+		}
+
+		int getOffset(int index) {
+			return buffer.getInt(getIndexPosition(index));
+		}
+
+		int getRecordNumber(int index) {
+			return buffer.getInt(getOffset(index) + OffHeapEventView.RECORD_NUMBER);
+		}
+
+		int getFree() {
+			return buffer.capacity() - 4 * count - dataEnd;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Reads an event stored by {@link OffHeapEventStore} without creating a {@link WebDriverEvent}.
+ *
+ * A view is positioned on one record at a time and can be reused for any number of records.
+ * Numbers are read directly from the off-heap memory, only strings are decoded when they are asked for.
+ * A view is only valid while the store holds the record, i.e. during the callback it is passed to.
+ */
+public class OffHeapEventView {
+	private static final Type[] TYPES = Type.values();
+	private static final Cmd[] CMDS = Cmd.values();
+
+	// layout of a record, see OffHeapEventStore#add(WebDriverEvent)
+	static final int RECORD_NUMBER = 0;
+	static final int EVENT_NUMBER = 4;
+	static final int TIME_STAMP = 8;
+	static final int TIME_SINCE_LAST_ACTION = 16;
+	static final int TIME_ELAPSED_EVENT = 24;
+	static final int TYPE_OF_LOG = 32;
+	static final int CMD = 33;
+	static final int STRINGS = 35;
+	static final int PARAM1 = 0;
+	static final int PARAM2 = 1;
+	static final int RETURN_VALUE = 2;
+	static final int ELEMENT_LOCATOR = 3;
+	static final int ISSUE = 4;
+
+	private ByteBuffer buffer;
+	private int offset;
+
+	void moveTo(ByteBuffer buffer, int offset) {
+		this.buffer = buffer;
+		this.offset = offset;
+	}
+
+	public int getRecordNumber() {
+		return buffer.getInt(offset + RECORD_NUMBER);
+	}
+
+	public int getEventNumber() {
+		return buffer.getInt(offset + EVENT_NUMBER);
+	}
+
+	public long getTimeStamp() {
+		return buffer.getLong(offset + TIME_STAMP);
+	}
+
+	public long getTimeSinceLastAction() {
+		return buffer.getLong(offset + TIME_SINCE_LAST_ACTION);
+	}
+
+	public long getTimeElapsedEvent() {
+		return buffer.getLong(offset + TIME_ELAPSED_EVENT);
+	}
+
+	public Type getTypeOfLog() {
+		return TYPES[buffer.get(offset + TYPE_OF_LOG)];
+	}
+
+	public Cmd getCmd() {
+		return CMDS[buffer.getShort(offset + CMD)];
+	}
+
+	public String getParam1() {
+		return getString(PARAM1);
+	}
+
+	public String getParam2() {
+		return getString(PARAM2);
+	}
+
+	public String getReturnValue() {
+		return getString(RETURN_VALUE);
+	}
+
+	public String getElementLocator() {
+		return getString(ELEMENT_LOCATOR);
+	}
+
+	/**
+	 * @return string representation of the issue of an exception event
+	 */
+	public String getIssue() {
+		return getString(ISSUE);
+	}
+
+	/**
+	 * Strings are stored one after the other, each as its length in bytes, or -1 for null, followed by its UTF-8 bytes.
+	 */
+	private String getString(int index) {
+		int position = offset + STRINGS;
+		for (int i = 0; i < index; i++)
+			position += 4 + Math.max(0, buffer.getInt(position));
+		int length = buffer.getInt(position);
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(position + 4);
+		duplicate.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return event on the heap with the values of the record this view is positioned on
+	 */
+	public WebDriverEvent toEvent() {
+		String issue = getIssue();
+		return WebDriverEvent.restore(getRecordNumber(), getEventNumber(), getTimeStamp(), getTimeSinceLastAction(),
+				getTimeElapsedEvent(), getTypeOfLog(), getCmd(), getParam1(), getParam2(), getReturnValue(),
+				getElementLocator(), (issue == null) ? null : new RecordedIssue(issue));
+	}
+
+	/**
+	 * Stands in for the original exception of which only the string representation has been stored.
+	 */
+	private static class RecordedIssue extends Throwable {
+		private static final long serialVersionUID = 1L;
+		private final String issue;
+
+		RecordedIssue(String issue) {
+			super(issue, null, false, false);
+			this.issue = issue;
+		}
+
+		@Override
+		public String toString() {
+			return issue;
+		}
+	}
+}
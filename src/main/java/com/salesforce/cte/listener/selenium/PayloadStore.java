@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps large parameters and return values, e.g. page sources, scripts or texts, out of the events.
+ *
+ * Values longer than the threshold are replaced by a reference with their SHA-256 hash, their length
+ * and their first characters:
+ * <pre>[payload sha256:&lt;hash&gt; length:&lt;length&gt;] &lt;prefix&gt;...</pre>
+ * If a directory is configured, each distinct value is written once to a file named after its hash,
+ * which {@link #resolve(String)} reads back. Otherwise only the reference is kept.
+ *
+ * Listeners and file sinks apply the store when they keep an event, so values are only hashed and written
+ * by the thread delivering events to them, which is not the test thread if dispatching is asynchronous.
+ * Dispatched events and typed listener callbacks always see the full values.
+ */
+public class PayloadStore {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final Pattern REFERENCE = Pattern.compile("^\\[payload sha256:([0-9a-f]{64}) length:(\\d+)\\] ");
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	public static final int PREFIX_LENGTH = 256;
+
+	private final int threshold;
+	private final File directory;
+
+	/**
+	 * @param threshold maximum number of characters kept in an event
+	 * @param directory directory to write the values to or null to only keep the references
+	 */
+	public PayloadStore(int threshold, File directory) {
+		this.threshold = threshold;
+		this.directory = directory;
+	}
+
+	/**
+	 * @return store as configured by {@link ListenerConfiguration#PAYLOAD_THRESHOLD} and {@link ListenerConfiguration#PAYLOAD_DIR}
+	 *         or null if large payloads are kept in the events
+	 */
+	public static PayloadStore getConfiguredInstance() {
+		int threshold = ListenerConfiguration.getPayloadThreshold();
+		return (threshold > 0) ? new PayloadStore(threshold, ListenerConfiguration.getPayloadDirectory()) : null;
+	}
+
+	/**
+	 * Replaces the parameters and the return value of the event by references if they exceed the threshold.
+	 * The event itself is not changed, since other sinks may still need the full values.
+	 * @param event event to be kept
+	 * @return the event itself if no value exceeds the threshold, otherwise an immutable copy holding the references
+	 */
+	public WebDriverEvent externalize(WebDriverEvent event) {
+		String param1 = event.getParam1();
+		String param2 = event.getParam2();
+		String returnValue = event.getReturnValue();
+		if (!exceedsThreshold(param1) && !exceedsThreshold(param2) && !exceedsThreshold(returnValue))
+			return event;
+		return RetainedEvent.withValues(event, exceedsThreshold(param1) ? externalize(param1) : param1,
+				exceedsThreshold(param2) ? externalize(param2) : param2,
+				exceedsThreshold(returnValue) ? externalize(returnValue) : returnValue);
+	}
+
+	private boolean exceedsThreshold(String value) {
+		return value != null && value.length() > threshold;
+	}
+
+	/**
+	 * @param value value exceeding the threshold
+	 * @return reference to the value
+	 */
+	String externalize(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		String hash = sha256(bytes);
+		if (directory != null)
+			write(getFile(hash), bytes);
+		int prefixLength = Math.min(value.length(), Math.min(threshold, PREFIX_LENGTH));
+		if (prefixLength > 0 && Character.isHighSurrogate(value.charAt(prefixLength - 1)))
+			prefixLength--;
+		return String.format("[payload sha256:%s length:%d] %s...", hash, value.length(), value.substring(0, prefixLength));
+	}
+
+	/**
+	 * @param value parameter or return value of an event
+	 * @return the original value if the value is a reference to a file of this store, otherwise the value itself
+	 */
+	public String resolve(String value) throws IOException {
+		String hash = getHash(value);
+		if (hash == null || directory == null || !getFile(hash).isFile())
+			return value;
+		return new String(Files.readAllBytes(getFile(hash).toPath()), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param value parameter or return value of an event
+	 * @return hash of the original value if the value is a reference, otherwise null
+	 */
+	public static String getHash(String value) {
+		if (value == null)
+			return null;
+		Matcher matcher = REFERENCE.matcher(value);
+		return matcher.find() ? matcher.group(1) : null;
+	}
+
+	private File getFile(String hash) {
+		return new File(directory, hash + ".txt");
+	}
+
+	private static void write(File file, byte[] bytes) {
+		// the name is the hash of the content, so an existing file already has the same content
+		if (file.isFile())
+			return;
+		try {
+			Files.createDirectories(file.getParentFile().toPath());
+			File temporaryFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+			Files.write(temporaryFile.toPath(), bytes);
+			Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Payload could not be written to " + file, e);
+		}
+	}
+
+	/**
+	 * @return SHA-256 hash of the bytes as lower case hex string
+	 */
+	static String sha256(byte[] bytes) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+			char[] hex = new char[2 * digest.length];
+			for (int i = 0; i < digest.length; i++) {
+				hex[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+				hex[2 * i + 1] = HEX[digest[i] & 0xf];
+			}
+			return new String(hex);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
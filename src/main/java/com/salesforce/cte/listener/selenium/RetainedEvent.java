@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable copy of an event which listeners keep after their callback returned, see {@link WebDriverEvent#copy()}.
+ * It only holds the rendered values, no references to the arguments of the WebDriver call.
+ *
+ * A compressed copy keeps long values, e.g. page sources or scripts, deflated and inflates them whenever
+ * they are read. The flight recorder uses it for the events it keeps in memory, see {@link FlightRecorder}.
+ */
+final class RetainedEvent extends WebDriverEvent {
+	// values of fewer characters are not worth compressing
+	static final int MIN_COMPRESSED_LENGTH = 256;
+
+	// null unless the value is compressed
+	private final byte[] compressedParam1;
+	private final byte[] compressedParam2;
+	private final byte[] compressedReturnValue;
+
+	RetainedEvent(WebDriverEvent event, Object returnObject) {
+		super(event, returnObject);
+		compressedParam1 = null;
+		compressedParam2 = null;
+		compressedReturnValue = null;
+	}
+
+	/**
+	 * @return a copy of the event keeping long values compressed
+	 */
+	static RetainedEvent compressed(WebDriverEvent event, Object returnObject) {
+		return new RetainedEvent(event, returnObject, compress(event.getParam1()), compress(event.getParam2()),
+				compress(event.getReturnValue()));
+	}
+
+	/**
+	 * @return a copy of the event with the given values, e.g. references to externalized payloads, see {@link PayloadStore}
+	 */
+	static RetainedEvent withValues(WebDriverEvent event, String param1, String param2, String returnValue) {
+		return new RetainedEvent(event, event.getReturnObject(), param1, param2, returnValue);
+	}
+
+	private RetainedEvent(WebDriverEvent event, Object returnObject, String param1, String param2, String returnValue) {
+		super(event, returnObject);
+		compressedParam1 = null;
+		compressedParam2 = null;
+		compressedReturnValue = null;
+		super.setParam1(param1);
+		super.setParam2(param2);
+		super.setReturnValue(returnValue);
+	}
+
+	private RetainedEvent(WebDriverEvent event, Object returnObject, byte[] compressedParam1, byte[] compressedParam2,
+			byte[] compressedReturnValue) {
+		super(event, returnObject);
+		this.compressedParam1 = compressedParam1;
+		this.compressedParam2 = compressedParam2;
+		this.compressedReturnValue = compressedReturnValue;
+		// only the compressed values are kept
+		if (compressedParam1 != null)
+			super.setParam1(null);
+		if (compressedParam2 != null)
+			super.setParam2(null);
+		if (compressedReturnValue != null)
+			super.setReturnValue(null);
+	}
+
+	@Override
+	public String getParam1() {
+		return (compressedParam1 != null) ? decompress(compressedParam1) : super.getParam1();
+	}
+
+	@Override
+	public String getParam2() {
+		return (compressedParam2 != null) ? decompress(compressedParam2) : super.getParam2();
+	}
+
+	@Override
+	public String getReturnValue() {
+		return (compressedReturnValue != null) ? decompress(compressedReturnValue) : super.getReturnValue();
+	}
+
+	private static byte[] compress(String value) {
+		if (value == null || value.length() < MIN_COMPRESSED_LENGTH)
+			return null;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length() / 4);
+		try (OutputStream out = new DeflaterOutputStream(bytes)) {
+			out.write(value.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			// not thrown by in-memory streams
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static String decompress(byte[] compressed) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(compressed.length * 4);
+		byte[] buffer = new byte[4096];
+		try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+			int read;
+			while ((read = in.read(buffer)) > 0)
+				bytes.write(buffer, 0, read);
+		} catch (IOException e) {
+			// not thrown by in-memory streams
+			throw new UncheckedIOException(e);
+		}
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void setParam1(String param1) {
+		throw new UnsupportedOperationException("retained events are immutable");
+	}
+
+	@Override
+	public void setParam2(String param2) {
+		throw new UnsupportedOperationException("retained events are immutable");
+	}
+
+	@Override
+	public void setReturnValue(String returnValue) {
+		throw new UnsupportedOperationException("retained events are immutable");
+	}
+
+	@Override
+	public void setReturnObject(Object returnObject) {
+		throw new UnsupportedOperationException("retained events are immutable");
+	}
+
+	@Override
+	public void setIssue(Throwable issue) {
+		throw new UnsupportedOperationException("retained events are immutable");
+	}
+
+	@Override
+	public void setElementLocator(String elementLocator) {
+		throw new UnsupportedOperationException("retained events are immutable");
+	}
+
+	@Override
+	void retainReturnObject(ReturnObjectRetention retention) {
+		// the retention policy has been applied when the copy was made
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+
+/**
+ * Defines what an event keeps of its return object, e.g. a screenshot or the elements found, once it has been
+ * delivered to all sinks. During delivery, all sinks see the original object.
+ *
+ * Configured by {@link ListenerConfiguration#RETURN_OBJECT_RETENTION}.
+ */
+public enum ReturnObjectRetention {
+	/** keep the object, which is never collected while the event is stored */
+	KEEP,
+	/** drop the object */
+	DROP,
+	/** keep a weak reference to the object, which is collected once nothing else refers to it */
+	WEAK,
+	/** keep a soft reference to the object, which is collected when memory runs low */
+	SOFT,
+	/** replace the object by a {@link ReturnObjectSummary} of its type, size and hash code */
+	SUMMARY;
+
+	/**
+	 * @param returnObject return object of an event which has been delivered
+	 * @return what the event keeps instead
+	 */
+	Object retain(Object returnObject) {
+		if (returnObject == null)
+			return null;
+		switch (this) {
+		case DROP:
+			return null;
+		case WEAK:
+			return new WeakReference<>(returnObject);
+		case SOFT:
+			return new SoftReference<>(returnObject);
+		case SUMMARY:
+			return (returnObject instanceof ReturnObjectSummary) ? returnObject : new ReturnObjectSummary(returnObject);
+		default:
+			return returnObject;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import org.openqa.selenium.Pdf;
+
+/**
+ * Stands in for the return object of an event, see {@link ReturnObjectRetention#SUMMARY}.
+ */
+public class ReturnObjectSummary {
+	// rough sizes of object headers and references, see estimateSize(Object)
+	private static final long OBJECT_BYTES = 16L;
+	private static final long REFERENCE_BYTES = 8L;
+	private static final long OTHER_OBJECT_BYTES = 64L;
+
+	private final String type;
+	private final int size;
+	private final int hash;
+
+	public ReturnObjectSummary(Object returnObject) {
+		this.type = returnObject.getClass().getName();
+		this.size = sizeOf(returnObject);
+		this.hash = hashOf(returnObject);
+	}
+
+	/**
+	 * @return class name of the return object
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return number of bytes, characters or elements of the return object, 1 for other objects
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return hash code of the return object, which is based on its content for arrays
+	 */
+	public int getHash() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s(size:%d,hash:%08x)", type, size, hash);
+	}
+
+	private static int sizeOf(Object object) {
+		if (object instanceof byte[])
+			return ((byte[]) object).length;
+		if (object instanceof CharSequence)
+			return ((CharSequence) object).length();
+		if (object instanceof Collection)
+			return ((Collection<?>) object).size();
+		if (object instanceof Map)
+			return ((Map<?, ?>) object).size();
+		if (object instanceof Pdf)
+			return ((Pdf) object).getContent().length();
+		return 1;
+	}
+
+	private static int hashOf(Object object) {
+		if (object instanceof byte[])
+			return Arrays.hashCode((byte[]) object);
+		if (object instanceof Object[])
+			return Arrays.deepHashCode((Object[]) object);
+		if (object instanceof Pdf)
+			return ((Pdf) object).getContent().hashCode();
+		return object.hashCode();
+	}
+
+	/**
+	 * Estimates the heap used by a return object. Arrays, strings, files, PDFs and collections of them are
+	 * measured, all other objects are assumed to take {@value #OTHER_OBJECT_BYTES} bytes.
+	 * @param object return object, may be null
+	 * @return estimated number of bytes
+	 */
+	public static long estimateSize(Object object) {
+		if (object == null)
+			return 0L;
+		if (object instanceof byte[])
+			return OBJECT_BYTES + ((byte[]) object).length;
+		if (object instanceof CharSequence)
+			return 2 * OBJECT_BYTES + 2L * ((CharSequence) object).length();
+		if (object instanceof File)
+			return 2 * OBJECT_BYTES + estimateSize(((File) object).getPath());
+		if (object instanceof Pdf)
+			return OBJECT_BYTES + estimateSize(((Pdf) object).getContent());
+		if (object instanceof Collection) {
+			long bytes = 2 * OBJECT_BYTES;
+			for (Object element : (Collection<?>) object)
+				bytes += REFERENCE_BYTES + estimateSize(element);
+			return bytes;
+		}
+		if (object instanceof Map) {
+			long bytes = 2 * OBJECT_BYTES;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet())
+				bytes += OBJECT_BYTES + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+			return bytes;
+		}
+		if (object instanceof ReturnObjectSummary)
+			return OBJECT_BYTES + 3 * REFERENCE_BYTES;
+		return OTHER_OBJECT_BYTES;
+	}
+}
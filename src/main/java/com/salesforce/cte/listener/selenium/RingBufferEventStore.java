@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded event store which does not use locks.
+ *
+ * Each event gets a sequence number which determines its slot. Once all slots are taken,
+ * either the oldest events are overwritten or new events are rejected, see {@link Overflow}.
+ * Slots are replaced by compare-and-set and only ever move to a higher sequence number, so a
+ * writer which has been preempted cannot overwrite a newer event, and a snapshot can tell
+ * whether a slot still holds the event it expects.
+ */
+public class RingBufferEventStore implements IEventStore {
+	/**
+	 * Handling of events added to a full store.
+	 */
+	public enum Overflow {
+		/** overwrite the oldest event, i.e. keep the end of a long test run */
+		DROP_OLDEST,
+		/** reject the new event, i.e. keep the start of a long test run */
+		DROP_NEWEST
+	}
+
+	private final int capacity;
+	private final int mask;
+	private final Overflow overflow;
+	private final AtomicReferenceArray<Entry> entries;
+	private final AtomicLong nextSequence = new AtomicLong();
+	private final AtomicLong rejectedEvents = new AtomicLong();
+
+	/**
+	 * @param capacity minimum number of events to keep, rounded up to the next power of two
+	 * @param overflow handling of events added to a full store
+	 */
+	public RingBufferEventStore(int capacity, Overflow overflow) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity has to be positive: " + capacity);
+		this.capacity = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.overflow = overflow;
+		this.entries = new AtomicReferenceArray<>(this.capacity);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public void add(WebDriverEvent event) {
+		long sequence;
+		if (overflow == Overflow.DROP_NEWEST) {
+			do {
+				sequence = nextSequence.get();
+				if (sequence >= capacity) {
+					rejectedEvents.incrementAndGet();
+					return;
+				}
+			} while (!nextSequence.compareAndSet(sequence, sequence + 1));
+		} else {
+			sequence = nextSequence.getAndIncrement();
+		}
+
+		int index = (int) (sequence & mask);
+		Entry entry = new Entry(sequence, event);
+		while (true) {
+			Entry current = entries.get(index);
+			// a newer event already took the slot, i.e. this one has been evicted before it was stored
+			if (current != null && current.sequence > sequence)
+				return;
+			if (entries.compareAndSet(index, current, entry))
+				return;
+		}
+	}
+
+	@Override
+	public List<WebDriverEvent> snapshot() {
+		long end = nextSequence.get();
+		long start = Math.max(0L, end - capacity);
+		List<WebDriverEvent> snapshot = new ArrayList<>((int) (end - start));
+		for (long sequence = start; sequence < end; sequence++) {
+			// skips slots not written yet or already reused by a newer event
+			Entry entry = entries.get((int) (sequence & mask));
+			if (entry != null && entry.sequence == sequence)
+				snapshot.add(entry.event);
+		}
+		return snapshot;
+	}
+
+	@Override
+	public int size() {
+		return (int) Math.min(nextSequence.get(), capacity);
+	}
+
+	@Override
+	public long getEvictedEvents() {
+		return Math.max(0L, nextSequence.get() - capacity) + rejectedEvents.get();
+	}
+
+	private static final class Entry {
+		private final long sequence;
+		private final WebDriverEvent event;
+
+		Entry(long sequence, WebDriverEvent event) {
+			this.sequence = sequence;
+			this.event = event;
+		}
+	}
+}
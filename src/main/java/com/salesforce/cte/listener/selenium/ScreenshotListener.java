@@ -8,26 +8,50 @@
 package com.salesforce.cte.listener.selenium;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
 import com.salesforce.cte.admin.TestAdvisorConfiguration;
+import com.salesforce.cte.common.TestCaseExecution;
 import com.salesforce.cte.common.TestEvent;
 import com.salesforce.cte.common.TestEventType;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
 
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 public class ScreenshotListener extends AbstractEventListener {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	// the configuration is the same for all sessions, so it is only reported once
+	private static final AtomicBoolean isUnusedProcessorReported = new AtomicBoolean();
+	private static final Set<Cmd> SUBSCRIBED_COMMANDS = EnumSet.of(Cmd.close, Cmd.get, Cmd.executeScript, Cmd.back,
+			Cmd.forward, Cmd.clickByElement, Cmd.clear, Cmd.sendKeysByElement, Cmd.submit, Cmd.dismiss, Cmd.accept,
+			Cmd.sendKeysByAlert);
+	// commands after which the policy starts a new page
+	private static final Set<Cmd> NAVIGATION_COMMANDS = EnumSet.of(Cmd.get, Cmd.back, Cmd.forward, Cmd.refresh);
+
     private TakesScreenshot tss;
 	private RemoteWebDriver rwd;
+	private final boolean isAsync = ListenerConfiguration.getAsyncScreenshotsEnabled();
+	// created on the first screenshot taken in asynchronous mode
+	private volatile AsyncScreenshotWriter screenshotWriter = null;
+	private final ScreenshotStore screenshotStore = ScreenshotStore.getConfiguredInstance();
+	private final ScreenshotProcessor screenshotProcessor = ScreenshotProcessor.getConfiguredInstance();
+	private final ScreenshotPolicy screenshotPolicy = ScreenshotPolicy.getConfiguredInstance();
 
 	@Override
 	public void setWebDriver(WebDriver driver) {
@@ -40,6 +64,22 @@ public class ScreenshotListener extends AbstractEventListener {
 				this.rwd = (RemoteWebDriver) driver;
 		}
 	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		if (isAsync && cmd == Cmd.quit && type == Type.AfterAction)
+			return true;
+		if (screenshotPolicy.isSampling() && (type == Type.Exception
+				|| (type == Type.AfterAction && NAVIGATION_COMMANDS.contains(cmd))
+				|| (type == Type.AfterGather && cmd == Cmd.getCurrentUrl)))
+			return true;
+		return type == Type.BeforeAction && SUBSCRIBED_COMMANDS.contains(cmd);
+	}
+
+	@Override
+	public int getPriority() {
+		return 300;
+	}
 	
     /*--------------------------------------------------------------------
 	 * Section for all commands called directly from WebDriver object.
@@ -49,11 +89,44 @@ public class ScreenshotListener extends AbstractEventListener {
         captureScreenShot(event); 
 	}
 
+	@Override
+	public void afterQuit(WebDriverEvent event) {
+		// only subscribed in asynchronous mode
+		AsyncScreenshotWriter writer = screenshotWriter;
+		screenshotWriter = null;
+		if (writer != null)
+			writer.shutdown();
+	}
+
+	/**
+	 * Writes the pending screenshots before the test case ends.
+	 */
+	@Override
+	public void onTestCaseFinished() {
+		super.onTestCaseFinished();
+		screenshotPolicy.reset();
+		AsyncScreenshotWriter writer = screenshotWriter;
+		if (writer != null)
+			writer.drain();
+	}
+
 	@Override
 	public void beforeGet(WebDriverEvent event, String url) {
 		captureScreenShot(event);
 	}
 
+	@Override
+	public void afterGet(WebDriverEvent event, String url) {
+		// only subscribed by a sampling policy
+		screenshotPolicy.onNavigation(url);
+	}
+
+	@Override
+	public void afterGetCurrentUrl(WebDriverEvent event, String url) {
+		// only subscribed by a sampling policy
+		screenshotPolicy.onCurrentUrl(url);
+	}
+
     /*--------------------------------------------------------------------
 	 * Section for all commands called directly from WebDriver object
 	 * after casting to JavascriptExecutor.
@@ -74,11 +147,26 @@ public class ScreenshotListener extends AbstractEventListener {
         captureScreenShot(event);
 	}
 
+	@Override
+	public void afterBack(WebDriverEvent event) {
+		screenshotPolicy.onNavigation(null);
+	}
+
 	@Override
 	public void beforeForward(WebDriverEvent event) {
         captureScreenShot(event);
 	}
 
+	@Override
+	public void afterForward(WebDriverEvent event) {
+		screenshotPolicy.onNavigation(null);
+	}
+
+	@Override
+	public void afterRefresh(WebDriverEvent event) {
+		screenshotPolicy.onNavigation(null);
+	}
+
 	/*---------------------------------------------------------------------------
 	 * Section for all commands called directly from WebElement object.
 	 *---------------------------------------------------------------------------*/
@@ -125,17 +213,84 @@ public class ScreenshotListener extends AbstractEventListener {
         captureScreenShot(event);
 	}
 
+	@Override
+	public void onException(WebDriverEvent event, Cmd cmd, Throwable issue) {
+		// only subscribed by a sampling policy
+		screenshotPolicy.onException();
+	}
+
+	/**
+	 * @return policy deciding which actions are captured
+	 */
+	public ScreenshotPolicy getScreenshotPolicy() {
+		return screenshotPolicy;
+	}
+
+	/**
+	 * Reads the URL for the screenshot policy, which is called before the {@link TestStepListener} reads it.
+	 * The URL is read once per event, so the listener reading it later does not query the browser again.
+	 * @return current URL or null if it cannot be read
+	 */
+	private String readCurrentUrl(WebDriverEvent event) {
+		try {
+			if (rwd != null)
+				return DispatchedEvent.readCurrentUrl(event, rwd);
+			return (tss instanceof WebDriver) ? DispatchedEvent.readCurrentUrl(event, (WebDriver) tss) : null;
+		} catch (WebDriverException e) {
+			// the screenshot is decided without the URL rather than failing the command
+			return null;
+		}
+	}
+
+	/**
+	 * @return test case the event has been dispatched for, which may already have finished when TestAdvisor
+	 * has moved on to the next one
+	 */
+	private TestCaseExecution getTestCase(WebDriverEvent event) {
+		TestCaseExecution testCase = (event instanceof DispatchedEvent) ? ((DispatchedEvent) event).getTestCase() : null;
+		return (testCase != null) ? testCase : administrator.getTestCaseExecution();
+	}
+
+	private File storeScreenshot(byte[] png) {
+		try {
+			return screenshotStore.store(png);
+		} catch (IOException e) {
+			throw new WebDriverException("Unable to store screenshot in " + screenshotStore.getDirectory(), e);
+		}
+	}
+
     private void captureScreenShot(WebDriverEvent event){
-        logEntries.add(event);
-		if (TestAdvisorConfiguration.getScreenshotCaptureEnabled()){
+        record(event);
+		if (TestAdvisorConfiguration.getScreenshotCaptureEnabled() && screenshotPolicy.shouldCapture(event.getCmd(), () -> readCurrentUrl(event))){
+			if (flightRecorder != null) {
+				// keep the compressed PNG in memory, it is only written to a file if the test fails
+				byte[] png = (rwd != null) ? rwd.getScreenshotAsForTestAdvisor(OutputType.BYTES) : tss.getScreenshotAs(OutputType.BYTES);
+				flightRecorder.addScreenshot(createTestEvent(TestEventType.SCREEN_SHOT, event, Level.INFO), png);
+				return;
+			}
+			if (isAsync) {
+				// only wait for the browser, decoding and writing the image happens in the background
+				String base64Png = (rwd != null) ? rwd.getScreenshotAsForTestAdvisor(OutputType.BASE64) : tss.getScreenshotAs(OutputType.BASE64);
+				if (screenshotWriter == null)
+					screenshotWriter = new AsyncScreenshotWriter(ListenerConfiguration.getAsyncScreenshotQueueSize(), screenshotStore,
+							screenshotProcessor);
+				screenshotWriter.submit(base64Png, createTestEvent(TestEventType.SCREEN_SHOT, event, Level.INFO), getTestCase(event));
+				return;
+			}
+			// processing would delay the WebDriver command, so it is only done in the background
+			if (screenshotProcessor != null && isUnusedProcessorReported.compareAndSet(false, true))
+				LOGGER.log(Level.WARNING, "Screenshots are stored as taken, since resizing and converting them requires {0}=true",
+						ListenerConfiguration.SCREENSHOT_ASYNC);
 			File file = null;
-			if (rwd != null)
+			if (screenshotStore != null)
+				file = storeScreenshot((rwd != null) ? rwd.getScreenshotAsForTestAdvisor(OutputType.BYTES) : tss.getScreenshotAs(OutputType.BYTES));
+			else if (rwd != null)
 				file = rwd.getScreenshotAsForTestAdvisor(OutputType.FILE);
 			else
 				file = tss.getScreenshotAs(OutputType.FILE);
 			TestEvent testEvent = createTestEvent(TestEventType.SCREEN_SHOT, event,Level.INFO);
 			testEvent.setScreenshotPath(file.getAbsolutePath());
-			administrator.getTestCaseExecution().appendEvent(testEvent);
+			getTestCase(event).appendEvent(testEvent);
 		}
     }
     
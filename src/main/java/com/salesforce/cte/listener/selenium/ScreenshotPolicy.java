@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+
+/**
+ * Decides which of the actions the {@link ScreenshotListener} is subscribed to are captured, so that
+ * the number of screenshots follows the number of distinct pages rather than the number of actions.
+ *
+ * Actions of commands in mode {@link Mode#SAMPLED} are captured unless
+ * <ul>
+ * <li>the previous screenshot was taken less than the minimum interval ago or</li>
+ * <li>the maximum number of screenshots has already been taken of the current page.</li>
+ * </ul>
+ * The first action after a navigation, i.e. a call of get, back, forward or refresh or a change of the
+ * current URL, is always captured. If there is a maximum per page, the current URL is read before each
+ * sampled action, since links or scripts may change it without any navigation command. The URL is read once per
+ * action and shared with the {@link TestStepListener}, so it does not add a call to the browser when test steps are
+ * recorded. Once an exception has occurred, every action is captured until the test case ends. There is one policy per session, its state is reset at the end of each test case.
+ */
+public class ScreenshotPolicy {
+	/**
+	 * When screenshots are taken before a command.
+	 */
+	public enum Mode {
+		/** before every call of the command */
+		ALWAYS,
+		/** as decided by the rules of the policy */
+		SAMPLED,
+		/** never */
+		NEVER
+	}
+
+	private final long minIntervalNanos;
+	private final int maxPerPage;
+	private final Map<Cmd, Mode> modes;
+
+	private String currentUrl = null;
+	private boolean isNewPage = true;
+	private boolean hasExceptionOccurred = false;
+	private int screenshotsOfPage = 0;
+	private long lastScreenshotNanos = 0L;
+	private boolean hasScreenshot = false;
+	private long screenshots = 0L;
+	private long skippedScreenshots = 0L;
+
+	/**
+	 * @param minIntervalMillis minimum number of milliseconds between two sampled screenshots, 0 for no minimum
+	 * @param maxPerPage maximum number of sampled screenshots per page, 0 for no maximum
+	 * @param modes modes of the commands, commands not contained are sampled
+	 */
+	public ScreenshotPolicy(long minIntervalMillis, int maxPerPage, Map<Cmd, Mode> modes) {
+		this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, minIntervalMillis));
+		this.maxPerPage = Math.max(0, maxPerPage);
+		this.modes = modes.isEmpty() ? new EnumMap<>(Cmd.class) : new EnumMap<>(modes);
+	}
+
+	/**
+	 * @return policy as configured by {@link ListenerConfiguration#SCREENSHOT_MIN_INTERVAL},
+	 *         {@link ListenerConfiguration#SCREENSHOT_MAX_PER_PAGE} and {@link ListenerConfiguration#SCREENSHOT_POLICY}
+	 */
+	public static ScreenshotPolicy getConfiguredInstance() {
+		Map<Cmd, Mode> modes = new EnumMap<>(Cmd.class);
+		for (Cmd cmd : Cmd.values()) {
+			Mode mode = ListenerConfiguration.getScreenshotPolicy(cmd);
+			if (mode != Mode.SAMPLED)
+				modes.put(cmd, mode);
+		}
+		return new ScreenshotPolicy(ListenerConfiguration.getScreenshotMinInterval(),
+				ListenerConfiguration.getScreenshotMaxPerPage(), modes);
+	}
+
+	/**
+	 * @return true if the policy skips screenshots of sampled commands, i.e. it has to learn about navigations and exceptions
+	 */
+	public boolean isSampling() {
+		return minIntervalNanos > 0L || maxPerPage > 0;
+	}
+
+	/**
+	 * @param cmd command about to be executed
+	 * @return true if a screenshot has to be taken, which is then counted as taken
+	 */
+	public boolean shouldCapture(Cmd cmd) {
+		return shouldCapture(cmd, System.nanoTime());
+	}
+
+	/**
+	 * Reads the current URL if it decides whether the action is captured, then decides as {@link #shouldCapture(Cmd)}.
+	 * @param cmd command about to be executed
+	 * @param currentUrl reads the URL from the browser, returning null if it is not available
+	 * @return true if a screenshot has to be taken, which is then counted as taken
+	 */
+	public boolean shouldCapture(Cmd cmd, Supplier<String> currentUrl) {
+		// the URL is read without holding the lock, since reading it dispatches events to the listeners
+		if (isCurrentUrlNeeded(cmd)) {
+			String url = currentUrl.get();
+			if (url != null)
+				onCurrentUrl(url);
+		}
+		return shouldCapture(cmd, System.nanoTime());
+	}
+
+	private synchronized boolean isCurrentUrlNeeded(Cmd cmd) {
+		return maxPerPage > 0 && !hasExceptionOccurred && modes.getOrDefault(cmd, Mode.SAMPLED) == Mode.SAMPLED;
+	}
+
+	synchronized boolean shouldCapture(Cmd cmd, long nanoTime) {
+		Mode mode = modes.getOrDefault(cmd, Mode.SAMPLED);
+		if (mode == Mode.NEVER || (mode == Mode.SAMPLED && !isNewPage && !hasExceptionOccurred && isLimited(nanoTime))) {
+			skippedScreenshots++;
+			return false;
+		}
+		isNewPage = false;
+		screenshotsOfPage++;
+		lastScreenshotNanos = nanoTime;
+		hasScreenshot = true;
+		screenshots++;
+		return true;
+	}
+
+	private boolean isLimited(long nanoTime) {
+		if (maxPerPage > 0 && screenshotsOfPage >= maxPerPage)
+			return true;
+		return minIntervalNanos > 0L && hasScreenshot && nanoTime - lastScreenshotNanos < minIntervalNanos;
+	}
+
+	/**
+	 * Starts a new page, e.g. after get, back, forward or refresh.
+	 * @param url URL navigated to or null if it is not known
+	 */
+	public synchronized void onNavigation(String url) {
+		currentUrl = url;
+		startPage();
+	}
+
+	/**
+	 * Starts a new page if the URL differs from the URL of the current page.
+	 * @param url URL returned by the browser
+	 */
+	public synchronized void onCurrentUrl(String url) {
+		if (currentUrl != null && !Objects.equals(currentUrl, url))
+			startPage();
+		currentUrl = url;
+	}
+
+	private void startPage() {
+		isNewPage = true;
+		screenshotsOfPage = 0;
+	}
+
+	/**
+	 * Captures every action from now on until the test case ends.
+	 */
+	public synchronized void onException() {
+		hasExceptionOccurred = true;
+	}
+
+	/**
+	 * Forgets the current page and any exception at the end of a test case.
+	 */
+	public synchronized void reset() {
+		currentUrl = null;
+		hasExceptionOccurred = false;
+		hasScreenshot = false;
+		startPage();
+	}
+
+	/**
+	 * @return number of screenshots the policy decided to take
+	 */
+	public synchronized long getScreenshots() {
+		return screenshots;
+	}
+
+	/**
+	 * @return number of screenshots the policy decided to skip
+	 */
+	public synchronized long getSkippedScreenshots() {
+		return skippedScreenshots;
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Makes screenshots smaller before they are stored: downscales them to a maximum width, optionally
+ * converts them to grayscale and encodes them as PNG or as JPEG of a given quality. PNG images are written with the
+ * default settings of the image writer, since the PNG writer of Java 8 does not support setting the compression.
+ *
+ * Screenshots are processed by the {@link AsyncScreenshotWriter}, i.e. never on the thread executing the test.
+ * If {@link ListenerConfiguration#SCREENSHOT_ASYNC} is disabled, screenshots are stored as taken and a warning is logged.
+ * Images which cannot be decoded are stored as they are.
+ */
+public class ScreenshotProcessor {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	// the warning about an ignored quality is only logged once, not for every screenshot
+	private static final AtomicBoolean isIgnoredQualityReported = new AtomicBoolean(false);
+
+	/**
+	 * Format screenshots are encoded in.
+	 */
+	public enum Format {
+		PNG,
+		JPEG
+	}
+
+	private final int maxWidth;
+	private final Format format;
+	private final float quality;
+	private final boolean isGrayscale;
+
+	/**
+	 * @param maxWidth width wider screenshots are scaled down to, 0 to keep the width
+	 * @param format format of the processed screenshots
+	 * @param quality quality of JPEG images between 0 and 1, not used for PNG images
+	 * @param isGrayscale true to convert screenshots to grayscale
+	 */
+	public ScreenshotProcessor(int maxWidth, Format format, float quality, boolean isGrayscale) {
+		this.maxWidth = Math.max(0, maxWidth);
+		this.format = format;
+		this.quality = Math.max(0f, Math.min(1f, quality));
+		this.isGrayscale = isGrayscale;
+	}
+
+	/**
+	 * @return processor as configured by {@link ListenerConfiguration#SCREENSHOT_FORMAT}, {@link ListenerConfiguration#SCREENSHOT_WIDTH}
+	 *         and {@link ListenerConfiguration#SCREENSHOT_GRAYSCALE} or null if screenshots are stored as taken
+	 */
+	public static ScreenshotProcessor getConfiguredInstance() {
+		Format format = ListenerConfiguration.getScreenshotFormat();
+		int maxWidth = ListenerConfiguration.getScreenshotWidth();
+		boolean isGrayscale = ListenerConfiguration.getScreenshotGrayscale();
+		if (format == null && maxWidth <= 0 && !isGrayscale)
+			return null;
+		return new ScreenshotProcessor(maxWidth, (format == null) ? Format.PNG : format,
+				ListenerConfiguration.getScreenshotQuality() / 100f, isGrayscale);
+	}
+
+	/**
+	 * @param image screenshot, usually a PNG
+	 * @return processed screenshot or the given screenshot if it cannot be decoded
+	 */
+	public byte[] process(byte[] image) throws IOException {
+		BufferedImage source = ImageIO.read(new ByteArrayInputStream(image));
+		if (source == null)
+			return image;
+
+		int width = source.getWidth();
+		int height = source.getHeight();
+		if (maxWidth > 0 && width > maxWidth) {
+			height = Math.max(1, (int) Math.round((double) height * maxWidth / width));
+			width = maxWidth;
+		}
+		// JPEG has no alpha channel and screenshots are opaque anyway
+		BufferedImage target = new BufferedImage(width, height, isGrayscale ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(source, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return encode(target);
+	}
+
+	private byte[] encode(BufferedImage image) throws IOException {
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format.name().toLowerCase(Locale.ROOT));
+		if (!writers.hasNext())
+			throw new IOException("No image writer for " + format);
+		ImageWriter writer = writers.next();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+			writer.setOutput(out);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (format == Format.JPEG) {
+				if (param.canWriteCompressed()) {
+					param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+					if (param.getCompressionType() == null)
+						param.setCompressionType(param.getCompressionTypes()[0]);
+					param.setCompressionQuality(quality);
+				} else if (isIgnoredQualityReported.compareAndSet(false, true)) {
+					LOGGER.log(Level.WARNING, "Image writer {0} does not support {1}, JPEG screenshots are written with its default quality",
+							new Object[] { writer.getClass().getName(), ListenerConfiguration.SCREENSHOT_QUALITY });
+				}
+			}
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores each distinct screenshot once, named after the SHA-256 hash of its bytes.
+ *
+ * Screenshots taken of a page which has not changed are byte-identical, so they refer to the file
+ * written for the first of them. Files are spread over subdirectories named after the first two
+ * characters of the hash. There is one store per directory, shared by all sessions of the JVM,
+ * which counts how many screenshots turned out to be duplicates.
+ *
+ * A screenshot whose file is being written by another thread waits until the file has been moved
+ * into place, so the returned file always exists.
+ */
+public class ScreenshotStore {
+	private static final Map<File, ScreenshotStore> stores = new ConcurrentHashMap<>();
+
+	private final File directory;
+	// completed once the file of the hash has been moved into place
+	private final Map<String, CompletableFuture<File>> writtenFiles = new ConcurrentHashMap<>();
+	private final AtomicLong screenshots = new AtomicLong();
+	private final AtomicLong duplicates = new AtomicLong();
+	private final AtomicLong bytesWritten = new AtomicLong();
+	private final AtomicLong bytesSaved = new AtomicLong();
+
+	private ScreenshotStore(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @param directory directory of the store
+	 * @return store of the given directory
+	 */
+	public static ScreenshotStore forDirectory(File directory) {
+		return stores.computeIfAbsent(directory.getAbsoluteFile(), ScreenshotStore::new);
+	}
+
+	/**
+	 * @return store of the directory configured by {@link ListenerConfiguration#SCREENSHOT_DIR} or null
+	 *         if screenshots are written to temporary files
+	 */
+	public static ScreenshotStore getConfiguredInstance() {
+		File directory = ListenerConfiguration.getScreenshotDirectory();
+		return (directory == null) ? null : forDirectory(directory);
+	}
+
+	/**
+	 * @param png screenshot
+	 * @return file containing the screenshot, which might have been written for an earlier screenshot
+	 */
+	public File store(byte[] png) throws IOException {
+		String hash = PayloadStore.sha256(png);
+		File file = new File(new File(directory, hash.substring(0, 2)), hash + getExtension(png));
+		screenshots.incrementAndGet();
+		while (true) {
+			CompletableFuture<File> writtenFile = new CompletableFuture<>();
+			CompletableFuture<File> earlierFile = writtenFiles.putIfAbsent(hash, writtenFile);
+			if (earlierFile == null)
+				return write(hash, file, png, writtenFile);
+			try {
+				earlierFile.get();
+				duplicates.incrementAndGet();
+				bytesSaved.addAndGet(png.length);
+				return file;
+			} catch (ExecutionException e) {
+				// the other thread failed to write the file, so try again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for " + file + " to be written");
+			}
+		}
+	}
+
+	/**
+	 * Writes the file unless it exists, e.g. from an earlier test run, and completes the future once it is in place.
+	 */
+	private File write(String hash, File file, byte[] png, CompletableFuture<File> writtenFile) throws IOException {
+		try {
+			// the name is the hash of the content, so an existing file already has the same content
+			if (file.isFile()) {
+				duplicates.incrementAndGet();
+				bytesSaved.addAndGet(png.length);
+			} else {
+				Files.createDirectories(file.getParentFile().toPath());
+				File temporaryFile = File.createTempFile(hash, ".tmp", file.getParentFile());
+				Files.write(temporaryFile.toPath(), png);
+				Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				bytesWritten.addAndGet(png.length);
+			}
+		} catch (IOException | RuntimeException e) {
+			writtenFiles.remove(hash, writtenFile);
+			writtenFile.completeExceptionally(e);
+			throw e;
+		}
+		writtenFile.complete(file);
+		return file;
+	}
+
+	/**
+	 * Writes a screenshot to the given store or, if there is none, to a temporary file deleted when the JVM exits.
+	 * @param store screenshot store or null
+	 * @param png screenshot
+	 * @return file containing the screenshot
+	 */
+	static File write(ScreenshotStore store, byte[] png) throws IOException {
+		if (store != null)
+			return store.store(png);
+		File file = File.createTempFile("screenshot", getExtension(png));
+		file.deleteOnExit();
+		Files.write(file.toPath(), png);
+		return file;
+	}
+
+	/**
+	 * @return ".jpg" for JPEG images, otherwise ".png"
+	 */
+	static String getExtension(byte[] image) {
+		boolean isJpeg = image.length > 2 && image[0] == (byte) 0xff && image[1] == (byte) 0xd8;
+		return isJpeg ? ".jpg" : ".png";
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return number of screenshots stored, including duplicates
+	 */
+	public long getScreenshots() {
+		return screenshots.get();
+	}
+
+	/**
+	 * @return number of screenshots which referred to an existing file
+	 */
+	public long getDuplicates() {
+		return duplicates.get();
+	}
+
+	/**
+	 * @return share of the screenshots which referred to an existing file, between 0 and 1
+	 */
+	public double getDeduplicationRatio() {
+		long total = screenshots.get();
+		return (total == 0L) ? 0.0 : (double) duplicates.get() / total;
+	}
+
+	/**
+	 * @return number of bytes written to files
+	 */
+	public long getBytesWritten() {
+		return bytesWritten.get();
+	}
+
+	/**
+	 * @return number of bytes not written because the screenshots were duplicates
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.get();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d screenshots, %.1f%% duplicates, %d bytes saved", directory, screenshots.get(),
+				100.0 * getDeduplicationRatio(), bytesSaved.get());
+	}
+}
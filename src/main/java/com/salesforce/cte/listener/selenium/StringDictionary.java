@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+
+/**
+ * Maps strings recurring during a WebDriver session, e.g. locators, scripts and URLs, to one canonical
+ * instance and a small integer id, so events share their strings instead of each holding a copy.
+ *
+ * The dictionary is bounded: once it holds the maximum number of entries, further strings are returned
+ * as they are. Strings longer than {@link #MAX_LENGTH} are never added. Ids are assigned in the order
+ * strings are added, starting at 0, and are only valid within the session.
+ */
+public class StringDictionary {
+	public static final int MAX_LENGTH = 8192;
+	// commands whose param1 is a locator, script or URL
+	private static final Set<Cmd> RECURRING_PARAM1 = EnumSet.of(Cmd.findElement, Cmd.findElements, Cmd.get,
+			Cmd.executeScript, Cmd.executeAsyncScript, Cmd.frameByElement, Cmd.frameByName);
+	// commands whose return value is a locator or URL
+	private static final Set<Cmd> RECURRING_RETURN_VALUE = EnumSet.of(Cmd.findElement, Cmd.findElements,
+			Cmd.activeElement, Cmd.getCurrentUrl);
+
+	private final int maxSize;
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicReferenceArray<String> strings;
+	private final AtomicInteger nextId = new AtomicInteger();
+
+	/**
+	 * @param maxSize maximum number of strings kept
+	 */
+	public StringDictionary(int maxSize) {
+		this.maxSize = Math.max(0, maxSize);
+		this.strings = new AtomicReferenceArray<>(this.maxSize);
+	}
+
+	/**
+	 * @param value string to look up, may be null
+	 * @return canonical instance of the string or the string itself if it is not in the dictionary and cannot be added
+	 */
+	public String intern(String value) {
+		Entry entry = lookUp(value);
+		return (entry == null) ? value : entry.value;
+	}
+
+	/**
+	 * @param value string to look up, may be null
+	 * @return id of the string, which is added if needed, or -1 if it cannot be added
+	 */
+	public int getId(String value) {
+		Entry entry = lookUp(value);
+		return (entry == null) ? -1 : entry.id;
+	}
+
+	/**
+	 * @param id id returned by {@link #getId(String)}
+	 * @return string with the given id or null if there is no such id
+	 */
+	public String get(int id) {
+		return (id < 0 || id >= maxSize) ? null : strings.get(id);
+	}
+
+	/**
+	 * @return number of strings in the dictionary
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Element locators always recur, other values of an event only for some commands.
+	 * @return true if param1 of events of the command is a locator, script or URL
+	 */
+	static boolean isRecurringParam1(Cmd cmd) {
+		return RECURRING_PARAM1.contains(cmd);
+	}
+
+	/**
+	 * @return true if the return value of events of the command is a locator or URL
+	 */
+	static boolean isRecurringReturnValue(Cmd cmd) {
+		return RECURRING_RETURN_VALUE.contains(cmd);
+	}
+
+	private Entry lookUp(String value) {
+		if (value == null || value.length() > MAX_LENGTH)
+			return null;
+		Entry entry = entries.get(value);
+		if (entry != null || nextId.get() >= maxSize)
+			return entry;
+		return entries.computeIfAbsent(value, v -> {
+			int id = nextId.getAndIncrement();
+			if (id >= maxSize)
+				return null;
+			strings.set(id, v);
+			return new Entry(v, id);
+		});
+	}
+
+	private static class Entry {
+		private final String value;
+		private final int id;
+
+		Entry(String value, int id) {
+			this.value = value;
+			this.id = id;
+		}
+	}
+}
@@ -6,10 +6,14 @@
  */
 package com.salesforce.cte.listener.selenium;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import com.salesforce.cte.common.TestEvent;
 import com.salesforce.cte.common.TestEventType;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
 
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -17,12 +21,26 @@ import org.openqa.selenium.devtools.v85.console.model.ConsoleMessage.Level;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 public class TestStepListener extends AbstractEventListener {
+	private static final Set<Cmd> SUBSCRIBED_COMMANDS = EnumSet.of(Cmd.close, Cmd.get, Cmd.executeScript, Cmd.back,
+			Cmd.forward, Cmd.clickByElement, Cmd.clear, Cmd.sendKeysByElement, Cmd.submit, Cmd.dismiss, Cmd.accept,
+			Cmd.sendKeysByAlert);
+
     protected RemoteWebDriver rwd;
 
 	@Override
 	public void setWebDriver(WebDriver driver) {
 		this.rwd = (RemoteWebDriver) driver;
 	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return type == Type.BeforeAction && SUBSCRIBED_COMMANDS.contains(cmd);
+	}
+
+	@Override
+	public int getPriority() {
+		return 400;
+	}
     
     /*--------------------------------------------------------------------
 	 * Section for all commands called directly from WebDriver object.
@@ -110,8 +128,8 @@ public class TestStepListener extends AbstractEventListener {
 	}
 
     private void captureTestStep(WebDriverEvent event){
-        logEntries.add(event);
-        TestEvent testEvent = new TestEvent(TestEventType.URL, rwd.getCurrentUrl(), Level.INFO.toString().toUpperCase());
+        record(event);
+        TestEvent testEvent = new TestEvent(TestEventType.URL, DispatchedEvent.readCurrentUrl(event, rwd), Level.INFO.toString().toUpperCase());
         testEvent.setSeleniumCmd(event.getCmd().getLongCmdString());
         testEvent.setSeleniumLocator(event.getElementLocator());
         administrator.getTestCaseExecution().appendEvent(testEvent);
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.listener.selenium;
+
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.v96.network.Network;
+import org.openqa.selenium.devtools.v96.network.model.Headers;
+import org.openqa.selenium.remote.Augmenter;
+
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Adds the trace id of the current test case as HTTP header to all requests sent by the browser
+ * after navigating to a new URL.
+ *
+ * The headers have to be in place before the page is requested, so this listener is always
+ * called synchronously.
+ */
+public class TraceIdListener extends AbstractEventListener {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+
+	private WebDriver driver;
+
+	@Override
+	public void setWebDriver(WebDriver driver){
+		this.driver = driver;
+	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return cmd == Cmd.get && type == Type.BeforeAction;
+	}
+
+	@Override
+	public int getPriority() {
+		return 200;
+	}
+
+	@Override
+	public void beforeGet(WebDriverEvent event, String url) {
+		setTraceId();
+	}
+
+	private void setTraceId(){
+		driver = new Augmenter().augment(driver);
+		if (driver instanceof HasDevTools){
+			DevTools devTools = ((HasDevTools) driver).getDevTools();
+			devTools.createSession();
+			devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+			HashMap<String, Object> headers = new HashMap<>();
+			String traceID = administrator.getTestCaseExecution().generateTraceId();
+			LOGGER.log(Level.INFO, "Set trace id as {0}", traceID);
+			headers.put("x-b3-traceid", traceID);
+			headers.put("x-b3-spanid", traceID);
+			headers.put("x-b3-sampled", "1");
+			devTools.send(Network.setExtraHTTPHeaders(new Headers(headers)));
+		}
+	}
+}
@@ -7,12 +7,29 @@
 
 package com.salesforce.cte.listener.selenium;
 
+import java.io.File;
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Pdf;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.interactions.Coordinates;
+import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.print.PrintOptions;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -31,117 +48,337 @@ import com.fasterxml.jackson.annotation.JsonProperty.Access;
  */
 public class WebDriverEvent {
 	public enum Type { BeforeAction, AfterAction, BeforeGather, AfterGather, Exception }
+	/** Actions change the state of the browser, gather commands only read it */
+	public enum Kind { Action, Gather }
 	public enum WebDriverInterface { WebDriver, JavascriptExecutor, Options, ImeHandler, Navigation, TargetLocator, Timeouts, Window, Alert, WebElement, Keyboard, Mouse, TakesScreenshot, RemoteWebDriver }
+	/** Typed listener method of a command, called with the arguments held by a {@link DispatchedEvent} */
+	@FunctionalInterface
+	interface Callback {
+		void call(IEventListener listener, DispatchedEvent event);
+	}
+
+	/**
+	 * Commands of the WebDriver interfaces. Besides the names and kind of a command, each entry holds the
+	 * listener callbacks which {@link DispatchedEvent#replay(IEventListener)} calls for the events of the command,
+	 * so a new command cannot be added without them.
+	 */
+	@SuppressWarnings("unchecked")
 	public enum Cmd {
 		// commands called directly from WebDriver object
-		close(WebDriverInterface.WebDriver, "close"),
-		findElement(WebDriverInterface.WebDriver, "findElement"),
-		findElements(WebDriverInterface.WebDriver, "findElements"),
-		get(WebDriverInterface.WebDriver, "get"),
-		getCurrentUrl(WebDriverInterface.WebDriver, "getCurrentUrl"),
-		getPageSource(WebDriverInterface.WebDriver, "getPageSource"),
-		getTitle(WebDriverInterface.WebDriver, "getTitle"),
-		getWindowHandle(WebDriverInterface.WebDriver, "getWindowHandle"),
-		getWindowHandles(WebDriverInterface.WebDriver, "getWindowHandles"),
-		quit(WebDriverInterface.WebDriver, "quit"),
+		close(WebDriverInterface.WebDriver, "close", Kind.Action,
+				(l, e) -> l.beforeClose(e),
+				(l, e) -> l.afterClose(e)),
+		findElement(WebDriverInterface.WebDriver, "findElement", Kind.Gather,
+				(l, e) -> l.beforeFindElement(e, (By) e.getArgument1()),
+				(l, e) -> l.afterFindElement(e, (WebElement) e.getArgument1(), (By) e.getArgument2())),
+		findElements(WebDriverInterface.WebDriver, "findElements", Kind.Gather,
+				(l, e) -> l.beforeFindElements(e, (By) e.getArgument1()),
+				(l, e) -> l.afterFindElements(e, (List<WebElement>) e.getArgument1(), (By) e.getArgument2())),
+		get(WebDriverInterface.WebDriver, "get", Kind.Action,
+				(l, e) -> l.beforeGet(e, (String) e.getArgument1()),
+				(l, e) -> l.afterGet(e, (String) e.getArgument1())),
+		getCurrentUrl(WebDriverInterface.WebDriver, "getCurrentUrl", Kind.Gather,
+				(l, e) -> l.beforeGetCurrentUrl(e),
+				(l, e) -> l.afterGetCurrentUrl(e, (String) e.getArgument1())),
+		getPageSource(WebDriverInterface.WebDriver, "getPageSource", Kind.Gather,
+				(l, e) -> l.beforeGetPageSource(e),
+				(l, e) -> l.afterGetPageSource(e, (String) e.getArgument1())),
+		getTitle(WebDriverInterface.WebDriver, "getTitle", Kind.Gather,
+				(l, e) -> l.beforeGetTitle(e),
+				(l, e) -> l.afterGetTitle(e, (String) e.getArgument1())),
+		getWindowHandle(WebDriverInterface.WebDriver, "getWindowHandle", Kind.Gather,
+				(l, e) -> l.beforeGetWindowHandle(e),
+				(l, e) -> l.afterGetWindowHandle(e, (String) e.getArgument1())),
+		getWindowHandles(WebDriverInterface.WebDriver, "getWindowHandles", Kind.Gather,
+				(l, e) -> l.beforeGetWindowHandles(e),
+				(l, e) -> l.afterGetWindowHandles(e, (Set<String>) e.getArgument1())),
+		quit(WebDriverInterface.WebDriver, "quit", Kind.Action,
+				(l, e) -> l.beforeQuit(e),
+				(l, e) -> l.afterQuit(e)),
 		// commands called directly from RemoteWebDriver object
-		perform(WebDriverInterface.RemoteWebDriver, "perform"),
-		print(WebDriverInterface.RemoteWebDriver, "print"),
-		resetInputState(WebDriverInterface.RemoteWebDriver, "resetInputState"),
+		perform(WebDriverInterface.RemoteWebDriver, "perform", Kind.Action,
+				(l, e) -> l.beforeActions(e, (Collection<Sequence>) e.getArgument1()),
+				(l, e) -> l.afterActions(e, (Collection<Sequence>) e.getArgument1())),
+		print(WebDriverInterface.RemoteWebDriver, "print", Kind.Action,
+				(l, e) -> l.beforePrint(e, (PrintOptions) e.getArgument1()),
+				(l, e) -> l.afterPrint(e, (PrintOptions) e.getArgument1(), (Pdf) e.getArgument2())),
+		resetInputState(WebDriverInterface.RemoteWebDriver, "resetInputState", Kind.Action,
+				(l, e) -> l.beforeResetInputState(e),
+				(l, e) -> l.afterResetInputState(e)),
 		// commands called directly from WebDriver object after casting to JavascriptExecutor
-		executeAsyncScript(WebDriverInterface.JavascriptExecutor, "executeAsyncScript"),
-		executeScript(WebDriverInterface.JavascriptExecutor, "executeScript"),
+		executeAsyncScript(WebDriverInterface.JavascriptExecutor, "executeAsyncScript", Kind.Action,
+				(l, e) -> l.beforeExecuteAsyncScript(e, (String) e.getArgument1(), (List<Object>) e.getArgument2()),
+				(l, e) -> l.afterExecuteAsyncScript(e, (String) e.getArgument1(), (List<Object>) e.getArgument2(), e.getArgument3())),
+		executeScript(WebDriverInterface.JavascriptExecutor, "executeScript", Kind.Action,
+				(l, e) -> l.beforeExecuteScript(e, (String) e.getArgument1(), (List<Object>) e.getArgument2()),
+				(l, e) -> l.afterExecuteScript(e, (String) e.getArgument1(), (List<Object>) e.getArgument2(), e.getArgument3())),
 		// commands called directly from WebDriver object after casting to TakesScreenshot
-		getScreenshotAs(WebDriverInterface.TakesScreenshot, "getScreenshotAs"),
+		getScreenshotAs(WebDriverInterface.TakesScreenshot, "getScreenshotAs", Kind.Gather,
+				(l, e) -> l.beforeGetScreenshotAs(e, (OutputType<Object>) e.getArgument1()),
+				(l, e) -> l.afterGetScreenshotAs(e, (OutputType<Object>) e.getArgument1(), e.getArgument2())),
 		// commands called directly from WebDriver.Options object
-		addCookie(WebDriverInterface.Options, "addCookie"),
-		deleteCookieNamed(WebDriverInterface.Options, "deleteCookieNamed"),
-		deleteCookie(WebDriverInterface.Options, "deleteCookie"),
-		deleteAllCookies(WebDriverInterface.Options, "deleteAllCookies"),
-		getCookies(WebDriverInterface.Options, "getCookies"),
-		getCookieNamed(WebDriverInterface.Options, "getCookieNamed"),
+		addCookie(WebDriverInterface.Options, "addCookie", Kind.Action,
+				(l, e) -> l.beforeAddCookie(e, (Cookie) e.getArgument1()),
+				(l, e) -> l.afterAddCookie(e, (Cookie) e.getArgument1())),
+		deleteCookieNamed(WebDriverInterface.Options, "deleteCookieNamed", Kind.Action,
+				(l, e) -> l.beforeDeleteCookieNamed(e, (String) e.getArgument1()),
+				(l, e) -> l.afterDeleteCookieNamed(e, (String) e.getArgument1())),
+		deleteCookie(WebDriverInterface.Options, "deleteCookie", Kind.Action,
+				(l, e) -> l.beforeDeleteCookie(e, (Cookie) e.getArgument1()),
+				(l, e) -> l.afterDeleteCookie(e, (Cookie) e.getArgument1())),
+		deleteAllCookies(WebDriverInterface.Options, "deleteAllCookies", Kind.Action,
+				(l, e) -> l.beforeDeleteAllCookies(e),
+				(l, e) -> l.afterDeleteAllCookies(e)),
+		getCookies(WebDriverInterface.Options, "getCookies", Kind.Action,
+				(l, e) -> l.beforeGetCookies(e),
+				(l, e) -> l.afterGetCookies(e, (Set<Cookie>) e.getArgument1())),
+		getCookieNamed(WebDriverInterface.Options, "getCookieNamed", Kind.Action,
+				(l, e) -> l.beforeGetCookieNamed(e, (String) e.getArgument1()),
+				(l, e) -> l.afterGetCookieNamed(e, (String) e.getArgument1(), (Cookie) e.getArgument2())),
 		// commands called directly from WebDriver.ImeHandler object
-		getAvailableEngines(WebDriverInterface.ImeHandler, "getAvailableEngines"),
-		getActiveEngine(WebDriverInterface.ImeHandler, "getActiveEngine"),
-		isActivated(WebDriverInterface.ImeHandler, "isActivated"),
-		deactivate(WebDriverInterface.ImeHandler, "deactivate"),
-		activateEngine(WebDriverInterface.ImeHandler, "activateEngine"),
+		getAvailableEngines(WebDriverInterface.ImeHandler, "getAvailableEngines", Kind.Gather,
+				(l, e) -> l.beforeGetAvailableEngines(e),
+				(l, e) -> l.afterGetAvailableEngines(e, (List<String>) e.getArgument1())),
+		getActiveEngine(WebDriverInterface.ImeHandler, "getActiveEngine", Kind.Gather,
+				(l, e) -> l.beforeGetActiveEngine(e),
+				(l, e) -> l.afterGetActiveEngine(e, (String) e.getArgument1())),
+		isActivated(WebDriverInterface.ImeHandler, "isActivated", Kind.Gather,
+				(l, e) -> l.beforeIsActivated(e),
+				(l, e) -> l.afterIsActivated(e, (Boolean) e.getArgument1())),
+		deactivate(WebDriverInterface.ImeHandler, "deactivate", Kind.Action,
+				(l, e) -> l.beforeDeactivate(e),
+				(l, e) -> l.afterDeactivate(e)),
+		activateEngine(WebDriverInterface.ImeHandler, "activateEngine", Kind.Action,
+				(l, e) -> l.beforeActivateEngine(e, (String) e.getArgument1()),
+				(l, e) -> l.afterActivateEngine(e, (String) e.getArgument1())),
 		// commands called directly from WebDriver.Timeouts object
-		implicitlyWait(WebDriverInterface.Timeouts, "implicitlyWait"),
-		getImplicitWaitTimeout(WebDriverInterface.Timeouts, "getImplicitWaitTimeout"),
-		pageLoadTimeout(WebDriverInterface.Timeouts, "pageLoadTimeout"),
-		getPageLoadTimeout(WebDriverInterface.Timeouts, "getPageLoadTimeout"),
-		setScriptTimeout(WebDriverInterface.Timeouts, "setScriptTimeout"),
-		getScriptTimeout(WebDriverInterface.Timeouts, "getScriptTimeout"),
+		implicitlyWait(WebDriverInterface.Timeouts, "implicitlyWait", Kind.Action,
+				(l, e) -> l.beforeImplicitlyWait(e, (Duration) e.getArgument1()),
+				(l, e) -> l.afterImplicitlyWait(e, (Duration) e.getArgument1())),
+		getImplicitWaitTimeout(WebDriverInterface.Timeouts, "getImplicitWaitTimeout", Kind.Gather,
+				(l, e) -> l.beforeGetImplicitWaitTimeout(e),
+				(l, e) -> l.afterGetImplicitWaitTimeout(e, (Duration) e.getArgument1())),
+		pageLoadTimeout(WebDriverInterface.Timeouts, "pageLoadTimeout", Kind.Action,
+				(l, e) -> l.beforePageLoadTimeout(e, (Duration) e.getArgument1()),
+				(l, e) -> l.afterPageLoadTimeout(e, (Duration) e.getArgument1())),
+		getPageLoadTimeout(WebDriverInterface.Timeouts, "getPageLoadTimeout", Kind.Gather,
+				(l, e) -> l.beforeGetPageLoadTimeout(e),
+				(l, e) -> l.afterGetPageLoadTimeout(e, (Duration) e.getArgument1())),
+		setScriptTimeout(WebDriverInterface.Timeouts, "setScriptTimeout", Kind.Action,
+				(l, e) -> l.beforeSetScriptTimeout(e, (Duration) e.getArgument1()),
+				(l, e) -> l.afterSetScriptTimeout(e, (Duration) e.getArgument1())),
+		getScriptTimeout(WebDriverInterface.Timeouts, "getScriptTimeout", Kind.Gather,
+				(l, e) -> l.beforeGetScriptTimeout(e),
+				(l, e) -> l.afterGetScriptTimeout(e, (Duration) e.getArgument1())),
 		// commands called directly from WebDriver.Navigation object
-		back(WebDriverInterface.Navigation, "back"),
-		forward(WebDriverInterface.Navigation, "forward"),
-		refresh(WebDriverInterface.Navigation, "refresh"),
+		back(WebDriverInterface.Navigation, "back", Kind.Action,
+				(l, e) -> l.beforeBack(e),
+				(l, e) -> l.afterBack(e)),
+		forward(WebDriverInterface.Navigation, "forward", Kind.Action,
+				(l, e) -> l.beforeForward(e),
+				(l, e) -> l.afterForward(e)),
+		refresh(WebDriverInterface.Navigation, "refresh", Kind.Action,
+				(l, e) -> l.beforeRefresh(e),
+				(l, e) -> l.afterRefresh(e)),
 		// commands called directly from WebDriver.TargetLocator object
-		activeElement(WebDriverInterface.TargetLocator, "activeElement"),
-		defaultContent(WebDriverInterface.TargetLocator, "defaultContent"),
-		frameByIndex(WebDriverInterface.TargetLocator, "frame"),
-		frameByName(WebDriverInterface.TargetLocator, "frame"),
-		frameByElement(WebDriverInterface.TargetLocator, "frame"),
-		parentFrame(WebDriverInterface.TargetLocator, "parentFrame"),
-		window(WebDriverInterface.TargetLocator, "window"),
-		newWindow(WebDriverInterface.TargetLocator, "newWindow"),
+		activeElement(WebDriverInterface.TargetLocator, "activeElement", Kind.Action,
+				(l, e) -> l.beforeActiveElement(e),
+				(l, e) -> l.afterActiveElement(e, (WebElement) e.getArgument1())),
+		defaultContent(WebDriverInterface.TargetLocator, "defaultContent", Kind.Action,
+				(l, e) -> l.beforeDefaultContent(e),
+				(l, e) -> l.afterDefaultContent(e)),
+		frameByIndex(WebDriverInterface.TargetLocator, "frame", Kind.Action,
+				(l, e) -> l.beforeFrameByIndex(e, (Integer) e.getArgument1()),
+				(l, e) -> l.afterFrameByIndex(e, (Integer) e.getArgument1())),
+		frameByName(WebDriverInterface.TargetLocator, "frame", Kind.Action,
+				(l, e) -> l.beforeFrameByName(e, (String) e.getArgument1()),
+				(l, e) -> l.afterFrameByName(e, (String) e.getArgument1())),
+		frameByElement(WebDriverInterface.TargetLocator, "frame", Kind.Action,
+				(l, e) -> l.beforeFrameByElement(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterFrameByElement(e, (WebElement) e.getArgument1())),
+		parentFrame(WebDriverInterface.TargetLocator, "parentFrame", Kind.Action,
+				(l, e) -> l.beforeParentFrame(e),
+				(l, e) -> l.afterParentFrame(e)),
+		window(WebDriverInterface.TargetLocator, "window", Kind.Action,
+				(l, e) -> l.beforeWindow(e, (String) e.getArgument1()),
+				(l, e) -> l.afterWindow(e, (String) e.getArgument1())),
+		newWindow(WebDriverInterface.TargetLocator, "newWindow", Kind.Action,
+				(l, e) -> l.beforeNewWindow(e, (WindowType) e.getArgument1()),
+				(l, e) -> l.afterNewWindow(e, (WindowType) e.getArgument1())),
 		// commands called directly from WebDriver.Window object
-		fullscreen(WebDriverInterface.Window, "fullscreen"),
-		getPosition(WebDriverInterface.Window, "getPosition"),
-		getSizeByWindow(WebDriverInterface.Window, "getSize"),
-		maximize(WebDriverInterface.Window, "maximize"),
-		minimize(WebDriverInterface.Window, "minimize"),
-		setPosition(WebDriverInterface.Window, "setPosition"),
-		setSizeByWindow(WebDriverInterface.Window, "setSize"),
+		fullscreen(WebDriverInterface.Window, "fullscreen", Kind.Action,
+				(l, e) -> l.beforeFullscreen(e),
+				(l, e) -> l.afterFullscreen(e)),
+		getPosition(WebDriverInterface.Window, "getPosition", Kind.Gather,
+				(l, e) -> l.beforeGetPosition(e),
+				(l, e) -> l.afterGetPosition(e, (Point) e.getArgument1())),
+		getSizeByWindow(WebDriverInterface.Window, "getSize", Kind.Gather,
+				(l, e) -> l.beforeGetSizeByWindow(e),
+				(l, e) -> l.afterGetSizeByWindow(e, (Dimension) e.getArgument1())),
+		maximize(WebDriverInterface.Window, "maximize", Kind.Action,
+				(l, e) -> l.beforeMaximize(e),
+				(l, e) -> l.afterMaximize(e)),
+		minimize(WebDriverInterface.Window, "minimize", Kind.Action,
+				(l, e) -> l.beforeMinimize(e),
+				(l, e) -> l.afterMinimize(e)),
+		setPosition(WebDriverInterface.Window, "setPosition", Kind.Action,
+				(l, e) -> l.beforeSetPosition(e, (Point) e.getArgument1()),
+				(l, e) -> l.afterSetPosition(e, (Point) e.getArgument1())),
+		setSizeByWindow(WebDriverInterface.Window, "setSize", Kind.Action,
+				(l, e) -> l.beforeSetSizeByWindow(e, (Dimension) e.getArgument1()),
+				(l, e) -> l.afterSetSizeByWindow(e, (Dimension) e.getArgument1())),
 		// commands called directly from Alert object
-		dismiss(WebDriverInterface.Window, "dismiss"),
-		accept(WebDriverInterface.Window, "accept"),
-		getTextByAlert(WebDriverInterface.Window, "getText"),
-		sendKeysByAlert(WebDriverInterface.Window, "sendKeys"),
+		dismiss(WebDriverInterface.Alert, "dismiss", Kind.Action,
+				(l, e) -> l.beforeDismiss(e),
+				(l, e) -> l.afterDismiss(e)),
+		accept(WebDriverInterface.Alert, "accept", Kind.Action,
+				(l, e) -> l.beforeAccept(e),
+				(l, e) -> l.afterAccept(e)),
+		getTextByAlert(WebDriverInterface.Alert, "getText", Kind.Gather,
+				(l, e) -> l.beforeGetTextByAlert(e),
+				(l, e) -> l.afterGetTextByAlert(e, (String) e.getArgument1())),
+		sendKeysByAlert(WebDriverInterface.Alert, "sendKeys", Kind.Action,
+				(l, e) -> l.beforeSendKeysByAlert(e, (String) e.getArgument1()),
+				(l, e) -> l.afterSendKeysByAlert(e, (String) e.getArgument1())),
 		// commands called directly from WebElement object
-		clickByElement(WebDriverInterface.WebElement, "click"),
-		clear(WebDriverInterface.WebElement, "clear"),
-		getAttribute(WebDriverInterface.WebElement, "getAttribute"),
-		getCoordinates(WebDriverInterface.WebElement, "getCoordinates"),
-		getCssValue(WebDriverInterface.WebElement, "getCssValue"),
-		getScreenshotAsByElement(WebDriverInterface.WebElement, "getScreenshotAs"),
-		getTagName(WebDriverInterface.WebElement, "getTagName"),
-		getDomProperty(WebDriverInterface.WebElement, "getDomProperty"),
-		getDomAttribute(WebDriverInterface.WebElement, "getDomAttribute"),
-		getAriaRole(WebDriverInterface.WebElement, "getAriaRole"),
-		getAccessibleName(WebDriverInterface.WebElement, "getAccessibleName"),
-		getText(WebDriverInterface.WebElement, "getText"),
-		isDisplayed(WebDriverInterface.WebElement, "isDisplayed"),
-		isEnabled(WebDriverInterface.WebElement, "isEnabled"),
-		isSelected(WebDriverInterface.WebElement, "isSelected"),
-		getLocation(WebDriverInterface.WebElement, "getLocation"),
-		getSizeByElement(WebDriverInterface.WebElement, "getSize"),
-		getRect(WebDriverInterface.WebElement, "getRect"),
-		sendKeysByElement(WebDriverInterface.WebElement, "sendKeys"),
-		uploadFile(WebDriverInterface.WebElement, "sendKeys"),
-		submit(WebDriverInterface.WebElement, "submit"),
-		getShadowRoot(WebDriverInterface.WebElement, "getShadowRoot"),
+		clickByElement(WebDriverInterface.WebElement, "click", Kind.Action,
+				(l, e) -> l.beforeClick(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterClick(e, (WebElement) e.getArgument1())),
+		clear(WebDriverInterface.WebElement, "clear", Kind.Action,
+				(l, e) -> l.beforeClear(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterClear(e, (WebElement) e.getArgument1())),
+		getAttribute(WebDriverInterface.WebElement, "getAttribute", Kind.Gather,
+				(l, e) -> l.beforeGetAttribute(e, (String) e.getArgument1(), (WebElement) e.getArgument2()),
+				(l, e) -> l.afterGetAttribute(e, (String) e.getArgument1(), (String) e.getArgument2(), (WebElement) e.getArgument3())),
+		getCoordinates(WebDriverInterface.WebElement, "getCoordinates", Kind.Gather,
+				(l, e) -> l.beforeGetCoordinates(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetCoordinates(e, (Coordinates) e.getArgument1(), (WebElement) e.getArgument2())),
+		getCssValue(WebDriverInterface.WebElement, "getCssValue", Kind.Gather,
+				(l, e) -> l.beforeGetCssValue(e, (String) e.getArgument1(), (WebElement) e.getArgument2()),
+				(l, e) -> l.afterGetCssValue(e, (String) e.getArgument1(), (String) e.getArgument2(), (WebElement) e.getArgument3())),
+		getScreenshotAsByElement(WebDriverInterface.WebElement, "getScreenshotAs", Kind.Gather,
+				(l, e) -> l.beforeGetScreenshotAsByElement(e, (OutputType<Object>) e.getArgument1(), (WebElement) e.getArgument2()),
+				(l, e) -> l.afterGetScreenshotAsByElement(e, (OutputType<Object>) e.getArgument1(), e.getArgument2(), (WebElement) e.getArgument3())),
+		getTagName(WebDriverInterface.WebElement, "getTagName", Kind.Gather,
+				(l, e) -> l.beforeGetTagName(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetTagName(e, (String) e.getArgument1(), (WebElement) e.getArgument2())),
+		getDomProperty(WebDriverInterface.WebElement, "getDomProperty", Kind.Gather,
+				(l, e) -> l.beforeGetDomProperty(e, (String) e.getArgument1(), (WebElement) e.getArgument2()),
+				(l, e) -> l.afterGetDomProperty(e, (String) e.getArgument1(), (String) e.getArgument2(), (WebElement) e.getArgument3())),
+		getDomAttribute(WebDriverInterface.WebElement, "getDomAttribute", Kind.Gather,
+				(l, e) -> l.beforeGetDomAttribute(e, (String) e.getArgument1(), (WebElement) e.getArgument2()),
+				(l, e) -> l.afterGetDomAttribute(e, (String) e.getArgument1(), (String) e.getArgument2(), (WebElement) e.getArgument3())),
+		getAriaRole(WebDriverInterface.WebElement, "getAriaRole", Kind.Gather,
+				(l, e) -> l.beforeGetAriaRole(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetAriaRole(e, (String) e.getArgument1(), (WebElement) e.getArgument2())),
+		getAccessibleName(WebDriverInterface.WebElement, "getAccessibleName", Kind.Gather,
+				(l, e) -> l.beforeGetAccessibleName(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetAccessibleName(e, (String) e.getArgument1(), (WebElement) e.getArgument2())),
+		getText(WebDriverInterface.WebElement, "getText", Kind.Gather,
+				(l, e) -> l.beforeGetText(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetText(e, (String) e.getArgument1(), (WebElement) e.getArgument2())),
+		isDisplayed(WebDriverInterface.WebElement, "isDisplayed", Kind.Gather,
+				(l, e) -> l.beforeIsDisplayed(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterIsDisplayed(e, (Boolean) e.getArgument1(), (WebElement) e.getArgument2())),
+		isEnabled(WebDriverInterface.WebElement, "isEnabled", Kind.Gather,
+				(l, e) -> l.beforeIsEnabled(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterIsEnabled(e, (Boolean) e.getArgument1(), (WebElement) e.getArgument2())),
+		isSelected(WebDriverInterface.WebElement, "isSelected", Kind.Gather,
+				(l, e) -> l.beforeIsSelected(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterIsSelected(e, (Boolean) e.getArgument1(), (WebElement) e.getArgument2())),
+		getLocation(WebDriverInterface.WebElement, "getLocation", Kind.Gather,
+				(l, e) -> l.beforeGetLocation(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetLocation(e, (Point) e.getArgument1(), (WebElement) e.getArgument2())),
+		getSizeByElement(WebDriverInterface.WebElement, "getSize", Kind.Gather,
+				(l, e) -> l.beforeGetSizeByElement(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetSizeByElement(e, (Dimension) e.getArgument1(), (WebElement) e.getArgument2())),
+		getRect(WebDriverInterface.WebElement, "getRect", Kind.Gather,
+				(l, e) -> l.beforeGetRect(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetRect(e, (Rectangle) e.getArgument1(), (WebElement) e.getArgument2())),
+		sendKeysByElement(WebDriverInterface.WebElement, "sendKeys", Kind.Action,
+				(l, e) -> l.beforeSendKeysByElement(e, (WebElement) e.getArgument1(), (CharSequence[]) e.getArgument2()),
+				(l, e) -> l.afterSendKeysByElement(e, (WebElement) e.getArgument1(), (CharSequence[]) e.getArgument2())),
+		uploadFile(WebDriverInterface.WebElement, "sendKeys", Kind.Action,
+				(l, e) -> l.beforeUploadFile(e, (WebElement) e.getArgument1(), (File) e.getArgument2()),
+				(l, e) -> l.afterUploadFile(e, (WebElement) e.getArgument1(), (File) e.getArgument2(), (String) e.getArgument3())),
+		submit(WebDriverInterface.WebElement, "submit", Kind.Action,
+				(l, e) -> l.beforeSubmit(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterSubmit(e, (WebElement) e.getArgument1())),
+		getShadowRoot(WebDriverInterface.WebElement, "getShadowRoot", Kind.Gather,
+				(l, e) -> l.beforeGetShadowRoot(e, (WebElement) e.getArgument1()),
+				(l, e) -> l.afterGetShadowRoot(e, (WebElement) e.getArgument1())),
 		// commands called directly from Keyboard object
-		sendKeysByKeyboard(WebDriverInterface.Keyboard, "sendKeys"),
-		pressKey(WebDriverInterface.Keyboard, "pressKey"),
-		releaseKey(WebDriverInterface.Keyboard, "releaseKey"),
+		sendKeysByKeyboard(WebDriverInterface.Keyboard, "sendKeys", Kind.Action,
+				(l, e) -> l.beforeSendKeysByKeyboard(e, (CharSequence[]) e.getArgument1()),
+				(l, e) -> l.afterSendKeysByKeyboard(e, (CharSequence[]) e.getArgument1())),
+		pressKey(WebDriverInterface.Keyboard, "pressKey", Kind.Action,
+				(l, e) -> l.beforePressKey(e, (CharSequence[]) e.getArgument1()),
+				(l, e) -> l.afterPressKey(e, (CharSequence[]) e.getArgument1())),
+		releaseKey(WebDriverInterface.Keyboard, "releaseKey", Kind.Action,
+				(l, e) -> l.beforeReleaseKey(e, (CharSequence[]) e.getArgument1()),
+				(l, e) -> l.afterReleaseKey(e, (CharSequence[]) e.getArgument1())),
 		// commands called directly from Mouse object
-		clickByMouse(WebDriverInterface.Mouse, "click"),
-		doubleClick(WebDriverInterface.Mouse, "doubleClick"),
-		mouseDown(WebDriverInterface.Mouse, "mouseDown"),
-		mouseUp(WebDriverInterface.Mouse, "mouseUp"),
-		mouseMove(WebDriverInterface.Mouse, "mouseMove"),
-		mouseMoveWithOffset(WebDriverInterface.Mouse, "mouseMove"),
-		contextClick(WebDriverInterface.Mouse, "contextClick");
-
-		Cmd(WebDriverInterface wdIf, String shortCmdString) {
+		clickByMouse(WebDriverInterface.Mouse, "click", Kind.Action,
+				(l, e) -> l.beforeClickByMouse(e, (Coordinates) e.getArgument1()),
+				(l, e) -> l.afterClickByMouse(e, (Coordinates) e.getArgument1())),
+		doubleClick(WebDriverInterface.Mouse, "doubleClick", Kind.Action,
+				(l, e) -> l.beforeDoubleClick(e, (Coordinates) e.getArgument1()),
+				(l, e) -> l.afterDoubleClick(e, (Coordinates) e.getArgument1())),
+		mouseDown(WebDriverInterface.Mouse, "mouseDown", Kind.Action,
+				(l, e) -> l.beforeMouseDown(e, (Coordinates) e.getArgument1()),
+				(l, e) -> l.afterMouseDown(e, (Coordinates) e.getArgument1())),
+		mouseUp(WebDriverInterface.Mouse, "mouseUp", Kind.Action,
+				(l, e) -> l.beforeMouseUp(e, (Coordinates) e.getArgument1()),
+				(l, e) -> l.afterMouseUp(e, (Coordinates) e.getArgument1())),
+		mouseMove(WebDriverInterface.Mouse, "mouseMove", Kind.Action,
+				(l, e) -> l.beforeMouseMove(e, (Coordinates) e.getArgument1()),
+				(l, e) -> l.afterMouseMove(e, (Coordinates) e.getArgument1())),
+		mouseMoveWithOffset(WebDriverInterface.Mouse, "mouseMove", Kind.Action,
+				(l, e) -> l.beforeMouseMove(e, (Coordinates) e.getArgument1(), e.getLongArgument1(), e.getLongArgument2()),
+				(l, e) -> l.afterMouseMove(e, (Coordinates) e.getArgument1(), e.getLongArgument1(), e.getLongArgument2())),
+		contextClick(WebDriverInterface.Mouse, "contextClick", Kind.Action,
+				(l, e) -> l.beforeContextClick(e, (Coordinates) e.getArgument1()),
+				(l, e) -> l.afterContextClick(e, (Coordinates) e.getArgument1()));
+
+		Cmd(WebDriverInterface wdIf, String shortCmdString, Kind kind, Callback before, Callback after) {
 			this.wdIf = wdIf;
 			this.shortCmdString = shortCmdString;
+			this.kind = kind;
+			this.before = before;
+			this.after = after;
 		}
 
 		private final WebDriverInterface wdIf;
 		private final String shortCmdString;
+		private final Kind kind;
+		private final Callback before;
+		private final Callback after;
+
+		/**
+		 * Calls the listener method of this command with the arguments held by the given event.
+		 * @param isBefore true for the event created before the command is executed
+		 */
+		void replay(IEventListener listener, DispatchedEvent event, boolean isBefore) {
+			(isBefore ? before : after).call(listener, event);
+		}
+
+		public Kind getKind() {
+			return this.kind;
+		}
+
+		/**
+		 * @return type of the event created before the command is executed
+		 */
+		public Type getBeforeType() {
+			return (this.kind == Kind.Action) ? Type.BeforeAction : Type.BeforeGather;
+		}
+
+		/**
+		 * @return type of the event created after the command has been executed
+		 */
+		public Type getAfterType() {
+			return (this.kind == Kind.Action) ? Type.AfterAction : Type.AfterGather;
+		}
 
 		public String getShortCmdString() {
 			return this.shortCmdString;
@@ -205,13 +442,24 @@ public class WebDriverEvent {
 		}
 	}
 
-	private static long timeMarkerElapsedAction;
-	private static long timeMarkerSinceLastEvent;
-	private static int lastRecordNumber = 1;
+	/**
+	 * Time markers used to compute the durations stored in each event. Every
+	 * WebDriver session owns its own instance so that events of sessions running
+	 * in parallel do not skew each other's timings.
+	 */
+	static final class TimeMarkers {
+		private volatile long elapsedAction;
+		private volatile long sinceLastEvent;
+	}
+
+	private static final TimeMarkers DEFAULT_TIME_MARKERS = new TimeMarkers();
+	private static final AtomicInteger lastRecordNumber = new AtomicInteger(1);
 
 	private int recordNumber = -1;
 	private int eventNumber = -1;
 	private long timeStamp = -1L; // System.currentTimeMillis()
+	@JsonIgnore
+	private long nanoTime = 0L; // System.nanoTime(), only meaningful as difference between events
 	private long timeSinceLastAction = -1L; // measured from end of last action to begin of current action
 	private long timeElapsedEvent = -1L; // measured from begin of current command to end of current command
 	private Type typeOfLog;
@@ -233,31 +481,134 @@ public class WebDriverEvent {
 	}
 
 	public WebDriverEvent(Type typeOfLog, int eventNumber, Cmd cmd) {
-		this.recordNumber = WebDriverEvent.lastRecordNumber++;
+		this(typeOfLog, eventNumber, cmd, DEFAULT_TIME_MARKERS);
+	}
+
+	WebDriverEvent(Type typeOfLog, int eventNumber, Cmd cmd, TimeMarkers timeMarkers) {
+		init(typeOfLog, eventNumber, cmd, timeMarkers);
+	}
+
+	/**
+	 * Copies the rendered values of the given event.
+	 * @param returnObject what is kept of the return object of the given event
+	 */
+	WebDriverEvent(WebDriverEvent event, Object returnObject) {
+		this.recordNumber = event.recordNumber;
+		this.eventNumber = event.eventNumber;
+		this.timeStamp = event.timeStamp;
+		this.nanoTime = event.nanoTime;
+		this.timeSinceLastAction = event.timeSinceLastAction;
+		this.timeElapsedEvent = event.timeElapsedEvent;
+		this.typeOfLog = event.typeOfLog;
+		this.cmd = event.cmd;
+		this.param1 = event.getParam1();
+		this.param2 = event.getParam2();
+		this.returnValue = event.getReturnValue();
+		this.returnObject = returnObject;
+		this.issue = event.issue;
+		this.elementLocator = event.getElementLocator();
+	}
+
+	/**
+	 * Clears all values so that a pooled event record can be reused for a new event.
+	 */
+	void clear() {
+		this.timeSinceLastAction = -1L;
+		this.timeElapsedEvent = -1L;
+		this.param1 = null;
+		this.param2 = null;
+		this.returnValue = null;
+		this.returnObject = null;
+		this.issue = null;
+		this.elementLocator = null;
+	}
+
+	void init(Type typeOfLog, int eventNumber, Cmd cmd, TimeMarkers timeMarkers) {
+		this.recordNumber = WebDriverEvent.lastRecordNumber.getAndIncrement();
 		this.typeOfLog = typeOfLog;
 		this.eventNumber = eventNumber;
 		this.cmd = cmd;
 		this.timeStamp = System.currentTimeMillis();
+		this.nanoTime = System.nanoTime();
 		
 		switch(typeOfLog) {
 		case BeforeAction:
-			timeStampsForBeginAction();
-			timeStampsForBeginEvent();
+			timeStampsForBeginAction(timeMarkers);
+			timeStampsForBeginEvent(timeMarkers);
 			break;
 		case AfterAction:
-			timeStampsForAfterAction();
-			timeStampsForAfterEvent();
+			timeStampsForAfterAction(timeMarkers);
+			timeStampsForAfterEvent(timeMarkers);
 			break;
 		case BeforeGather:
-			timeStampsForBeginEvent();
+			timeStampsForBeginEvent(timeMarkers);
 			break;
 		case AfterGather:
-			timeStampsForAfterEvent();
+			timeStampsForAfterEvent(timeMarkers);
 			break;
 		default:
 		}
 	}
 
+	/**
+	 * Pooled events are only valid during the listener callback they are passed to. Listeners which keep
+	 * events beyond that have to store a {@link #copy()}, see {@link AbstractEventListener#retain(WebDriverEvent)}.
+	 * @return true if this event record is reused for later events
+	 */
+	@JsonIgnore
+	public boolean isPooled() {
+		return false;
+	}
+
+	/**
+	 * Passes this event together with the typed arguments of the original WebDriver call to the
+	 * corresponding callback method of the given listener, e.g. {@link IEventListener#beforeGet(WebDriverEvent, String)}.
+	 * Does nothing for events which have not been created by an {@link EventDispatcher}, including copies.
+	 * @param listener listener to be called
+	 */
+	public void replay(IEventListener listener) {
+		// only events created by the dispatcher know the arguments of the WebDriver call
+	}
+
+	/**
+	 * Pending values are rendered before they are copied.
+	 * @return an immutable copy of this event which is not part of any pool and does not refer to the arguments of the WebDriver call
+	 */
+	public WebDriverEvent copy() {
+		return new RetainedEvent(this, returnObject);
+	}
+
+	/**
+	 * @param retention policy applied to the return object of the copy
+	 * @return an immutable copy of this event, see {@link #copy()}
+	 */
+	WebDriverEvent copy(ReturnObjectRetention retention) {
+		return new RetainedEvent(this, retention.retain(getReturnObject()));
+	}
+
+	/**
+	 * Recreates an event from its serialized fields, e.g. when reading it back from a store which is not on the heap.
+	 * @return event which is not part of any pool
+	 */
+	static WebDriverEvent restore(int recordNumber, int eventNumber, long timeStamp, long timeSinceLastAction,
+			long timeElapsedEvent, Type typeOfLog, Cmd cmd, String param1, String param2, String returnValue,
+			String elementLocator, Throwable issue) {
+		WebDriverEvent event = new WebDriverEvent();
+		event.recordNumber = recordNumber;
+		event.eventNumber = eventNumber;
+		event.timeStamp = timeStamp;
+		event.timeSinceLastAction = timeSinceLastAction;
+		event.timeElapsedEvent = timeElapsedEvent;
+		event.typeOfLog = typeOfLog;
+		event.cmd = cmd;
+		event.param1 = param1;
+		event.param2 = param2;
+		event.returnValue = returnValue;
+		event.elementLocator = elementLocator;
+		event.issue = issue;
+		return event;
+	}
+
 	public int getRecordNumber() {
 		return recordNumber;
 	}
@@ -268,6 +619,14 @@ public class WebDriverEvent {
 		return timeStamp;
 	}
 
+	/**
+	 * @return value of {@link System#nanoTime()} when this event has been created, 0 for restored events
+	 */
+	@JsonIgnore
+	public long getNanoTime() {
+		return nanoTime;
+	}
+
 	public long getTimeSinceLastAction() {
 		return timeSinceLastAction;
 	}
@@ -308,14 +667,25 @@ public class WebDriverEvent {
 		this.returnValue = returnValue;
 	}
 
+	/**
+	 * @return object returned by the command, what is left of it after delivery depends on the {@link ReturnObjectRetention}
+	 */
 	public Object getReturnObject() {
-		return returnObject;
+		Object object = returnObject;
+		return (object instanceof Reference) ? ((Reference<?>) object).get() : object;
 	}
 
 	public void setReturnObject(Object returnObject) {
 		this.returnObject = returnObject;
 	}
 
+	/**
+	 * Applies the retention policy to the return object once this event has been delivered to all sinks.
+	 */
+	void retainReturnObject(ReturnObjectRetention retention) {
+		returnObject = retention.retain(getReturnObject());
+	}
+
 	public Throwable getIssue() {
 		return issue;
 	}
@@ -339,17 +709,18 @@ public class WebDriverEvent {
 		buffer.append("type:").append(typeOfLog).append(",");
 		buffer.append("timestamp:").append(timeStamp).append(" ms,");
 		buffer.append("cmd:").append(cmd);
-		if (param1 != null) {
-			buffer.append(",").append("param1:").append(param1);
+		if (getParam1() != null) {
+			buffer.append(",").append("param1:").append(getParam1());
 		}
-		if (param2 != null) {
-			buffer.append(",").append("param2:").append(param2);
+		if (getParam2() != null) {
+			buffer.append(",").append("param2:").append(getParam2());
 		}
-		if (returnValue != null) {
-			buffer.append(",").append("returned:").append(returnValue).append(",");
+		if (getReturnValue() != null) {
+			buffer.append(",").append("returned:").append(getReturnValue()).append(",");
 		}
-		if (returnObject != null) {
-			buffer.append(",").append("returned:").append(returnObject.toString()).append(",");
+		Object object = getReturnObject();
+		if (object != null) {
+			buffer.append(",").append("returned:").append(object.toString()).append(",");
 		}
 		if (timeSinceLastAction != -1L) {
 			buffer.append(",").append("since last action:").append(formattedNanoTime(timeSinceLastAction));
@@ -370,28 +741,55 @@ public class WebDriverEvent {
 						- TimeUnit.SECONDS.toMillis(TimeUnit.NANOSECONDS.toSeconds(duration)));
 	}
 
-	private void timeStampsForBeginAction() {
+	/**
+	 * Advances the time markers like the constructor does, without creating an event record.
+	 * Used for events nobody is subscribed to, so that the timings of the following events stay correct.
+	 */
+	static void markTime(Type typeOfLog, TimeMarkers timeMarkers) {
+		switch (typeOfLog) {
+		case BeforeAction:
+		case BeforeGather:
+			timeMarkers.elapsedAction = System.nanoTime();
+			break;
+		case AfterAction:
+			timeMarkers.sinceLastEvent = System.nanoTime();
+			break;
+		default:
+		}
+	}
+
+	private void timeStampsForBeginAction(TimeMarkers timeMarkers) {
 		if (eventNumber > 1) {
-			timeSinceLastAction = System.nanoTime() - timeMarkerSinceLastEvent;
+			timeSinceLastAction = System.nanoTime() - timeMarkers.sinceLastEvent;
 		}
 	}
 
-	private void timeStampsForAfterAction() {
-		timeMarkerSinceLastEvent = System.nanoTime();
+	private void timeStampsForAfterAction(TimeMarkers timeMarkers) {
+		timeMarkers.sinceLastEvent = System.nanoTime();
 	}
 
-	private void timeStampsForBeginEvent() {
-		timeMarkerElapsedAction = System.nanoTime();
+	private void timeStampsForBeginEvent(TimeMarkers timeMarkers) {
+		timeMarkers.elapsedAction = System.nanoTime();
 	}
 
-	private void timeStampsForAfterEvent() {
-		timeElapsedEvent = System.nanoTime() - timeMarkerElapsedAction;
+	private void timeStampsForAfterEvent(TimeMarkers timeMarkers) {
+		timeElapsedEvent = System.nanoTime() - timeMarkers.elapsedAction;
 	}
 
 	public static String getLocatorFromWebElement(WebElement elem) {
 		return (elem != null) ? getLocatorFromWebElement(elem.toString()) : null;
 	}
 
+	/**
+	 * @param elem web element
+	 * @param dictionary dictionary of the session or null
+	 * @return locator of the web element, the canonical instance if it is in the dictionary
+	 */
+	static String getLocatorFromWebElement(WebElement elem, StringDictionary dictionary) {
+		String locator = getLocatorFromWebElement(elem);
+		return (dictionary != null) ? dictionary.intern(locator) : locator;
+	}
+
 	public static String getLocatorFromWebElement(String locator) {
 		if (locator == null)
 			return null;
@@ -443,6 +841,16 @@ public class WebDriverEvent {
 		return (by != null) ? getLocatorFromBy(by.toString()) : null;
 	}
 
+	/**
+	 * @param by instance of By
+	 * @param dictionary dictionary of the session or null
+	 * @return locator defined in By object, the canonical instance if it is in the dictionary
+	 */
+	static String getLocatorFromBy(By by, StringDictionary dictionary) {
+		String locator = getLocatorFromBy(by);
+		return (dictionary != null) ? dictionary.intern(locator) : locator;
+	}
+
 	/**
 	 * Retrieve the locator information from By's toString() representation.
 	 * @param locator toString() representation of a By object
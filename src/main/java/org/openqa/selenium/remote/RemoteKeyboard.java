@@ -30,11 +30,15 @@ import org.openqa.selenium.interactions.Keyboard;
 public class RemoteKeyboard implements Keyboard {
 	protected final ExecuteMethod executor;
 
-	private EventDispatcher eventDispatcher;
+	private final EventDispatcher eventDispatcher;
 
 	public RemoteKeyboard(ExecuteMethod executor) {
+		this(executor, EventDispatcher.getInstance());
+	}
+
+	public RemoteKeyboard(ExecuteMethod executor, EventDispatcher eventDispatcher) {
 		this.executor = executor;
-		this.eventDispatcher = EventDispatcher.getInstance();
+		this.eventDispatcher = eventDispatcher;
 	}
 
 	public void sendKeys(CharSequence... keysToSend) {
@@ -34,11 +34,15 @@ import java.util.Map;
 public class RemoteMouse implements Mouse {
 	protected final ExecuteMethod executor;
 
-	private EventDispatcher eventDispatcher;
+	private final EventDispatcher eventDispatcher;
 
 	public RemoteMouse(ExecuteMethod executor) {
+		this(executor, EventDispatcher.getInstance());
+	}
+
+	public RemoteMouse(ExecuteMethod executor, EventDispatcher eventDispatcher) {
 		this.executor = executor;
-		this.eventDispatcher = EventDispatcher.getInstance();
+		this.eventDispatcher = eventDispatcher;
 	}
 
 	protected Map<String, Object> paramsFromCoordinates(Coordinates where) {
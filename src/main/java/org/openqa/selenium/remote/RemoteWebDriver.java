@@ -106,7 +106,7 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 	private static final String BORDER_COLORING_POSTFIX = "'";
 	private static final String IGNORE_COMMAND_TAG = "testadvisor";
 
-	private EventDispatcher eventDispatcher = EventDispatcher.getInstance();
+	private EventDispatcher eventDispatcher;
 
 	// TODO: This static logger should be unified with the per-instance localLogs
 	private static final Logger logger = Logger.getLogger(RemoteWebDriver.class.getName());
@@ -166,6 +166,9 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 				quit();
 			} catch (Exception ignored) {
 				// Ignore the clean-up exception. We'll propagate the original failure.
+			} finally {
+				// quit() returns early if no session has been started
+				EventDispatcher.removeInstance(this);
 			}
 
 			throw e;
@@ -206,10 +209,11 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 
 		logger.addHandler(LoggingHandler.getInstance());
 
+		eventDispatcher = EventDispatcher.getInstance(this);
 		converter = new JsonToWebElementConverter(this);
 		executeMethod = new RemoteExecuteMethod(this);
-		keyboard = new RemoteKeyboard(executeMethod);
-		mouse = new RemoteMouse(executeMethod);
+		keyboard = new RemoteKeyboard(executeMethod, eventDispatcher);
+		mouse = new RemoteMouse(executeMethod, eventDispatcher);
 
 		ImmutableSet.Builder<String> builder = new ImmutableSet.Builder<>();
 
@@ -241,6 +245,10 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 		return sessionId;
 	}
 
+	EventDispatcher getEventDispatcher() {
+		return eventDispatcher;
+	}
+
 	protected void setSessionId(String opaqueKey) {
 		sessionId = new SessionId(opaqueKey);
 	}
@@ -500,13 +508,17 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 			return;
 		}
 
-		eventDispatcher.beforeQuit();
 		try {
-			execute(DriverCommand.QUIT);
+			eventDispatcher.beforeQuit();
+			try {
+				execute(DriverCommand.QUIT);
+			} finally {
+				sessionId = null;
+			}
+			eventDispatcher.afterQuit();
 		} finally {
-			sessionId = null;
+			EventDispatcher.removeInstance(this);
 		}
-		eventDispatcher.afterQuit();
 	}
 
 	@Override
@@ -637,9 +649,13 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 		Response response;
 
 		long start = System.currentTimeMillis();
-		String currentName = Thread.currentThread().getName();
-		Thread.currentThread().setName(
-						String.format("Forwarding %s on session %s to remote", command.getName(), sessionId));
+		boolean isInstrumented = eventDispatcher.isEnabled();
+		String currentName = null;
+		if (isInstrumented) {
+			currentName = Thread.currentThread().getName();
+			Thread.currentThread().setName(
+							String.format("Forwarding %s on session %s to remote", command.getName(), sessionId));
+		}
 		try {
 			log(sessionId, command.getName(), command, When.BEFORE);
 			response = executor.execute(command);
@@ -674,7 +690,8 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 			eventDispatcher.onException(payload.getName(), toThrow);
 			throw toThrow;
 		} finally {
-			Thread.currentThread().setName(currentName);
+			if (isInstrumented)
+				Thread.currentThread().setName(currentName);
 		}
 
 		try {
@@ -1389,7 +1406,7 @@ public class RemoteWebDriver implements WebDriver, JavascriptExecutor, HasInputD
 	 * Draw a border around the element if JavaScript is enabled
 	 */
 	private void highlightElement(WebElement element) {
-	    if (isJavascriptEnabled()) {
+	    if (eventDispatcher.isEnabled() && isJavascriptEnabled()) {
 			// hardcode border color to a customized blue to satisfy screenshot comparison
 			// so it won't conflict with common blue used on the page
 			String color = "#2C1BD8";
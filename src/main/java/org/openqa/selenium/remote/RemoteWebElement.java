@@ -56,7 +56,8 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 	protected RemoteWebDriver parent;
 	protected FileDetector fileDetector;
 
-	private EventDispatcher eventDispatcher = EventDispatcher.getInstance();
+	// dispatcher of the parent, looked up on first use
+	private EventDispatcher eventDispatcher;
 
 	protected void setFoundBy(SearchContext foundFrom, String locator, String term) {
 		this.foundBy = String.format("[%s] -> %s: %s", foundFrom, locator, term);
@@ -64,6 +65,17 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	public void setParent(RemoteWebDriver parent) {
 		this.parent = parent;
+		this.eventDispatcher = null;
+	}
+
+	private EventDispatcher getEventDispatcher() {
+		if (eventDispatcher == null) {
+			if (parent != null && parent.getEventDispatcher() != null)
+				eventDispatcher = parent.getEventDispatcher();
+			else
+				return EventDispatcher.getInstance();
+		}
+		return eventDispatcher;
 	}
 
 	public String getId() {
@@ -80,16 +92,16 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	@Override
 	public void click() {
-		eventDispatcher.beforeClick(this);
+		getEventDispatcher().beforeClick(this);
 		execute(DriverCommand.CLICK_ELEMENT(id));
-		eventDispatcher.afterClick(this);
+		getEventDispatcher().afterClick(this);
 	}
 
 	@Override
 	public void submit() {
-		eventDispatcher.beforeSubmit(this);
+		getEventDispatcher().beforeSubmit(this);
 		execute(DriverCommand.SUBMIT_ELEMENT(id));
-		eventDispatcher.afterSubmit(this);
+		getEventDispatcher().afterSubmit(this);
 	}
 
 	@Override
@@ -111,9 +123,9 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 			allKeysToSend = files.stream().map(this::upload).collect(Collectors.joining("\n"));
 		}
 
-		eventDispatcher.beforeSendKeysByElement(this, allKeysToSend);
+		getEventDispatcher().beforeSendKeysByElement(this, allKeysToSend);
 		execute(DriverCommand.SEND_KEYS_TO_ELEMENT(id, new CharSequence[] { allKeysToSend }));
-		eventDispatcher.afterSendKeysByElement(this, allKeysToSend);
+		getEventDispatcher().afterSendKeysByElement(this, allKeysToSend);
 	}
 
 	private String upload(File localFile) {
@@ -123,10 +135,10 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 		try {
 			String zip = Zip.zip(localFile);
-			eventDispatcher.beforeUploadFile(this, localFile);
+			getEventDispatcher().beforeUploadFile(this, localFile);
 			Response response = execute(DriverCommand.UPLOAD_FILE(zip));
 			String uploadResponse = (String) response.getValue();
-			eventDispatcher.afterUploadFile(this, localFile, uploadResponse);
+			getEventDispatcher().afterUploadFile(this, localFile, uploadResponse);
 			return uploadResponse;
 		} catch (IOException e) {
 			throw new WebDriverException("Cannot upload " + localFile, e);
@@ -135,59 +147,59 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	@Override
 	public void clear() {
-		eventDispatcher.beforeClear(this);
+		getEventDispatcher().beforeClear(this);
 		execute(DriverCommand.CLEAR_ELEMENT(id));
-		eventDispatcher.afterClear(this);
+		getEventDispatcher().afterClear(this);
 	}
 
 	@Override
 	public String getTagName() {
-		eventDispatcher.beforeGetTagName(this);
+		getEventDispatcher().beforeGetTagName(this);
 		String tagName = (String) execute(DriverCommand.GET_ELEMENT_TAG_NAME(id)).getValue();
-		eventDispatcher.afterGetTagName(tagName, this);
+		getEventDispatcher().afterGetTagName(tagName, this);
 		return tagName;
 	}
 
 	@Override
 	public String getDomProperty(String name) {
-		eventDispatcher.beforeGetDomProperty(name, this);
+		getEventDispatcher().beforeGetDomProperty(name, this);
 		String value = stringValueOf(
 				execute(DriverCommand.GET_ELEMENT_DOM_PROPERTY(id, name)).getValue());
-		eventDispatcher.afterGetDomProperty(name, value,this);
+		getEventDispatcher().afterGetDomProperty(name, value,this);
 		return value;
 	}
 
 	@Override
 	public String getDomAttribute(String name) {
-		eventDispatcher.beforeGetDomAttribute(name, this);
+		getEventDispatcher().beforeGetDomAttribute(name, this);
 		String value = stringValueOf(
 				execute(DriverCommand.GET_ELEMENT_DOM_ATTRIBUTE(id, name)).getValue());
-		eventDispatcher.afterGetDomAttribute(name, value,this);
+		getEventDispatcher().afterGetDomAttribute(name, value,this);
 		return value;
 	}
 
 	@Override
 	public String getAttribute(String name) {
-		eventDispatcher.beforeGetAttribute(name, this);
+		getEventDispatcher().beforeGetAttribute(name, this);
 		String value = stringValueOf(
 				execute(DriverCommand.GET_ELEMENT_ATTRIBUTE(id, name)).getValue());
-		eventDispatcher.afterGetAttribute(name, value, this);
+		getEventDispatcher().afterGetAttribute(name, value, this);
 		return value;
 	}
 
 	@Override
 	public String getAriaRole() {
-		eventDispatcher.beforeGetAriaRole(this);
+		getEventDispatcher().beforeGetAriaRole(this);
 		String role = (String) execute(DriverCommand.GET_ELEMENT_ARIA_ROLE(id)).getValue();
-		eventDispatcher.afterGetAriaRole(role, this);
+		getEventDispatcher().afterGetAriaRole(role, this);
 		return role;
 	}
 
 	@Override
 	public String getAccessibleName() {
-		eventDispatcher.beforeGetAccessibleName(this);
+		getEventDispatcher().beforeGetAccessibleName(this);
 		String name = (String) execute(DriverCommand.GET_ELEMENT_ACCESSIBLE_NAME(id)).getValue();
-		eventDispatcher.afterGetAccessibleName(name, this);
+		getEventDispatcher().afterGetAccessibleName(name, this);
 		return name;
 	}
 
@@ -200,11 +212,11 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	@Override
 	public boolean isSelected() {
-		eventDispatcher.beforeIsSelected(this);
+		getEventDispatcher().beforeIsSelected(this);
 		Object value = execute(DriverCommand.IS_ELEMENT_SELECTED(id)).getValue();
 		try {
 			boolean boolValue = (Boolean) value;
-			eventDispatcher.afterIsSelected(boolValue, this);
+			getEventDispatcher().afterIsSelected(boolValue, this);
 			return boolValue;
 		} catch (ClassCastException ex) {
 			throw new WebDriverException(RETURNED_VALUE_CANNOT_BE_CONVERTED_TO_BOOLEAN + value, ex);
@@ -213,11 +225,11 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	@Override
 	public boolean isEnabled() {
-		eventDispatcher.beforeIsEnabled(this);
+		getEventDispatcher().beforeIsEnabled(this);
 		Object value = execute(DriverCommand.IS_ELEMENT_ENABLED(id)).getValue();
 		try {
 			boolean boolValue = (Boolean) value;
-			eventDispatcher.afterIsEnabled(boolValue, this);
+			getEventDispatcher().afterIsEnabled(boolValue, this);
 			return boolValue;
 		} catch (ClassCastException ex) {
 			throw new WebDriverException(RETURNED_VALUE_CANNOT_BE_CONVERTED_TO_BOOLEAN + value, ex);
@@ -226,19 +238,19 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	@Override
 	public String getText() {
-		eventDispatcher.beforeGetText(this);
+		getEventDispatcher().beforeGetText(this);
 		Response response = execute(DriverCommand.GET_ELEMENT_TEXT(id));
 		String text = (String) response.getValue();
-		eventDispatcher.afterGetText(text, this);
+		getEventDispatcher().afterGetText(text, this);
 		return text;
 	}
 
 	@Override
 	public String getCssValue(String propertyName) {
-		eventDispatcher.beforeGetCssValue(propertyName, this);
+		getEventDispatcher().beforeGetCssValue(propertyName, this);
 		Response response = execute(DriverCommand.GET_ELEMENT_VALUE_OF_CSS_PROPERTY(id, propertyName));
 		String value = (String) response.getValue();
-		eventDispatcher.afterGetCssValue(propertyName, value, this);
+		getEventDispatcher().afterGetCssValue(propertyName, value, this);
 		return value;
 	}
 
@@ -278,9 +290,9 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	@Override
 	public SearchContext getShadowRoot() {
-		eventDispatcher.beforeGetShadowRoot((WebElement) this);
+		getEventDispatcher().beforeGetShadowRoot((WebElement) this);
 		Response response = execute(DriverCommand.GET_ELEMENT_SHADOW_ROOT(getId()));
-		eventDispatcher.afterGetShadowRoot(this);
+		getEventDispatcher().afterGetShadowRoot(this);
 		return (SearchContext) response.getValue();
 	}
 
@@ -342,7 +354,7 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 
 	@Override
 	public boolean isDisplayed() {
-		eventDispatcher.beforeIsDisplayed(this);
+		getEventDispatcher().beforeIsDisplayed(this);
 		Object value = execute(DriverCommand.IS_ELEMENT_DISPLAYED(id)).getValue();
 		try {
 			// See https://github.com/SeleniumHQ/selenium/issues/9266
@@ -350,7 +362,7 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 				return false;
 			}
 			boolean boolValue = (Boolean) value;
-			eventDispatcher.afterIsDisplayed(boolValue, this);
+			getEventDispatcher().afterIsDisplayed(boolValue, this);
 			return boolValue;
 		} catch (ClassCastException ex) {
 			throw new WebDriverException(RETURNED_VALUE_CANNOT_BE_CONVERTED_TO_BOOLEAN + value, ex);
@@ -360,9 +372,9 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 	@Override
 	@SuppressWarnings({ "unchecked" })
 	public Point getLocation() {
-		eventDispatcher.beforeGetLocation(this);
+		getEventDispatcher().beforeGetLocation(this);
 		Point point = innerGetLocation();
-		eventDispatcher.afterGetLocation(point, this);
+		getEventDispatcher().afterGetLocation(point, this);
 		return point;
 	}
 
@@ -377,20 +389,20 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 	@Override
 	@SuppressWarnings({ "unchecked" })
 	public Dimension getSize() {
-		eventDispatcher.beforeGetSizeByElement(this);
+		getEventDispatcher().beforeGetSizeByElement(this);
 		Response response = execute(DriverCommand.GET_ELEMENT_SIZE(id));
 		Map<String, Object> rawSize = (Map<String, Object>) response.getValue();
 		int width = ((Number) rawSize.get("width")).intValue();
 		int height = ((Number) rawSize.get("height")).intValue();
 		Dimension size = new Dimension(width, height);
-		eventDispatcher.afterGetSizeByElement(size, this);
+		getEventDispatcher().afterGetSizeByElement(size, this);
 		return size;
 	}
 
 	@Override
 	@SuppressWarnings({ "unchecked" })
 	public Rectangle getRect() {
-		eventDispatcher.beforeGetRect(this);
+		getEventDispatcher().beforeGetRect(this);
 		Response response = execute(DriverCommand.GET_ELEMENT_RECT(id));
 		Map<String, Object> rawRect = (Map<String, Object>) response.getValue();
 		int x = ((Number) rawRect.get("x")).intValue();
@@ -398,13 +410,13 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 		int width = ((Number) rawRect.get("width")).intValue();
 		int height = ((Number) rawRect.get("height")).intValue();
 		Rectangle rect = new Rectangle(x, y, height, width);
-		eventDispatcher.afterGetRect(rect, this);
+		getEventDispatcher().afterGetRect(rect, this);
 		return rect;
 	}
 
 	@Override
 	public Coordinates getCoordinates() {
-		eventDispatcher.beforeGetCoordinates(this);
+		getEventDispatcher().beforeGetCoordinates(this);
 		Coordinates coordinates = new Coordinates() {
 
 			@Override
@@ -431,16 +443,16 @@ public class RemoteWebElement implements WebElement, Locatable, TakesScreenshot,
 				return getId();
 			}
 		};
-		eventDispatcher.afterGetCoordinates(coordinates, this);
+		getEventDispatcher().afterGetCoordinates(coordinates, this);
 		return coordinates;
 	}
 
 	@Override
 	@Beta
 	public <X> X getScreenshotAs(OutputType<X> outputType) throws WebDriverException {
-		eventDispatcher.beforeGetScreenshotAsByElement(outputType, this);
+		getEventDispatcher().beforeGetScreenshotAsByElement(outputType, this);
 		X screenshot = getScreenshotAsForTestAdvisor(outputType);
-		eventDispatcher.afterGetScreenshotAsByElement(outputType, screenshot, this);
+		getEventDispatcher().afterGetScreenshotAsByElement(outputType, screenshot, this);
 		return screenshot;
 	}
 
@@ -34,10 +34,13 @@ public class MockCommandExecutor implements CommandExecutor {
 	public static final String STATE_EXCEPTION = "Exception";
 	
 	private static boolean doTriggerWebDriverException;
+	// null if the exception is thrown by whatever command comes next
+	private static String triggeringCommand;
 	private static boolean doUseSpecificReturnValue;
 	private static String stringReturnValue;
 
 	private RemoteWebDriver webDriver;
+	private String currentUrl = STRING_ALLISWELL_VALUE;
 
 	public void setRemoteWebDriver(RemoteWebDriver webDriver) {
 		this.webDriver = webDriver;
@@ -45,7 +48,7 @@ public class MockCommandExecutor implements CommandExecutor {
 	
 	@Override
 	public Response execute(Command command) {
-		if (doTriggerWebDriverException) {
+		if (doTriggerWebDriverException && (triggeringCommand == null || triggeringCommand.equals(command.getName()))) {
 			// automatically reset flag so that exception
 			// thrown below is a one-time-thing
 			doTriggerWebDriverException = false;
@@ -217,7 +220,7 @@ public class MockCommandExecutor implements CommandExecutor {
 			handles.put("handle", STRING_ALLISWELL_VALUE);
 			response.setValue(handles);
 		} else if (GET_CURRENT_URL.equals(command.getName())){
-			response.setValue(STRING_ALLISWELL_VALUE);
+			response.setValue(currentUrl);
 		} else if (GET_PAGE_SOURCE.equals(command.getName())){
 			response.setValue(STRING_ALLISWELL_VALUE);
 		} else if (CLOSE.equals(command.getName())){
@@ -267,9 +270,25 @@ public class MockCommandExecutor implements CommandExecutor {
 	}
 	
 	public static void setDoTriggerWebDriverException() {
+		setDoTriggerWebDriverException(null);
+	}
+
+	/**
+	 * Throws an exception once the given command is executed, commands sent in between by listeners pass.
+	 * @param commandName name of the command, see {@link org.openqa.selenium.remote.DriverCommand}
+	 */
+	public static void setDoTriggerWebDriverException(String commandName) {
+		triggeringCommand = commandName;
 		doTriggerWebDriverException = true;
 	}
 
+	/**
+	 * @param currentUrl URL returned by getCurrentUrl from now on, e.g. after the page changed without navigation command
+	 */
+	public void setCurrentUrl(String currentUrl) {
+		this.currentUrl = currentUrl;
+	}
+
 	public static void setReturnValue(String returnValue) {
 		doUseSpecificReturnValue = true;
 		stringReturnValue = returnValue;
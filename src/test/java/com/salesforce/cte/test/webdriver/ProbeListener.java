@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.salesforce.cte.listener.selenium.AbstractEventListener;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Listener registered via ServiceLoader for tests only. It does not subscribe to anything
+ * unless it has been activated before the WebDriver session gets created.
+ */
+public class ProbeListener extends AbstractEventListener {
+	private static volatile boolean active = false;
+	private static final AtomicInteger instances = new AtomicInteger();
+
+	private int eventCount = 0;
+
+	public ProbeListener() {
+		instances.incrementAndGet();
+	}
+
+	/**
+	 * @return number of instances created so far
+	 */
+	public static int getInstances() {
+		return instances.get();
+	}
+
+	public static void setActive(boolean isActive) {
+		active = isActive;
+	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return active;
+	}
+
+	@Override
+	public void beforeGetTitle(WebDriverEvent event) {
+		eventCount++;
+	}
+
+	@Override
+	public void afterGetTitle(WebDriverEvent event, String title) {
+		eventCount++;
+	}
+
+	public int getEventCount() {
+		return eventCount;
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.salesforce.cte.listener.selenium.AbstractEventListener;
+import com.salesforce.cte.listener.selenium.IEventSink;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+/**
+ * Sink registered via ServiceLoader for tests only. It does not subscribe to anything
+ * unless it has been activated before the WebDriver session gets created.
+ */
+public class ProbeSink implements IEventSink {
+	private static volatile boolean active = false;
+	private static volatile boolean failing = false;
+
+	private final List<WebDriverEvent> events = new ArrayList<>();
+	private final List<String> titles = new ArrayList<>();
+	// gets the typed return value of getTitle, which is not part of the event record
+	private final AbstractEventListener titleListener = new AbstractEventListener() {
+		@Override
+		public void afterGetTitle(WebDriverEvent event, String title) {
+			titles.add(title);
+		}
+	};
+
+	public static void setActive(boolean isActive) {
+		active = isActive;
+	}
+
+	public static void setFailing(boolean isFailing) {
+		failing = isFailing;
+	}
+
+	@Override
+	public void onEvent(WebDriverEvent event) {
+		events.add(event);
+		if (failing)
+			throw new IllegalStateException("Probe failure");
+		event.replay(titleListener);
+	}
+
+	@Override
+	public boolean isSubscribedTo(Cmd cmd, Type type) {
+		return active;
+	}
+
+	public List<WebDriverEvent> getEvents() {
+		return events;
+	}
+
+	public List<String> getTitles() {
+		return titles;
+	}
+}
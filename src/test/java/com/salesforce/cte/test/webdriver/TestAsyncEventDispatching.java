@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.AsyncEventPipeline;
+import com.salesforce.cte.listener.selenium.AsyncEventPipeline.Backpressure;
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.IEventSink;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestAsyncEventDispatching {
+
+	@Test
+	public void testEventsAreDeliveredInOrder() {
+		RecordingSink sink = new RecordingSink(null);
+		AsyncEventPipeline pipeline = new AsyncEventPipeline(new IEventSink[] { sink }, 4, Backpressure.BLOCK);
+		for (int i = 0; i < 100; i++)
+			publish(pipeline, new WebDriverEvent(Type.BeforeAction, i, Cmd.get));
+		pipeline.flush();
+
+		List<WebDriverEvent> events = sink.getEvents();
+		assertEquals(events.size(), 100);
+		for (int i = 0; i < 100; i++)
+			assertEquals(events.get(i).getEventNumber(), i);
+		assertEquals(pipeline.getDroppedEvents(), 0L);
+		pipeline.shutdown();
+	}
+
+	@Test
+	public void testDropOldestWhenBufferIsFull() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink sink = new RecordingSink(release);
+		AsyncEventPipeline pipeline = new AsyncEventPipeline(new IEventSink[] { sink }, 2, Backpressure.DROP_OLDEST);
+		// the first event blocks the consumer, the next two fill the buffer
+		for (int i = 0; i < 6; i++)
+			publish(pipeline, new WebDriverEvent(Type.BeforeAction, i, Cmd.get));
+		release.countDown();
+		pipeline.flush();
+
+		List<WebDriverEvent> events = sink.getEvents();
+		assertEquals(events.get(events.size() - 1).getEventNumber(), 5);
+		assertEquals(events.size() + pipeline.getDroppedEvents(), 6L);
+		assertTrue(pipeline.getDroppedEvents() > 0L);
+		pipeline.shutdown();
+	}
+
+	@Test
+	public void testDropGatherKeepsActions() {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink sink = new RecordingSink(release);
+		AsyncEventPipeline pipeline = new AsyncEventPipeline(new IEventSink[] { sink }, 1, Backpressure.DROP_GATHER);
+		publish(pipeline, new WebDriverEvent(Type.BeforeAction, 0, Cmd.get));
+		// actions wait for room, so once this returns the consumer is blocked and the buffer is full
+		publish(pipeline, new WebDriverEvent(Type.AfterAction, 0, Cmd.get));
+		publish(pipeline, new WebDriverEvent(Type.BeforeGather, 1, Cmd.getTitle));
+		release.countDown();
+		publish(pipeline, new WebDriverEvent(Type.BeforeAction, 1, Cmd.get));
+		pipeline.flush();
+
+		assertEquals(pipeline.getDroppedEvents(), 1L);
+		List<WebDriverEvent> events = sink.getEvents();
+		assertEquals(events.size(), 3);
+		for (WebDriverEvent event : events)
+			assertEquals(event.getCmd(), Cmd.get);
+		pipeline.shutdown();
+	}
+
+	@Test
+	public void testEventsPublishedByListenerDoNotBlock() {
+		AsyncEventPipeline[] pipeline = new AsyncEventPipeline[1];
+		List<WebDriverEvent> events = Collections.synchronizedList(new ArrayList<>());
+		// a listener issuing WebDriver commands publishes events on the consumer thread
+		IEventSink sink = event -> {
+			events.add(event);
+			if (event.getCmd() == Cmd.get) {
+				for (int i = 0; i < 3; i++)
+					publish(pipeline[0], new WebDriverEvent(Type.BeforeGather, i, Cmd.getTitle));
+			}
+		};
+		pipeline[0] = new AsyncEventPipeline(new IEventSink[] { sink }, 1, Backpressure.BLOCK);
+		publish(pipeline[0], new WebDriverEvent(Type.BeforeAction, 0, Cmd.get));
+		pipeline[0].flush();
+
+		assertEquals(events.size(), 4);
+		assertEquals(pipeline[0].getDroppedEvents(), 0L);
+		pipeline[0].shutdown();
+	}
+
+	@Test
+	public void testFullListenerIsCalledAsynchronously() {
+		System.setProperty(ListenerConfiguration.DISPATCH_ASYNC, "true");
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			System.clearProperty(ListenerConfiguration.DISPATCH_ASYNC);
+		}
+
+		EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+		FullListener fullListener = (FullListener) dispatcher.getImmutableListOfEventListeners().get(0);
+		for (int i = 0; i < 50; i++)
+			driver.getTitle();
+		dispatcher.flush();
+		assertEquals(fullListener.getListOfEventsRecorded().size(), 100);
+		driver.quit();
+	}
+
+	private static void publish(AsyncEventPipeline pipeline, WebDriverEvent event) {
+		pipeline.publish(event);
+	}
+
+	private static class RecordingSink implements IEventSink {
+		private final List<WebDriverEvent> events = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch release;
+
+		RecordingSink(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void onEvent(WebDriverEvent event) {
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			events.add(event);
+		}
+
+		List<WebDriverEvent> getEvents() {
+			return new ArrayList<>(events);
+		}
+
+		@Override
+		public boolean isSynchronous() {
+			return false;
+		}
+	}
+}
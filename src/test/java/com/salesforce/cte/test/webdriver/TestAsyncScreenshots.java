@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.admin.TestAdvisorAdministrator;
+import com.salesforce.cte.common.TestCaseExecution;
+import com.salesforce.cte.common.TestEvent;
+import com.salesforce.cte.common.TestEventType;
+import com.salesforce.cte.listener.selenium.AsyncScreenshotWriter;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+
+public class TestAsyncScreenshots {
+	private static final String CAPTURE_SCREENSHOT = "testadvisor.capturescreenshot";
+
+	@Test
+	public void testNoScreenshotIsLostOnQuit() {
+		String captureScreenshot = System.getProperty(CAPTURE_SCREENSHOT);
+		System.setProperty(CAPTURE_SCREENSHOT, "true");
+		System.setProperty(ListenerConfiguration.SCREENSHOT_ASYNC, "true");
+		System.setProperty(ListenerConfiguration.SCREENSHOT_QUEUE, "2");
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+			int numOfScreenshotsBefore = getScreenshotEvents().size();
+
+			WebElement element = driver.findElement(By.id("someId"));
+			for (int i = 0; i < 10; i++)
+				element.click();
+			driver.quit();
+
+			List<TestEvent> screenshotEvents = getScreenshotEvents();
+			assertEquals(screenshotEvents.size(), numOfScreenshotsBefore + 10);
+			for (TestEvent screenshotEvent : screenshotEvents.subList(numOfScreenshotsBefore, screenshotEvents.size()))
+				assertTrue(new File(screenshotEvent.getScreenshotPath()).isFile());
+		} finally {
+			if (captureScreenshot == null)
+				System.clearProperty(CAPTURE_SCREENSHOT);
+			else
+				System.setProperty(CAPTURE_SCREENSHOT, captureScreenshot);
+			System.clearProperty(ListenerConfiguration.SCREENSHOT_ASYNC);
+			System.clearProperty(ListenerConfiguration.SCREENSHOT_QUEUE);
+		}
+	}
+
+	@Test
+	public void testScreenshotsAreWrittenInOrder() {
+		AsyncScreenshotWriter writer = new AsyncScreenshotWriter(1);
+		TestCaseExecution testCase = TestAdvisorAdministrator.getInstance().getTestCaseExecution();
+		int numOfScreenshotsBefore = getScreenshotEvents().size();
+		String png = Base64.getEncoder().encodeToString(new byte[] { (byte) 0x89, 'P', 'N', 'G' });
+		for (int i = 0; i < 5; i++) {
+			writer.submit(png, new TestEvent(TestEventType.SCREEN_SHOT, "screenshot " + i, "INFO"), testCase);
+			// added by the calling thread in the order the screenshots are taken
+			assertEquals(getScreenshotEvents().size(), numOfScreenshotsBefore + i + 1);
+		}
+		writer.shutdown();
+
+		assertEquals(writer.getWrittenScreenshots(), 5L);
+		assertEquals(writer.getQueuedScreenshots(), 0);
+		List<TestEvent> screenshotEvents = getScreenshotEvents();
+		for (int i = 0; i < 5; i++) {
+			TestEvent screenshotEvent = screenshotEvents.get(numOfScreenshotsBefore + i);
+			assertEquals(screenshotEvent.getEventContent(), "screenshot " + i);
+			assertTrue(new File(screenshotEvent.getScreenshotPath()).isFile());
+		}
+	}
+
+	private static List<TestEvent> getScreenshotEvents() {
+		return TestAdvisorAdministrator.getInstance().getTestCaseExecution().getEventList().stream()
+				.filter(event -> event.getEventType() == TestEventType.SCREEN_SHOT).collect(Collectors.toList());
+	}
+}
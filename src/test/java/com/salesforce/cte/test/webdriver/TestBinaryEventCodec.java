@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openqa.selenium.WebDriverException;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.BinaryEventDecoder;
+import com.salesforce.cte.listener.selenium.BinaryEventEncoder;
+import com.salesforce.cte.listener.selenium.JsonLinesEventSink;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestBinaryEventCodec {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+
+	@Test
+	public void testDecodedEventsMatchJsonLines() throws IOException {
+		List<WebDriverEvent> events = createEvents(500);
+
+		File directory = Files.createTempDirectory("events").toFile();
+		JsonLinesEventSink jsonSink = new JsonLinesEventSink(directory, 0, 0);
+		for (WebDriverEvent event : events)
+			jsonSink.onEvent(event);
+		byte[] json = Files.readAllBytes(jsonSink.getFile().toPath());
+
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		try (BinaryEventEncoder encoder = new BinaryEventEncoder(binary)) {
+			for (WebDriverEvent event : events)
+				encoder.write(event);
+		}
+
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		try (BinaryEventDecoder decoder = new BinaryEventDecoder(new ByteArrayInputStream(binary.toByteArray()))) {
+			assertEquals(decoder.convertToJsonLines(decoded), events.size());
+		}
+		assertEquals(new String(decoded.toByteArray(), StandardCharsets.UTF_8), new String(json, StandardCharsets.UTF_8));
+
+		LOGGER.log(Level.INFO, "{0} events: {1} bytes as JSON lines, {2} bytes in binary format",
+				new Object[] { events.size(), json.length, binary.size() });
+		// exceptions and texts are written as literals, only locators, URLs and scripts are shared
+		assertTrue(binary.size() * 4 < json.length);
+	}
+
+	@Test
+	public void testOnlyLocatorsUrlsAndScriptsAreAddedToDictionary() throws IOException {
+		StringBuilder pageSource = new StringBuilder();
+		while (pageSource.length() < 1000)
+			pageSource.append("<div>page</div>");
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		try (BinaryEventEncoder encoder = new BinaryEventEncoder(binary)) {
+			for (int i = 0; i < 10; i++) {
+				WebDriverEvent event = new WebDriverEvent(Type.AfterGather, i, Cmd.getPageSource);
+				event.setReturnValue(pageSource.toString());
+				encoder.write(event);
+			}
+		}
+		// page sources are written as literals each time
+		assertTrue(binary.size() > 10 * pageSource.length());
+
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		try (BinaryEventDecoder decoder = new BinaryEventDecoder(new ByteArrayInputStream(binary.toByteArray()))) {
+			assertEquals(decoder.convertToJsonLines(decoded), 10);
+		}
+		assertTrue(new String(decoded.toByteArray(), StandardCharsets.UTF_8).contains(pageSource));
+	}
+
+	@Test(expectedExceptions = IOException.class)
+	public void testRejectsOtherStreams() throws IOException {
+		new BinaryEventDecoder(new ByteArrayInputStream("{\"cmd\":\"get\"}".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Creates events of a typical test which works on a few elements of a few pages.
+	 */
+	private static List<WebDriverEvent> createEvents(int numOfEvents) {
+		List<WebDriverEvent> events = new ArrayList<>();
+		for (int i = 0; i < numOfEvents; i++) {
+			String locator = String.format("By.xpath(\"//div[@class='form']//input[@name='field%d']\")", i % 7);
+			WebDriverEvent event;
+			switch (i % 5) {
+			case 0:
+				event = new WebDriverEvent(Type.BeforeAction, i, Cmd.get);
+				event.setParam1("https://www.salesforce.com/page" + (i % 3));
+				break;
+			case 1:
+				event = new WebDriverEvent(Type.AfterAction, i, Cmd.clickByElement);
+				event.setElementLocator(locator);
+				break;
+			case 2:
+				event = new WebDriverEvent(Type.BeforeAction, i, Cmd.sendKeysByElement);
+				event.setParam1("[some text]");
+				event.setElementLocator(locator);
+				break;
+			case 3:
+				event = new WebDriverEvent(Type.AfterGather, i, Cmd.executeScript);
+				event.setParam1("return document.readyState === 'complete' && window.jQuery.active === 0");
+				event.setReturnValue("true");
+				break;
+			default:
+				event = new WebDriverEvent(Type.Exception, i, Cmd.findElement);
+				event.setParam1(locator);
+				event.setIssue(new WebDriverException("no such element"));
+				break;
+			}
+			events.add(event);
+		}
+		return events;
+	}
+}
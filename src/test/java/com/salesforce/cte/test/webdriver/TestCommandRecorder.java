@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DriverCommand;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.CommandRecord;
+import com.salesforce.cte.listener.selenium.CommandRecorder;
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestCommandRecorder {
+
+	@Test
+	public void testOneRecordPerCommand() {
+		System.setProperty(ListenerConfiguration.COMMAND_RECORDS, "true");
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			System.clearProperty(ListenerConfiguration.COMMAND_RECORDS);
+		}
+
+		CommandRecorder recorder = (CommandRecorder) EventDispatcher.getInstance(driver).getImmutableListOfEventSinks().stream()
+				.filter(s -> s instanceof CommandRecorder).findFirst().get();
+		for (int i = 0; i < 5; i++)
+			driver.getTitle();
+		driver.quit();
+
+		List<CommandRecord> records = recorder.getRecords();
+		assertEquals(records.size(), 6);
+		CommandRecord getTitle = records.get(0);
+		assertEquals(getTitle.getCmd(), Cmd.getTitle);
+		assertTrue(getTitle.isComplete());
+		assertTrue(getTitle.getDurationNanos() >= 0L);
+		assertNull(getTitle.getIssue());
+		assertEquals(records.get(5).getCmd(), Cmd.quit);
+		assertEquals(recorder.toLegacyEvents().size(), 12);
+	}
+
+	@Test
+	public void testNestedCommands() {
+		CommandRecorder recorder = new CommandRecorder(true, 100);
+		WebDriverEvent beforeClick = new WebDriverEvent(Type.BeforeAction, 1, Cmd.clickByElement);
+		beforeClick.setElementLocator("By.id(\"submit\")");
+		recorder.onEvent(beforeClick);
+		// e.g. a listener taking a screenshot before the click
+		recorder.onEvent(new WebDriverEvent(Type.BeforeGather, 2, Cmd.getScreenshotAs));
+		recorder.onEvent(new WebDriverEvent(Type.AfterGather, 2, Cmd.getScreenshotAs));
+		WebDriverEvent afterClick = new WebDriverEvent(Type.AfterAction, 1, Cmd.clickByElement);
+		recorder.onEvent(afterClick);
+		recorder.onEvent(new WebDriverEvent(Type.BeforeGather, 3, Cmd.getTitle));
+
+		List<CommandRecord> records = recorder.getRecords();
+		assertEquals(records.size(), 3);
+		CommandRecord click = records.get(0);
+		assertTrue(click.isComplete());
+		assertEquals(click.getElementLocator(), "By.id(\"submit\")");
+		assertNull(click.getIssue());
+		assertTrue(records.get(1).isComplete());
+		assertFalse(records.get(2).isComplete());
+
+		List<WebDriverEvent> events = recorder.toLegacyEvents();
+		assertEquals(events.size(), 5);
+		assertEquals(events.get(0).getTypeOfLog(), Type.BeforeAction);
+		assertEquals(events.get(0).getElementLocator(), "By.id(\"submit\")");
+		assertEquals(events.get(2).getTypeOfLog(), Type.AfterGather);
+		assertEquals(events.get(3).getTypeOfLog(), Type.AfterAction);
+		assertEquals(events.get(3).getRecordNumber(), afterClick.getRecordNumber());
+		assertEquals(events.get(4).getCmd(), Cmd.getTitle);
+	}
+
+	@Test
+	public void testFailedCommand() {
+		System.setProperty(ListenerConfiguration.COMMAND_RECORDS, "true");
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			System.clearProperty(ListenerConfiguration.COMMAND_RECORDS);
+		}
+
+		CommandRecorder recorder = (CommandRecorder) EventDispatcher.getInstance(driver).getImmutableListOfEventSinks().stream()
+				.filter(s -> s instanceof CommandRecorder).findFirst().get();
+		driver.getTitle();
+		MockCommandExecutor.setDoTriggerWebDriverException(DriverCommand.GET_TITLE);
+		try {
+			driver.getTitle();
+			fail("getTitle should have failed");
+		} catch (WebDriverException e) {
+			// expected
+		}
+		driver.quit();
+
+		List<CommandRecord> records = recorder.getRecords();
+		assertEquals(records.size(), 3);
+		assertNull(records.get(0).getIssue());
+		CommandRecord failed = records.get(1);
+		assertEquals(failed.getCmd(), Cmd.getTitle);
+		assertTrue(failed.isComplete());
+		assertTrue(failed.getIssue() instanceof WebDriverException);
+		assertEquals(failed.getIssue().getMessage().split("\n")[0], MockCommandExecutor.STATE_EXCEPTION);
+
+		List<WebDriverEvent> events = recorder.toLegacyEvents();
+		assertEquals(events.size(), 6);
+		assertEquals(events.get(2).getTypeOfLog(), Type.BeforeGather);
+		assertEquals(events.get(3).getTypeOfLog(), Type.Exception);
+		assertEquals(events.get(3).getCmd(), Cmd.getTitle);
+		assertTrue(events.get(3).getIssue() instanceof WebDriverException);
+		assertEquals(events.get(5).getCmd(), Cmd.quit);
+	}
+
+	@Test
+	public void testOldestRecordsAreDropped() {
+		CommandRecorder recorder = new CommandRecorder(true, 10);
+		for (int i = 0; i < 25; i++) {
+			recorder.onEvent(new WebDriverEvent(Type.BeforeGather, i, Cmd.getTitle));
+			WebDriverEvent after = new WebDriverEvent(Type.AfterGather, i, Cmd.getTitle);
+			after.setReturnValue("Title " + i);
+			recorder.onEvent(after);
+		}
+		List<CommandRecord> records = recorder.getRecords();
+		assertEquals(records.size(), 10);
+		assertEquals(recorder.getEvictedRecords(), 15L);
+		assertEquals(records.get(9).getReturnValue(), "Title 24");
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.print.PrintOptions;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.IEventListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.ScreenshotListener;
+import com.salesforce.cte.listener.selenium.TestStepListener;
+import com.salesforce.cte.listener.selenium.TraceIdListener;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Kind;
+
+/**
+ * Calls each pair of before and after methods of the {@link EventDispatcher} and checks that
+ * the events are consistent with the command table in {@link Cmd} and replayed to the matching listener callback.
+ */
+public class TestCommandTable {
+
+	@Test
+	public void testAllCommandsAreDispatchedConsistently() throws Exception {
+		// listeners which send commands to the browser themselves would add events
+		String[] disabled = { disableProperty(TraceIdListener.class), disableProperty(ScreenshotListener.class),
+				disableProperty(TestStepListener.class) };
+		for (String property : disabled)
+			System.setProperty(property, "false");
+		ProbeSink.setActive(true);
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			for (String property : disabled)
+				System.clearProperty(property);
+			ProbeSink.setActive(false);
+		}
+		EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+		List<?> sinks = dispatcher.getImmutableListOfEventSinks();
+		ProbeSink probe = (ProbeSink) sinks.get(sinks.size() - 1);
+
+		Set<Cmd> covered = EnumSet.noneOf(Cmd.class);
+		for (Method before : EventDispatcher.class.getDeclaredMethods()) {
+			if (!Modifier.isPublic(before.getModifiers()) || !before.getName().startsWith("before"))
+				continue;
+			Method after = findAfterMethod(before);
+			assertNotNull(after, "no after method for " + before);
+
+			int eventCount = probe.getEvents().size();
+			Object[] beforeArgs = argumentsFor(before);
+			Object[] afterArgs = argumentsFor(after);
+			before.invoke(dispatcher, beforeArgs);
+			after.invoke(dispatcher, afterArgs);
+			assertEquals(probe.getEvents().size(), eventCount + 2, before.getName());
+			WebDriverEvent beforeEvent = probe.getEvents().get(eventCount);
+			WebDriverEvent afterEvent = probe.getEvents().get(eventCount + 1);
+
+			Cmd cmd = beforeEvent.getCmd();
+			assertEquals(afterEvent.getCmd(), cmd, after.getName());
+			assertEquals(beforeEvent.getTypeOfLog(), cmd.getBeforeType(), before.getName());
+			assertEquals(afterEvent.getTypeOfLog(), cmd.getAfterType(), after.getName());
+			assertEquals(afterEvent.getEventNumber(), beforeEvent.getEventNumber(), after.getName());
+			assertReplayed(beforeEvent, before, beforeArgs);
+			assertReplayed(afterEvent, after, afterArgs);
+
+			// only actions complete an event number
+			int expectedNext = afterEvent.getEventNumber() + (cmd.getKind() == Kind.Action ? 1 : 0);
+			dispatcher.beforeGetTitle();
+			assertEquals(probe.getEvents().get(probe.getEvents().size() - 1).getEventNumber(), expectedNext, after.getName());
+			dispatcher.afterGetTitle("title");
+			covered.add(cmd);
+		}
+		assertEquals(covered, EnumSet.allOf(Cmd.class));
+		driver.quit();
+	}
+
+	/**
+	 * Replays the event to a listener which records the callback and checks that it is the one
+	 * corresponding to the dispatcher method, called with the same arguments.
+	 */
+	private static void assertReplayed(WebDriverEvent event, Method dispatched, Object[] args) {
+		List<Object[]> calls = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		IEventListener listener = (IEventListener) Proxy.newProxyInstance(IEventListener.class.getClassLoader(),
+				new Class<?>[] { IEventListener.class }, (proxy, method, methodArgs) -> {
+					names.add(method.getName());
+					calls.add(methodArgs);
+					return null;
+				});
+		event.replay(listener);
+		assertEquals(names, Collections.singletonList(dispatched.getName()), dispatched.toString());
+		Object[] replayedArgs = calls.get(0);
+		assertSame(replayedArgs[0], event, dispatched.toString());
+		assertEquals(Arrays.copyOfRange(replayedArgs, 1, replayedArgs.length), args, dispatched.toString());
+	}
+
+	private static String disableProperty(Class<?> listenerClass) {
+		return String.format(ListenerConfiguration.LISTENER_ENABLED, listenerClass.getSimpleName());
+	}
+
+	/**
+	 * After methods take the same arguments as their before method, plus the result of the command.
+	 */
+	private static Method findAfterMethod(Method before) {
+		String name = "after" + before.getName().substring("before".length());
+		for (Method method : EventDispatcher.class.getDeclaredMethods()) {
+			if (method.getName().equals(name) && isSubsequence(before.getParameterTypes(), method.getParameterTypes()))
+				return method;
+		}
+		return null;
+	}
+
+	private static boolean isSubsequence(Class<?>[] expected, Class<?>[] actual) {
+		if (actual.length - expected.length > 1)
+			return false;
+		int i = 0;
+		for (Class<?> type : actual) {
+			if (i < expected.length && type == expected[i])
+				i++;
+		}
+		return i == expected.length;
+	}
+
+	private static Object[] argumentsFor(Method method) {
+		Class<?>[] types = method.getParameterTypes();
+		Object[] args = new Object[types.length];
+		for (int i = 0; i < types.length; i++)
+			args[i] = dummyValue(types[i]);
+		return args;
+	}
+
+	private static Object dummyValue(Class<?> type) {
+		if (type == String.class || type == Object.class)
+			return "value";
+		if (type == int.class)
+			return 0;
+		if (type == long.class)
+			return 0L;
+		if (type == boolean.class)
+			return false;
+		if (type == CharSequence[].class)
+			return new CharSequence[] { "keys" };
+		if (type == List.class || type == java.util.Collection.class)
+			return Collections.emptyList();
+		if (type == Set.class)
+			return Collections.emptySet();
+		if (type == By.class)
+			return By.id("someId");
+		if (type == OutputType.class)
+			return OutputType.BASE64;
+		if (type == Duration.class)
+			return Duration.ZERO;
+		if (type == File.class)
+			return new File("file.txt");
+		if (type == WindowType.class)
+			return WindowType.TAB;
+		if (type == Dimension.class)
+			return new Dimension(1, 1);
+		if (type == Point.class)
+			return new Point(0, 0);
+		if (type == Rectangle.class)
+			return new Rectangle(0, 0, 1, 1);
+		if (type == Cookie.class)
+			return new Cookie("name", "value");
+		if (type == PrintOptions.class)
+			return new PrintOptions();
+		assertTrue(!type.isPrimitive(), "unsupported parameter type " + type);
+		return null;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+
+public class TestDisabledInstrumentation {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final int WARMUP_COMMANDS = 50_000;
+	private static final int MEASURED_COMMANDS = 200_000;
+
+	@Test
+	public void testDisabledSessionSendsOnlyItsOwnCommands() {
+		CountingCommandExecutor executor = new CountingCommandExecutor();
+		MockRemoteWebDriver driver = createDriver(executor, false);
+		EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+		assertFalse(dispatcher.isEnabled());
+		assertTrue(dispatcher.getImmutableListOfEventListeners().isEmpty());
+		assertTrue(dispatcher.getImmutableListOfEventSinks().isEmpty());
+
+		String threadName = Thread.currentThread().getName();
+		executor.getCommandNames().clear();
+		driver.findElement(By.id("someId")).click();
+		// no highlighting script, no screenshot and no URL lookup for the test step
+		assertEquals(executor.getCommandNames().size(), 2);
+		assertEquals(executor.getCommandNames().get(0), DriverCommand.FIND_ELEMENT);
+		assertEquals(executor.getCommandNames().get(1), DriverCommand.CLICK_ELEMENT);
+		assertEquals(Thread.currentThread().getName(), threadName);
+		driver.quit();
+	}
+
+	/**
+	 * Compares the time per command of a disabled session with an enabled one and with
+	 * calling the command executor directly, which is the lower bound for any RemoteWebDriver.
+	 */
+	@Test
+	public void testDisabledSessionOverhead() {
+		CountingCommandExecutor executor = new CountingCommandExecutor();
+		executor.setCounting(false);
+		MockRemoteWebDriver disabled = createDriver(executor, false);
+		MockRemoteWebDriver enabled = createDriver(new MockCommandExecutor(), true);
+		Command command = new Command(disabled.getSessionId(), DriverCommand.GET_TITLE);
+
+		long direct = nanosPerCommand(() -> executor.execute(command));
+		long disabledNanos = nanosPerCommand(disabled::getTitle);
+		long enabledNanos = nanosPerCommand(enabled::getTitle);
+		LOGGER.log(Level.INFO, "Nanoseconds per getTitle: {0} executor only, {1} disabled, {2} enabled",
+				new Object[] { direct, disabledNanos, enabledNanos });
+		disabled.quit();
+		enabled.quit();
+	}
+
+	private static long nanosPerCommand(Runnable command) {
+		for (int i = 0; i < WARMUP_COMMANDS; i++)
+			command.run();
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_COMMANDS; i++)
+			command.run();
+		return (System.nanoTime() - start) / MEASURED_COMMANDS;
+	}
+
+	private static MockRemoteWebDriver createDriver(MockCommandExecutor executor, boolean isEnabled) {
+		System.setProperty(ListenerConfiguration.ENABLED, Boolean.toString(isEnabled));
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(executor, mcap);
+			executor.setRemoteWebDriver(driver);
+			return driver;
+		} finally {
+			System.clearProperty(ListenerConfiguration.ENABLED);
+		}
+	}
+
+	private static class CountingCommandExecutor extends MockCommandExecutor {
+		private final List<String> commandNames = new ArrayList<>();
+		private boolean isCounting = true;
+
+		@Override
+		public Response execute(Command command) {
+			if (isCounting)
+				commandNames.add(command.getName());
+			return super.execute(command);
+		}
+
+		void setCounting(boolean isCounting) {
+			this.isCounting = isCounting;
+		}
+
+		List<String> getCommandNames() {
+			return commandNames;
+		}
+	}
+}
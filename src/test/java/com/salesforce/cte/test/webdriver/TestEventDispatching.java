@@ -9,17 +9,22 @@ package com.salesforce.cte.test.webdriver;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Coordinates;
 import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DriverCommand;
 import org.openqa.selenium.remote.RemoteWebElement;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
@@ -34,6 +39,8 @@ import com.salesforce.cte.listener.selenium.FullListener;
 import com.salesforce.cte.listener.selenium.IEventListener;
 import com.salesforce.cte.listener.selenium.ScreenshotListener;
 import com.salesforce.cte.listener.selenium.TestStepListener;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
 import com.salesforce.cte.listener.testng.TestListener;
 
 /**
@@ -60,6 +67,11 @@ public class TestEventDispatching {
 		MockCommandExecutor mce = new MockCommandExecutor();
 		wd = new MockRemoteWebDriver(mce, mcap);
 		mce.setRemoteWebDriver(wd);
+		bindListeners();
+		System.setProperty("testadvisor.capturescreenshot", "true");
+	}
+
+	private static void bindListeners() {
 		List<IEventListener> eventListeners = EventDispatcher.getInstance().getImmutableListOfEventListeners();
 		for (IEventListener listener : eventListeners) {
 			if (listener instanceof FullListener) {
@@ -72,7 +84,6 @@ public class TestEventDispatching {
                 testStepListener = (TestStepListener) listener;
             }
 		}
-		System.setProperty("testadvisor.capturescreenshot", "true");
 	}
 
     @BeforeMethod
@@ -159,6 +170,22 @@ public class TestEventDispatching {
 		assertEventCounters("sendKeys", 4, 1, 1);
 	}
 
+	@Test(priority = 2)
+	public void testRenderedParameters() {
+		setEventCounters();
+		WebElement we = wd.findElement(By.id("someId"));
+		we.sendKeys("abc");
+		List<WebDriverEvent> events = fullListener.getListOfEventsRecorded();
+		WebDriverEvent afterFindElement = events.get(numOfEventsBefore + 1);
+		assertEquals(afterFindElement.getCmd(), Cmd.findElement);
+		assertEquals(afterFindElement.getParam1(), "By.id(\"someId\")");
+		assertEquals(afterFindElement.getReturnValue(), "By.id(\"someId\")");
+		WebDriverEvent beforeSendKeys = events.get(numOfEventsBefore + 2);
+		assertEquals(beforeSendKeys.getCmd(), Cmd.sendKeysByElement);
+		assertEquals(beforeSendKeys.getElementLocator(), "By.id(\"someId\")");
+		assertEquals(beforeSendKeys.getParam1(), "[abc]");
+	}
+
 	@Test(priority = 2)
 	public void testClear() {
 		WebElement we = wd.findElement(By.id("someId"));
@@ -788,7 +815,8 @@ public class TestEventDispatching {
 	public void testWebDriverExceptionHandling() {
 		setEventCounters();
 		boolean wasExceptionThrown = false;
-		MockCommandExecutor.setDoTriggerWebDriverException();
+		// the screenshot taken before get must not use up the forced exception
+		MockCommandExecutor.setDoTriggerWebDriverException(DriverCommand.GET);
 		// this command will not get executed due to a forced exception
 		try {
 			wd.get("https://www.salesforce.com");
@@ -796,7 +824,9 @@ public class TestEventDispatching {
 			wasExceptionThrown = true;
 		}
 		Assert.assertTrue(wasExceptionThrown, "WebDriverException not thrown as expected");
-		assertEventCounters("get", 2, 1, 0);
+		// listeners see the before event of get as usual, only the command itself fails: FullListener
+		// records before get, before and after the screenshot and the exception
+		assertEventCounters("get", 4, 1, 1);
 	}
 
 	/*
@@ -829,12 +859,113 @@ public class TestEventDispatching {
 		MockCommandExecutor mce = new MockCommandExecutor();
 		wd = new MockRemoteWebDriver(mce, mcap);
 		mce.setRemoteWebDriver(wd);
+		// every session has its own dispatcher and listener instances
+		bindListeners();
 
 		setEventCounters();
 		wd.manage().timeouts().scriptTimeout(Duration.ofSeconds(5));
 		assertEventCounters("setScriptTimeout", 2, 0, 0);
 	}
 
+	@Test(priority = 2)
+	public void testParallelWebDriversUseSeparateDispatchers() throws InterruptedException {
+		MutableCapabilities mcap = new MutableCapabilities();
+		mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+		MockRemoteWebDriver[] drivers = new MockRemoteWebDriver[2];
+		Thread[] threads = new Thread[drivers.length];
+		for (int i = 0; i < drivers.length; i++) {
+			final int index = i;
+			threads[i] = new Thread(() -> {
+				MockCommandExecutor mce = new MockCommandExecutor();
+				drivers[index] = new MockRemoteWebDriver(mce, mcap);
+				mce.setRemoteWebDriver(drivers[index]);
+				for (int j = 0; j < 10; j++)
+					drivers[index].getTitle();
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		EventDispatcher first = EventDispatcher.getInstance(drivers[0]);
+		EventDispatcher second = EventDispatcher.getInstance(drivers[1]);
+		Assert.assertNotSame(first, second);
+		for (EventDispatcher dispatcher : new EventDispatcher[] { first, second }) {
+			IEventListener listener = dispatcher.getImmutableListOfEventListeners().get(0);
+			assertEquals(listener.getListOfEventsRecorded().size(), 20);
+		}
+		for (MockRemoteWebDriver driver : drivers)
+			driver.quit();
+		// restore binding of this thread to the driver used by the other tests
+		EventDispatcher.getInstance(wd);
+	}
+
+	@Test(priority = 2)
+	public void testDispatcherIsRemovedIfSessionFails() {
+		MutableCapabilities mcap = new MutableCapabilities();
+		mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+		int numOfDispatchersBefore = EventDispatcher.getNumberOfInstances();
+		try {
+			// session cannot be started
+			MockCommandExecutor.setDoTriggerWebDriverException();
+			try {
+				new MockRemoteWebDriver(new MockCommandExecutor(), mcap);
+				Assert.fail("WebDriverException not thrown as expected");
+			} catch (WebDriverException e) {
+				// expected
+			}
+			assertEquals(EventDispatcher.getNumberOfInstances(), numOfDispatchersBefore);
+
+			// quit fails
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+			assertEquals(EventDispatcher.getNumberOfInstances(), numOfDispatchersBefore + 1);
+			MockCommandExecutor.setDoTriggerWebDriverException();
+			try {
+				driver.quit();
+				Assert.fail("WebDriverException not thrown as expected");
+			} catch (WebDriverException e) {
+				// expected
+			}
+			assertEquals(EventDispatcher.getNumberOfInstances(), numOfDispatchersBefore);
+		} finally {
+			// restore binding of this thread to the driver used by the other tests
+			EventDispatcher.getInstance(wd);
+		}
+	}
+
+	@Test(priority = 2)
+	public void testBindingIsDroppedOnceSessionIsQuit() throws Exception {
+		MutableCapabilities mcap = new MutableCapabilities();
+		mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+		ExecutorService pooledThread = Executors.newSingleThreadExecutor();
+		try {
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = pooledThread.submit(() -> new MockRemoteWebDriver(mce, mcap)).get();
+			mce.setRemoteWebDriver(driver);
+			EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+			assertSame(pooledThread.submit(() -> EventDispatcher.getInstance()).get(), dispatcher);
+
+			// quit by another thread than the one the session is bound to
+			driver.quit();
+			assertNotSame(pooledThread.submit(() -> EventDispatcher.getInstance()).get(), dispatcher);
+			assertNotSame(EventDispatcher.getInstance(), dispatcher);
+		} finally {
+			pooledThread.shutdown();
+			// restore binding of this thread to the driver used by the other tests
+			EventDispatcher.getInstance(wd);
+		}
+	}
+
+	@Test(priority = 2)
+	public void testWebElementUsesDispatcherOfItsDriver() {
+		RemoteWebElement element = (RemoteWebElement) wd.findElement(By.id("someId"));
+		numOfEventsBefore = fullListener.getListOfEventsRecorded().size();
+		element.getTagName();
+		assertEquals(fullListener.getListOfEventsRecorded().size(), numOfEventsBefore + 2);
+	}
+
 	/*
 	 * Tests for RemoteKeyboard
 	 */
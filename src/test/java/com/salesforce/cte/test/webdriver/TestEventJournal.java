@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventJournalReader;
+import com.salesforce.cte.listener.selenium.JsonLinesEventSink;
+import com.salesforce.cte.listener.selenium.MappedEventJournal;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestEventJournal {
+
+	@Test
+	public void testAllEventsAreRecoveredWithoutClosing() throws IOException {
+		File directory = Files.createTempDirectory("journal").toFile();
+		File journalFile = new File(directory, "events.journal");
+		List<WebDriverEvent> events = createEvents(100);
+		// small segments, so the events span several of them
+		MappedEventJournal journal = new MappedEventJournal(journalFile, 512);
+		for (WebDriverEvent event : events)
+			journal.append(event);
+		assertTrue(new File(journalFile.getPath() + ".0002").isFile());
+
+		ByteArrayOutputStream recovered = new ByteArrayOutputStream();
+		assertEquals(EventJournalReader.recoverToJsonLines(journalFile, recovered), 100);
+		assertEquals(new String(recovered.toByteArray(), StandardCharsets.UTF_8), toJsonLines(events));
+	}
+
+	@Test
+	public void testRecoveryStopsAtCorruptedRecord() throws IOException {
+		File directory = Files.createTempDirectory("journal").toFile();
+		File journalFile = new File(directory, "events.journal");
+		MappedEventJournal journal = new MappedEventJournal(journalFile, 1 << 16);
+		for (WebDriverEvent event : createEvents(10))
+			journal.append(event);
+		journal.close();
+
+		List<String> lines = recover(journalFile);
+		assertEquals(lines.size(), 10);
+		// damage the payload of the last frame as a torn write would
+		try (RandomAccessFile segment = new RandomAccessFile(new File(journalFile.getPath() + ".0000"), "rw")) {
+			long end = 5;
+			segment.seek(end);
+			int length;
+			long lastFrame = end;
+			while ((length = segment.readInt()) != 0) {
+				lastFrame = end;
+				end += 8 + length;
+				segment.seek(end);
+			}
+			segment.seek(lastFrame + 8);
+			int b = segment.read();
+			segment.seek(lastFrame + 8);
+			segment.write(b ^ 0xFF);
+		}
+		assertEquals(recover(journalFile), lines.subList(0, 9));
+	}
+
+	private static List<String> recover(File journalFile) throws IOException {
+		ByteArrayOutputStream recovered = new ByteArrayOutputStream();
+		EventJournalReader.recoverToJsonLines(journalFile, recovered);
+		List<String> lines = new ArrayList<>();
+		for (String line : new String(recovered.toByteArray(), StandardCharsets.UTF_8).split("\n"))
+			if (!line.isEmpty())
+				lines.add(line);
+		return lines;
+	}
+
+	private static String toJsonLines(List<WebDriverEvent> events) throws IOException {
+		JsonLinesEventSink sink = new JsonLinesEventSink(Files.createTempDirectory("events").toFile(), 0, 0);
+		for (WebDriverEvent event : events)
+			sink.onEvent(event);
+		return new String(Files.readAllBytes(sink.getFile().toPath()), StandardCharsets.UTF_8);
+	}
+
+	private static List<WebDriverEvent> createEvents(int numOfEvents) {
+		List<WebDriverEvent> events = new ArrayList<>();
+		for (int i = 0; i < numOfEvents; i++) {
+			WebDriverEvent event = new WebDriverEvent((i % 2 == 0) ? Type.BeforeAction : Type.AfterAction, i / 2, Cmd.clickByElement);
+			event.setElementLocator("By.id(\"button" + (i % 4) + "\")");
+			events.add(event);
+		}
+		return events;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.ScreenshotListener;
+import com.salesforce.cte.listener.selenium.TestStepListener;
+import com.salesforce.cte.listener.selenium.TraceIdListener;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestEventPooling {
+	private static final Logger LOGGER = Logger.getLogger( Logger.GLOBAL_LOGGER_NAME );
+	private static final int WARMUP_COMMANDS = 50_000;
+	private static final int MEASURED_COMMANDS = 200_000;
+
+	@Test
+	public void testRecordedEventsAreCopies() {
+		System.setProperty(ListenerConfiguration.DISPATCH_POOLING, "true");
+		MockRemoteWebDriver driver;
+		try {
+			driver = createDriver();
+		} finally {
+			System.clearProperty(ListenerConfiguration.DISPATCH_POOLING);
+		}
+
+		FullListener fullListener = (FullListener) EventDispatcher.getInstance(driver).getImmutableListOfEventListeners().get(0);
+		for (int i = 0; i < 40; i++)
+			driver.getTitle();
+
+		List<WebDriverEvent> events = fullListener.getListOfEventsRecorded();
+		assertEquals(events.size(), 80);
+		for (int i = 0; i < events.size(); i++) {
+			WebDriverEvent event = events.get(i);
+			assertFalse(event.isPooled());
+			try {
+				event.setReturnValue(null);
+				fail("recorded event is mutable");
+			} catch (UnsupportedOperationException e) {
+				// expected
+			}
+			assertEquals(event.getCmd(), Cmd.getTitle);
+			assertEquals(event.getTypeOfLog(), (i % 2 == 0) ? Type.BeforeGather : Type.AfterGather);
+			if (i > 0)
+				assertNotSame(event, events.get(i - 1));
+		}
+		driver.quit();
+	}
+
+	/**
+	 * Compares the bytes allocated per dispatched command with and without pooling. Only a listener
+	 * which does not keep any events is registered, so the numbers show the overhead of the dispatcher.
+	 */
+	@Test
+	public void testPoolingReducesAllocation() {
+		java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean)
+				|| !((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported())
+			return;
+
+		long unpooled = bytesPerCommand((com.sun.management.ThreadMXBean) threadBean, false);
+		long pooled = bytesPerCommand((com.sun.management.ThreadMXBean) threadBean, true);
+		LOGGER.log(Level.INFO, "Bytes allocated per command: {0} without pooling, {1} with pooling", new Object[] { unpooled, pooled });
+		assertTrue(pooled < unpooled);
+	}
+
+	private static long bytesPerCommand(com.sun.management.ThreadMXBean threadBean, boolean isPooling) {
+		String[] disabled = { disableProperty(FullListener.class), disableProperty(TraceIdListener.class),
+				disableProperty(ScreenshotListener.class), disableProperty(TestStepListener.class) };
+		for (String property : disabled)
+			System.setProperty(property, "false");
+		System.setProperty(ListenerConfiguration.DISPATCH_POOLING, Boolean.toString(isPooling));
+		ProbeListener.setActive(true);
+		MockRemoteWebDriver driver;
+		try {
+			driver = createDriver();
+		} finally {
+			for (String property : disabled)
+				System.clearProperty(property);
+			System.clearProperty(ListenerConfiguration.DISPATCH_POOLING);
+			ProbeListener.setActive(false);
+		}
+
+		EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+		ProbeListener probe = (ProbeListener) dispatcher.getImmutableListOfEventListeners().get(0);
+		dispatchGetTitle(dispatcher, WARMUP_COMMANDS);
+		long threadId = Thread.currentThread().getId();
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		dispatchGetTitle(dispatcher, MEASURED_COMMANDS);
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+		assertEquals(probe.getEventCount(), 2 * (WARMUP_COMMANDS + MEASURED_COMMANDS));
+		driver.quit();
+		return allocated / MEASURED_COMMANDS;
+	}
+
+	private static void dispatchGetTitle(EventDispatcher dispatcher, int commands) {
+		for (int i = 0; i < commands; i++) {
+			dispatcher.beforeGetTitle();
+			dispatcher.afterGetTitle("title");
+		}
+	}
+
+	private static String disableProperty(Class<?> listenerClass) {
+		return String.format(ListenerConfiguration.LISTENER_ENABLED, listenerClass.getSimpleName());
+	}
+
+	private static MockRemoteWebDriver createDriver() {
+		MutableCapabilities mcap = new MutableCapabilities();
+		mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+		MockCommandExecutor mce = new MockCommandExecutor();
+		MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+		mce.setRemoteWebDriver(driver);
+		return driver;
+	}
+}
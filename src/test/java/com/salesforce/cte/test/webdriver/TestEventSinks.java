@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.EventListenerSink;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.IEventSink;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestEventSinks {
+
+	@Test
+	public void testSinkReceivesEvents() {
+		ProbeSink.setActive(true);
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			ProbeSink.setActive(false);
+		}
+
+		List<IEventSink> sinks = EventDispatcher.getInstance(driver).getImmutableListOfEventSinks();
+		// listeners are wrapped, the sink comes last as it has the default priority
+		assertTrue(sinks.get(0) instanceof EventListenerSink);
+		assertTrue(((EventListenerSink) sinks.get(0)).getListener() instanceof FullListener);
+		ProbeSink probe = (ProbeSink) sinks.get(sinks.size() - 1);
+
+		for (int i = 0; i < 3; i++)
+			driver.getTitle();
+		assertEquals(probe.getEvents().size(), 6);
+		assertEquals(probe.getEvents().get(0).getCmd(), Cmd.getTitle);
+		assertEquals(probe.getEvents().get(0).getTypeOfLog(), Type.BeforeGather);
+		assertEquals(probe.getEvents().get(1).getTypeOfLog(), Type.AfterGather);
+		assertEquals(probe.getTitles().size(), 3);
+		assertEquals(probe.getTitles().get(0), MockCommandExecutor.STATE_OK);
+		driver.quit();
+	}
+}
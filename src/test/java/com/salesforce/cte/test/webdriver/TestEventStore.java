@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.RingBufferEventStore;
+import com.salesforce.cte.listener.selenium.RingBufferEventStore.Overflow;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestEventStore {
+
+	@Test
+	public void testDropOldestKeepsLatestEvents() {
+		RingBufferEventStore store = new RingBufferEventStore(6, Overflow.DROP_OLDEST);
+		assertEquals(store.getCapacity(), 8);
+		for (int i = 0; i < 20; i++)
+			store.add(newEvent(i));
+
+		List<WebDriverEvent> events = store.snapshot();
+		assertEquals(events.size(), 8);
+		for (int i = 0; i < 8; i++)
+			assertEquals(events.get(i).getEventNumber(), 12 + i);
+		assertEquals(store.size(), 8);
+		assertEquals(store.getEvictedEvents(), 12L);
+	}
+
+	@Test
+	public void testDropNewestKeepsFirstEvents() {
+		RingBufferEventStore store = new RingBufferEventStore(8, Overflow.DROP_NEWEST);
+		for (int i = 0; i < 20; i++)
+			store.add(newEvent(i));
+
+		List<WebDriverEvent> events = store.snapshot();
+		assertEquals(events.size(), 8);
+		for (int i = 0; i < 8; i++)
+			assertEquals(events.get(i).getEventNumber(), i);
+		assertEquals(store.getEvictedEvents(), 12L);
+	}
+
+	@Test
+	public void testConcurrentWriters() throws InterruptedException {
+		RingBufferEventStore store = new RingBufferEventStore(1024, Overflow.DROP_OLDEST);
+		List<Thread> writers = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			writers.add(new Thread(() -> {
+				for (int i = 0; i < 1000; i++)
+					store.add(newEvent(i));
+			}));
+		}
+		for (Thread writer : writers)
+			writer.start();
+		// snapshots taken while writing never contain gaps filled with null
+		while (writers.get(0).isAlive()) {
+			for (WebDriverEvent event : store.snapshot())
+				assertTrue(event != null);
+		}
+		for (Thread writer : writers)
+			writer.join();
+
+		assertEquals(store.snapshot().size(), 1024);
+		assertEquals(store.getEvictedEvents(), 4000L - 1024L);
+	}
+
+	@Test
+	public void testListenerStoreIsBounded() {
+		System.setProperty(ListenerConfiguration.STORE_CAPACITY, "16");
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			System.clearProperty(ListenerConfiguration.STORE_CAPACITY);
+		}
+
+		FullListener fullListener = (FullListener) EventDispatcher.getInstance(driver).getImmutableListOfEventListeners().get(0);
+		for (int i = 0; i < 50; i++)
+			driver.getTitle();
+		List<WebDriverEvent> events = fullListener.getListOfEventsRecorded();
+		assertEquals(events.size(), 16);
+		assertEquals(events.get(15).getTypeOfLog(), Type.AfterGather);
+		assertEquals(fullListener.getNumOfEventsEvicted(), 100L - 16L);
+		driver.quit();
+	}
+
+	private static WebDriverEvent newEvent(int eventNumber) {
+		return new WebDriverEvent(Type.BeforeAction, eventNumber, Cmd.get);
+	}
+}
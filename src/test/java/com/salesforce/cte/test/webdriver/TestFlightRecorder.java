@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.admin.TestAdvisorAdministrator;
+import com.salesforce.cte.common.TestEvent;
+import com.salesforce.cte.common.TestEventType;
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FlightRecorder;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestFlightRecorder {
+	private static final String CAPTURE_SCREENSHOT = "testadvisor.capturescreenshot";
+
+	@Test
+	public void testEventsAndScreenshotsArePersistedOnceAfterException() {
+		String captureScreenshot = System.getProperty(CAPTURE_SCREENSHOT);
+		System.setProperty(CAPTURE_SCREENSHOT, "true");
+		System.setProperty(ListenerConfiguration.FLIGHT_RECORDER, "true");
+		System.setProperty(ListenerConfiguration.FLIGHT_RECORDER_EVENTS, "16");
+		System.setProperty(ListenerConfiguration.FLIGHT_RECORDER_SCREENSHOTS, "2");
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+
+			EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+			FlightRecorder flightRecorder = dispatcher.getFlightRecorder();
+			assertNotNull(flightRecorder);
+			FullListener fullListener = (FullListener) dispatcher.getImmutableListOfEventListeners().get(0);
+			int numOfScreenshotsBefore = getScreenshotEvents().size();
+
+			WebElement element = driver.findElement(By.id("someId"));
+			for (int i = 0; i < 5; i++)
+				element.click();
+			// nothing has been persisted for the passing commands
+			assertTrue(fullListener.getListOfEventsRecorded().isEmpty());
+			assertEquals(flightRecorder.getNumOfScreenshots(), 2);
+			assertEquals(getScreenshotEvents().size(), numOfScreenshotsBefore);
+
+			// long values are kept compressed until they are persisted
+			String script = String.join("", Collections.nCopies(100, "return document.title;"));
+			driver.executeScript(script);
+
+			// a wait polling for an element fails several times, which is persisted once at the end of the test case
+			for (int i = 0; i < 3; i++) {
+				MockCommandExecutor.setDoTriggerWebDriverException();
+				try {
+					driver.getTitle();
+				} catch (WebDriverException e) {
+					// expected
+				}
+			}
+			assertTrue(fullListener.getListOfEventsRecorded().isEmpty());
+			assertEquals(flightRecorder.getNumOfScreenshots(), 2);
+			dispatcher.finishTestCase();
+			assertEquals(flightRecorder.getNumOfScreenshots(), 0);
+			List<TestEvent> screenshotEvents = getScreenshotEvents();
+			assertEquals(screenshotEvents.size(), numOfScreenshotsBefore + 2);
+			for (TestEvent screenshotEvent : screenshotEvents.subList(numOfScreenshotsBefore, screenshotEvents.size()))
+				assertTrue(new File(screenshotEvent.getScreenshotPath()).isFile());
+			List<WebDriverEvent> events = fullListener.getListOfEventsRecorded();
+			assertEquals(events.size(), 16);
+			assertEquals(events.get(15).getTypeOfLog(), Type.Exception);
+			assertTrue(events.stream().anyMatch(event -> event.getCmd() == Cmd.executeScript && script.equals(event.getParam1())));
+
+			// nothing is left to persist
+			dispatcher.finishTestCase();
+			assertEquals(fullListener.getListOfEventsRecorded().size(), 16);
+			assertEquals(getScreenshotEvents().size(), numOfScreenshotsBefore + 2);
+			driver.quit();
+		} finally {
+			if (captureScreenshot == null)
+				System.clearProperty(CAPTURE_SCREENSHOT);
+			else
+				System.setProperty(CAPTURE_SCREENSHOT, captureScreenshot);
+			System.clearProperty(ListenerConfiguration.FLIGHT_RECORDER);
+			System.clearProperty(ListenerConfiguration.FLIGHT_RECORDER_EVENTS);
+			System.clearProperty(ListenerConfiguration.FLIGHT_RECORDER_SCREENSHOTS);
+		}
+	}
+
+	@Test
+	public void testScreenshotsOfPassingTestCaseAreDiscarded() {
+		String captureScreenshot = System.getProperty(CAPTURE_SCREENSHOT);
+		System.setProperty(CAPTURE_SCREENSHOT, "true");
+		System.setProperty(ListenerConfiguration.FLIGHT_RECORDER, "true");
+		System.setProperty(ListenerConfiguration.FLIGHT_RECORDER_SCREENSHOTS, "4");
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+
+			EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+			FlightRecorder flightRecorder = dispatcher.getFlightRecorder();
+			int numOfScreenshotsBefore = getScreenshotEvents().size();
+
+			// the first test case passes
+			WebElement element = driver.findElement(By.id("someId"));
+			for (int i = 0; i < 5; i++)
+				element.click();
+			assertEquals(flightRecorder.getNumOfScreenshots(), 4);
+			dispatcher.finishTestCase();
+			assertEquals(flightRecorder.getNumOfScreenshots(), 0);
+			assertEquals(getScreenshotEvents().size(), numOfScreenshotsBefore);
+
+			// the second one fails and only persists its own screenshots
+			element.click();
+			MockCommandExecutor.setDoTriggerWebDriverException();
+			try {
+				driver.getTitle();
+			} catch (WebDriverException e) {
+				// expected
+			}
+			int numOfScreenshots = flightRecorder.getNumOfScreenshots();
+			assertTrue(numOfScreenshots > 0 && numOfScreenshots < 4);
+			dispatcher.finishTestCase();
+			assertEquals(getScreenshotEvents().size(), numOfScreenshotsBefore + numOfScreenshots);
+			driver.quit();
+		} finally {
+			if (captureScreenshot == null)
+				System.clearProperty(CAPTURE_SCREENSHOT);
+			else
+				System.setProperty(CAPTURE_SCREENSHOT, captureScreenshot);
+			System.clearProperty(ListenerConfiguration.FLIGHT_RECORDER);
+			System.clearProperty(ListenerConfiguration.FLIGHT_RECORDER_SCREENSHOTS);
+		}
+	}
+
+	private static List<TestEvent> getScreenshotEvents() {
+		return TestAdvisorAdministrator.getInstance().getTestCaseExecution().getEventList().stream()
+				.filter(event -> event.getEventType() == TestEventType.SCREEN_SHOT).collect(Collectors.toList());
+	}
+}
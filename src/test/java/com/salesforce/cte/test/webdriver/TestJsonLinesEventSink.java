@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.JsonLinesEventSink;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestJsonLinesEventSink {
+
+	@Test
+	public void testEachEventIsOneLine() throws IOException {
+		File directory = Files.createTempDirectory("events").toFile();
+		System.setProperty(ListenerConfiguration.JSON_LINES_DIR, directory.getAbsolutePath());
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			System.clearProperty(ListenerConfiguration.JSON_LINES_DIR);
+		}
+
+		JsonLinesEventSink sink = (JsonLinesEventSink) EventDispatcher.getInstance(driver).getImmutableListOfEventSinks().stream()
+				.filter(s -> s instanceof JsonLinesEventSink).findFirst().get();
+		for (int i = 0; i < 10; i++)
+			driver.getTitle();
+		driver.quit();
+
+		File file = sink.getFile();
+		assertNotNull(file);
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals(lines.size(), 22);
+		JsonFactory jsonFactory = new JsonFactory();
+		for (String line : lines) {
+			try (JsonParser parser = jsonFactory.createParser(line)) {
+				while (parser.nextToken() != null) {
+					// fails on malformed JSON
+				}
+			}
+		}
+		assertTrue(lines.get(0).contains("\"cmd\":\"getTitle\""));
+		assertTrue(lines.get(21).contains("\"cmd\":\"quit\""));
+	}
+
+	@Test
+	public void testEventsAreFlushedOnThreshold() throws IOException {
+		File directory = Files.createTempDirectory("events").toFile();
+		JsonLinesEventSink sink = new JsonLinesEventSink(directory, 1024, 60_000);
+		sink.onEvent(new WebDriverEvent(Type.BeforeGather, 1, Cmd.getTitle));
+		// still buffered
+		assertEquals(sink.getFile().length(), 0L);
+		for (int i = 0; i < 20; i++)
+			sink.onEvent(new WebDriverEvent(Type.BeforeGather, 1, Cmd.getTitle));
+		assertTrue(sink.getFile().length() >= 1024L);
+
+		try (JsonParser parser = new JsonFactory().createParser(Files.readAllBytes(sink.getFile().toPath()))) {
+			int events = 0;
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+				if (token == JsonToken.START_OBJECT)
+					events++;
+			}
+			assertTrue(events > 0);
+		}
+	}
+
+	@Test
+	public void testIdleSinkIsFlushed() throws IOException, InterruptedException {
+		File directory = Files.createTempDirectory("events").toFile();
+		JsonLinesEventSink sink = new JsonLinesEventSink(directory, 1 << 20, 50);
+		sink.onEvent(new WebDriverEvent(Type.BeforeGather, 1, Cmd.getTitle));
+		// no further event arrives, the buffered one is written anyway
+		long deadline = System.currentTimeMillis() + 5000;
+		while (sink.getFile().length() == 0L && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		assertTrue(sink.getFile().length() > 0L);
+		sink.onTestCaseFinished();
+	}
+
+	@Test
+	public void testLinesHaveAllPropertiesOfExportedEvents() throws IOException {
+		File directory = Files.createTempDirectory("events").toFile();
+		JsonLinesEventSink sink = new JsonLinesEventSink(directory, 0, 60_000);
+		WebDriverEvent event = new WebDriverEvent(Type.BeforeAction, 1, Cmd.get);
+		event.setParam1("https://www.salesforce.com");
+		sink.onEvent(event);
+		sink.onTestCaseFinished();
+
+		List<String> fieldNames = new ArrayList<>();
+		try (JsonParser parser = new JsonFactory().createParser(sink.getFile())) {
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+				if (token == JsonToken.FIELD_NAME)
+					fieldNames.add(parser.getCurrentName());
+			}
+		}
+		// same properties in the same order as the listeners' logEntries, including null values
+		assertEquals(fieldNames, Arrays.asList("recordNumber", "eventNumber", "timeStamp", "timeSinceLastAction",
+				"timeElapsedEvent", "typeOfLog", "cmd", "param1", "param2", "returnValue", "issue", "elementLocator"));
+	}
+}
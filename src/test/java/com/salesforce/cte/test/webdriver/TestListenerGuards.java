@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.GuardedEventSink;
+import com.salesforce.cte.listener.selenium.IEventSink;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestListenerGuards {
+
+	@Test
+	public void testFailingSinkIsSkippedOnceTripped() {
+		CountingSink sink = new CountingSink();
+		sink.isFailing = true;
+		GuardedEventSink guard = new GuardedEventSink(sink, 0, 3, 0);
+		for (int i = 0; i < 10; i++)
+			guard.onEvent(newEvent(i));
+
+		assertEquals(sink.calls, 3);
+		assertTrue(guard.isTripped());
+		assertEquals(guard.getTrips(), 1);
+		assertEquals(guard.getViolations(), 3);
+		assertEquals(guard.getSkippedEvents(), 7L);
+		// each trip is reported once
+		assertEquals(guard.takeUnreportedTrips(), 1);
+		assertEquals(guard.takeUnreportedTrips(), 0);
+	}
+
+	@Test
+	public void testTrippedSinkIsSampledAndRecovers() {
+		CountingSink sink = new CountingSink();
+		sink.isFailing = true;
+		GuardedEventSink guard = new GuardedEventSink(sink, 0, 2, 4);
+		for (int i = 0; i < 10; i++)
+			guard.onEvent(newEvent(i));
+		// 2 calls until tripped, then events 4 and 8 after the trip are sampled
+		assertEquals(sink.calls, 4);
+		assertTrue(guard.isTripped());
+
+		sink.isFailing = false;
+		for (int i = 0; i < 4; i++)
+			guard.onEvent(newEvent(i));
+		assertFalse(guard.isTripped());
+		guard.onEvent(newEvent(4));
+		assertEquals(sink.calls, 6);
+	}
+
+	@Test
+	public void testSlowSinkExceedsBudget() {
+		CountingSink sink = new CountingSink();
+		sink.delayMillis = 20;
+		GuardedEventSink guard = new GuardedEventSink(sink, 5, 2, 0);
+		guard.onEvent(newEvent(0));
+		assertFalse(guard.isTripped());
+		guard.onEvent(newEvent(1));
+		assertTrue(guard.isTripped());
+
+		guard.onEvent(newEvent(2));
+		assertEquals(sink.calls, 2);
+		assertEquals(guard.getSkippedEvents(), 1L);
+	}
+
+	@Test
+	public void testListenerExceptionDoesNotFailCommand() {
+		ProbeSink.setActive(true);
+		ProbeSink.setFailing(true);
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			ProbeSink.setActive(false);
+		}
+
+		try {
+			for (int i = 0; i < 5; i++)
+				assertEquals(driver.getTitle(), MockCommandExecutor.STATE_OK);
+		} finally {
+			ProbeSink.setFailing(false);
+		}
+		GuardedEventSink guard = EventDispatcher.getInstance(driver).getImmutableListOfGuardedSinks().stream()
+				.filter(g -> g.getSink() instanceof ProbeSink).findFirst().get();
+		assertTrue(guard.isTripped());
+		assertEquals(((ProbeSink) guard.getSink()).getEvents().size(), 3);
+		// the trip is reported at the end of the test case, not only when the session quits
+		EventDispatcher.getInstance(driver).finishTestCase();
+		assertEquals(guard.takeUnreportedTrips(), 0);
+		driver.quit();
+	}
+
+	private static WebDriverEvent newEvent(int eventNumber) {
+		return new WebDriverEvent(Type.BeforeGather, eventNumber, Cmd.getTitle);
+	}
+
+	private static class CountingSink implements IEventSink {
+		private int calls = 0;
+		private boolean isFailing = false;
+		private long delayMillis = 0;
+
+		@Override
+		public void onEvent(WebDriverEvent event) {
+			calls++;
+			if (delayMillis > 0) {
+				try {
+					Thread.sleep(delayMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (isFailing)
+				throw new IllegalStateException("Sink failure");
+		}
+	}
+}
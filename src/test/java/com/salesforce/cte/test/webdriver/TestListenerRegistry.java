@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+
+import java.util.List;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.IEventListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.ListenerRegistry;
+import com.salesforce.cte.listener.selenium.ScreenshotListener;
+import com.salesforce.cte.listener.selenium.TestStepListener;
+import com.salesforce.cte.listener.selenium.TraceIdListener;
+
+public class TestListenerRegistry {
+	private static final String FULL_LISTENER_ENABLED = String.format(ListenerConfiguration.LISTENER_ENABLED, "FullListener");
+
+	@Test
+	public void testBuiltInListenersAreOrderedByPriority() {
+		List<IEventListener> listeners = ListenerRegistry.createListeners();
+		assertEquals(listeners.size(), 5);
+		assertEquals(listeners.get(0).getClass(), FullListener.class);
+		assertEquals(listeners.get(1).getClass(), TraceIdListener.class);
+		assertEquals(listeners.get(2).getClass(), ScreenshotListener.class);
+		assertEquals(listeners.get(3).getClass(), TestStepListener.class);
+		// registered by the tests, has the default priority
+		assertEquals(listeners.get(4).getClass(), ProbeListener.class);
+	}
+
+	@Test
+	public void testEachCallCreatesNewInstances() {
+		assertNotSame(ListenerRegistry.createListeners().get(0), ListenerRegistry.createListeners().get(0));
+	}
+
+	@Test
+	public void testDisabledListenerIsNotInstantiated() {
+		String probeListenerEnabled = String.format(ListenerConfiguration.LISTENER_ENABLED, "ProbeListener");
+		System.setProperty(probeListenerEnabled, "false");
+		try {
+			int instancesBefore = ProbeListener.getInstances();
+			assertEquals(ListenerRegistry.createListeners().size(), 4);
+			assertEquals(ProbeListener.getInstances(), instancesBefore);
+		} finally {
+			System.clearProperty(probeListenerEnabled);
+		}
+	}
+
+	@Test
+	public void testDisabledListenerIsNotRegistered() {
+		System.setProperty(FULL_LISTENER_ENABLED, "false");
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			System.clearProperty(FULL_LISTENER_ENABLED);
+		}
+
+		List<IEventListener> listeners = EventDispatcher.getInstance(driver).getImmutableListOfEventListeners();
+		assertEquals(listeners.size(), 4);
+		for (IEventListener listener : listeners)
+			assertFalse(listener instanceof FullListener);
+		// nobody is subscribed to gather commands any longer
+		assertEquals(driver.getTitle(), MockCommandExecutor.STATE_OK);
+		driver.quit();
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openqa.selenium.WebDriverException;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.OffHeapEventStore;
+import com.salesforce.cte.listener.selenium.RingBufferEventStore.Overflow;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestOffHeapEventStore {
+
+	@Test
+	public void testEventsAreReadBackUnchanged() {
+		OffHeapEventStore store = new OffHeapEventStore(OffHeapEventStore.CHUNK_SIZE, 1, Overflow.DROP_OLDEST);
+		WebDriverEvent sendKeys = new WebDriverEvent(Type.BeforeAction, 7, Cmd.sendKeysByElement);
+		sendKeys.setParam1("[Gr\u00fc\u00dfe]");
+		sendKeys.setElementLocator("By.id(\"name\")");
+		WebDriverEvent exception = new WebDriverEvent(Type.Exception, 7, Cmd.sendKeysByElement);
+		exception.setIssue(new WebDriverException("element not interactable"));
+		store.add(sendKeys);
+		store.add(exception);
+
+		List<WebDriverEvent> events = store.snapshot();
+		assertEquals(events.size(), 2);
+		WebDriverEvent restored = events.get(0);
+		assertEquals(restored.getRecordNumber(), sendKeys.getRecordNumber());
+		assertEquals(restored.getEventNumber(), 7);
+		assertEquals(restored.getTimeStamp(), sendKeys.getTimeStamp());
+		assertEquals(restored.getTypeOfLog(), Type.BeforeAction);
+		assertEquals(restored.getCmd(), Cmd.sendKeysByElement);
+		assertEquals(restored.getParam1(), "[Gr\u00fc\u00dfe]");
+		assertNull(restored.getParam2());
+		assertEquals(restored.getElementLocator(), "By.id(\"name\")");
+		assertEquals(events.get(1).getIssue().toString(), exception.getIssue().toString());
+	}
+
+	@Test
+	public void testFlyweightViewAndLookup() {
+		OffHeapEventStore store = new OffHeapEventStore(4096, 4, Overflow.DROP_OLDEST);
+		List<WebDriverEvent> added = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			WebDriverEvent event = new WebDriverEvent(Type.AfterGather, i, Cmd.getTitle);
+			event.setReturnValue("Title " + i);
+			store.add(event);
+			added.add(event);
+		}
+
+		List<Integer> eventNumbers = new ArrayList<>();
+		store.forEach(view -> eventNumbers.add(view.getEventNumber()));
+		assertEquals(eventNumbers.size(), store.size());
+		assertEquals((int) eventNumbers.get(eventNumbers.size() - 1), 199);
+
+		WebDriverEvent last = added.get(199);
+		assertTrue(store.find(last.getRecordNumber(), view -> assertEquals(view.getReturnValue(), "Title 199")));
+		assertFalse(store.find(added.get(0).getRecordNumber() - 1, view -> { }));
+	}
+
+	@Test
+	public void testOldestChunkIsReused() {
+		OffHeapEventStore store = new OffHeapEventStore(1024, 2, Overflow.DROP_OLDEST);
+		for (int i = 0; i < 100; i++)
+			store.add(new WebDriverEvent(Type.BeforeGather, i, Cmd.getTitle));
+		// each record takes 55 bytes plus 4 bytes of index, so a chunk holds 17 of them
+		assertTrue(store.size() <= 34);
+		assertEquals(store.size() + store.getEvictedEvents(), 100L);
+		assertEquals(store.snapshot().get(store.size() - 1).getEventNumber(), 99);
+
+		OffHeapEventStore rejecting = new OffHeapEventStore(1024, 2, Overflow.DROP_NEWEST);
+		for (int i = 0; i < 100; i++)
+			rejecting.add(new WebDriverEvent(Type.BeforeGather, i, Cmd.getTitle));
+		assertEquals(rejecting.size(), 34);
+		assertEquals(rejecting.snapshot().get(0).getEventNumber(), 0);
+	}
+}
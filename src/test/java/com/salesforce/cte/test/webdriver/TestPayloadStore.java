@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.PayloadStore;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestPayloadStore {
+
+	@Test
+	public void testLargeScriptIsReplacedByReference() throws IOException {
+		testLargeScriptIsReplacedByReference(false);
+	}
+
+	@Test
+	public void testLargeScriptIsReplacedByReferenceAsynchronously() throws IOException {
+		testLargeScriptIsReplacedByReference(true);
+	}
+
+	private void testLargeScriptIsReplacedByReference(boolean isAsync) throws IOException {
+		File directory = Files.createTempDirectory("payloads").toFile();
+		System.setProperty(ListenerConfiguration.PAYLOAD_THRESHOLD, "64");
+		System.setProperty(ListenerConfiguration.PAYLOAD_DIR, directory.getAbsolutePath());
+		System.setProperty(ListenerConfiguration.DISPATCH_ASYNC, Boolean.toString(isAsync));
+		MockRemoteWebDriver driver;
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+		} finally {
+			System.clearProperty(ListenerConfiguration.PAYLOAD_THRESHOLD);
+			System.clearProperty(ListenerConfiguration.PAYLOAD_DIR);
+			System.clearProperty(ListenerConfiguration.DISPATCH_ASYNC);
+		}
+
+		char[] filler = new char[1000];
+		Arrays.fill(filler, 'x');
+		String script = "return '" + new String(filler) + "';";
+		driver.executeScript(script);
+		driver.executeScript(script);
+		EventDispatcher.getInstance(driver).flush();
+
+		FullListener listener = (FullListener) EventDispatcher.getInstance(driver).getImmutableListOfEventListeners().stream()
+				.filter(l -> l instanceof FullListener).findFirst().get();
+		List<WebDriverEvent> events = listener.getListOfEventsRecorded().stream()
+				.filter(e -> e.getCmd() == Cmd.executeScript).collect(Collectors.toList());
+		assertEquals(events.size(), 4);
+		PayloadStore store = new PayloadStore(64, directory);
+		for (WebDriverEvent event : events) {
+			assertNotNull(PayloadStore.getHash(event.getParam1()));
+			assertTrue(event.getParam1().length() < 200);
+			assertTrue(event.getParam1().contains("length:1010] return 'xxx"));
+			assertEquals(store.resolve(event.getParam1()), script);
+		}
+		// the script is written only once
+		assertEquals(directory.listFiles().length, 1);
+		driver.quit();
+	}
+
+	@Test
+	public void testReferenceWithoutDirectory() throws IOException {
+		PayloadStore store = new PayloadStore(10, null);
+		WebDriverEvent event = new WebDriverEvent(Type.AfterGather, 1, Cmd.getPageSource);
+		event.setReturnValue("<html><body>large page</body></html>");
+		event.setParam1("short");
+		WebDriverEvent externalized = store.externalize(event);
+
+		// the event itself keeps the full value for other sinks
+		assertEquals(event.getReturnValue(), "<html><body>large page</body></html>");
+		assertEquals(externalized.getParam1(), "short");
+		assertNull(PayloadStore.getHash(externalized.getParam1()));
+		String reference = externalized.getReturnValue();
+		assertTrue(reference.startsWith("[payload sha256:"));
+		assertTrue(reference.endsWith("length:36] <html><bod..."));
+		assertEquals(store.resolve(reference), reference);
+		// events without large values are kept as they are
+		WebDriverEvent shortEvent = new WebDriverEvent(Type.AfterGather, 2, Cmd.getTitle);
+		shortEvent.setReturnValue("title");
+		assertSame(store.externalize(shortEvent), shortEvent);
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.ReturnObjectRetention;
+import com.salesforce.cte.listener.selenium.ReturnObjectSummary;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestReturnObjectRetention {
+
+	@Test
+	public void testKeepIsDefault() {
+		MockRemoteWebDriver driver = createDriver(null);
+		driver.getScreenshotAs(OutputType.BYTES);
+
+		FullListener listener = getFullListener(driver);
+		WebDriverEvent event = getAfterEvent(listener, Cmd.getScreenshotAs);
+		assertTrue(event.getReturnObject() instanceof byte[]);
+		assertTrue(listener.getRetainedReturnObjectBytes() >= ((byte[]) event.getReturnObject()).length);
+		driver.quit();
+	}
+
+	@Test
+	public void testSummaryReplacesReturnObject() {
+		MockRemoteWebDriver driver = createDriver(ReturnObjectRetention.SUMMARY);
+		byte[] screenshot = driver.getScreenshotAs(OutputType.BYTES);
+		driver.findElements(By.id("row"));
+
+		FullListener listener = getFullListener(driver);
+		ReturnObjectSummary summary = (ReturnObjectSummary) getAfterEvent(listener, Cmd.getScreenshotAs).getReturnObject();
+		assertEquals(summary.getType(), "[B");
+		assertEquals(summary.getSize(), screenshot.length);
+		ReturnObjectSummary elements = (ReturnObjectSummary) getAfterEvent(listener, Cmd.findElements).getReturnObject();
+		assertEquals(elements.getSize(), 1);
+		assertTrue(getAfterEvent(listener, Cmd.findElements).toString().contains("size:1"));
+		driver.quit();
+	}
+
+	@Test
+	public void testDropReleasesReturnObject() {
+		MockRemoteWebDriver driver = createDriver(ReturnObjectRetention.DROP);
+		driver.getScreenshotAs(OutputType.BYTES);
+
+		FullListener listener = getFullListener(driver);
+		assertNull(getAfterEvent(listener, Cmd.getScreenshotAs).getReturnObject());
+		assertEquals(listener.getRetainedReturnObjectBytes(), 0L);
+		driver.quit();
+	}
+
+	@Test
+	public void testEstimatedSize() {
+		assertEquals(ReturnObjectSummary.estimateSize(null), 0L);
+		assertEquals(ReturnObjectSummary.estimateSize(new byte[1000]), 1016L);
+		assertTrue(ReturnObjectSummary.estimateSize("x") < ReturnObjectSummary.estimateSize("xxxxxxxxxx"));
+	}
+
+	private static MockRemoteWebDriver createDriver(ReturnObjectRetention retention) {
+		if (retention != null)
+			System.setProperty(ListenerConfiguration.RETURN_OBJECT_RETENTION, retention.name());
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+			return driver;
+		} finally {
+			System.clearProperty(ListenerConfiguration.RETURN_OBJECT_RETENTION);
+		}
+	}
+
+	private static FullListener getFullListener(MockRemoteWebDriver driver) {
+		return (FullListener) EventDispatcher.getInstance(driver).getImmutableListOfEventListeners().stream()
+				.filter(l -> l instanceof FullListener).findFirst().get();
+	}
+
+	private static WebDriverEvent getAfterEvent(FullListener listener, Cmd cmd) {
+		List<WebDriverEvent> events = listener.getListOfEventsRecorded().stream()
+				.filter(e -> e.getCmd() == cmd && e.getTypeOfLog() == Type.AfterGather).collect(Collectors.toList());
+		return events.get(events.size() - 1);
+	}
+}
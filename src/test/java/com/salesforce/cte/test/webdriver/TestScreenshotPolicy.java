@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.admin.TestAdvisorAdministrator;
+import com.salesforce.cte.common.TestEvent;
+import com.salesforce.cte.common.TestEventType;
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.ScreenshotListener;
+import com.salesforce.cte.listener.selenium.ScreenshotPolicy;
+import com.salesforce.cte.listener.selenium.ScreenshotPolicy.Mode;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Type;
+
+public class TestScreenshotPolicy {
+	private static final String CAPTURE_SCREENSHOT = "testadvisor.capturescreenshot";
+	private static final long ONE_HOUR = 3600000L;
+
+	@Test
+	public void testMaxPerPage() {
+		ScreenshotPolicy policy = new ScreenshotPolicy(0L, 2, Collections.emptyMap());
+		assertTrue(policy.isSampling());
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertFalse(policy.shouldCapture(Cmd.clickByElement));
+
+		// same URL, same page
+		policy.onCurrentUrl("https://example.com/a");
+		policy.onCurrentUrl("https://example.com/a");
+		assertFalse(policy.shouldCapture(Cmd.submit));
+		policy.onCurrentUrl("https://example.com/b");
+		assertTrue(policy.shouldCapture(Cmd.submit));
+		assertTrue(policy.shouldCapture(Cmd.submit));
+		assertFalse(policy.shouldCapture(Cmd.submit));
+		assertEquals(policy.getScreenshots(), 4L);
+		assertEquals(policy.getSkippedScreenshots(), 3L);
+	}
+
+	@Test
+	public void testMinIntervalWithFirstActionAfterNavigation() {
+		ScreenshotPolicy policy = new ScreenshotPolicy(ONE_HOUR, 0, Collections.emptyMap());
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertFalse(policy.shouldCapture(Cmd.clickByElement));
+		policy.onNavigation(null);
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertFalse(policy.shouldCapture(Cmd.clickByElement));
+	}
+
+	@Test
+	public void testEveryActionAfterException() {
+		ScreenshotPolicy policy = new ScreenshotPolicy(ONE_HOUR, 1, Collections.emptyMap());
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertFalse(policy.shouldCapture(Cmd.clickByElement));
+		policy.onException();
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+
+		// the next test case starts without exception
+		policy.reset();
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertFalse(policy.shouldCapture(Cmd.clickByElement));
+	}
+
+	@Test
+	public void testModePerCommand() {
+		Map<Cmd, Mode> modes = new EnumMap<>(Cmd.class);
+		modes.put(Cmd.submit, Mode.ALWAYS);
+		modes.put(Cmd.clear, Mode.NEVER);
+		ScreenshotPolicy policy = new ScreenshotPolicy(ONE_HOUR, 1, modes);
+		assertFalse(policy.shouldCapture(Cmd.clear));
+		assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		assertFalse(policy.shouldCapture(Cmd.clickByElement));
+		assertTrue(policy.shouldCapture(Cmd.submit));
+		assertTrue(policy.shouldCapture(Cmd.submit));
+		policy.onException();
+		assertFalse(policy.shouldCapture(Cmd.clear));
+	}
+
+	@Test
+	public void testConfiguredPolicy() {
+		String policyOfClear = String.format(ListenerConfiguration.SCREENSHOT_POLICY, Cmd.clear.name());
+		System.setProperty(policyOfClear, "never");
+		try {
+			ScreenshotPolicy policy = ScreenshotPolicy.getConfiguredInstance();
+			assertFalse(policy.isSampling());
+			assertFalse(policy.shouldCapture(Cmd.clear));
+			assertTrue(policy.shouldCapture(Cmd.clickByElement));
+			assertTrue(policy.shouldCapture(Cmd.clickByElement));
+		} finally {
+			System.clearProperty(policyOfClear);
+		}
+	}
+
+	@Test
+	public void testSampledScreenshotsOfSession() {
+		String captureScreenshot = System.getProperty(CAPTURE_SCREENSHOT);
+		System.setProperty(CAPTURE_SCREENSHOT, "true");
+		System.setProperty(ListenerConfiguration.SCREENSHOT_MAX_PER_PAGE, "1");
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+			int numOfScreenshotsBefore = getScreenshotEvents().size();
+
+			// captured: first action of the session and first action after navigation
+			mce.setCurrentUrl("https://example.com/a");
+			driver.get("https://example.com/a");
+			WebElement element = driver.findElement(By.id("someId"));
+			element.click();
+			// skipped: maximum per page reached
+			element.click();
+			element.click();
+			// getTitle is not captured, so the exception is not absorbed by taking a screenshot
+			MockCommandExecutor.setDoTriggerWebDriverException();
+			try {
+				driver.getTitle();
+				fail("getTitle did not throw");
+			} catch (WebDriverException e) {
+				// expected
+			}
+			// captured: every action after an exception
+			element.click();
+			element.click();
+
+			assertEquals(getScreenshotEvents().size() - numOfScreenshotsBefore, 4);
+			ScreenshotPolicy policy = getScreenshotListener(driver).getScreenshotPolicy();
+			assertEquals(policy.getScreenshots(), 4L);
+			assertEquals(policy.getSkippedScreenshots(), 2L);
+			driver.quit();
+		} finally {
+			if (captureScreenshot == null)
+				System.clearProperty(CAPTURE_SCREENSHOT);
+			else
+				System.setProperty(CAPTURE_SCREENSHOT, captureScreenshot);
+			System.clearProperty(ListenerConfiguration.SCREENSHOT_MAX_PER_PAGE);
+		}
+	}
+
+	@Test
+	public void testFirstActionAfterUrlChangeIsCaptured() {
+		String captureScreenshot = System.getProperty(CAPTURE_SCREENSHOT);
+		System.setProperty(CAPTURE_SCREENSHOT, "true");
+		System.setProperty(ListenerConfiguration.SCREENSHOT_MAX_PER_PAGE, "1");
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+			int numOfScreenshotsBefore = getScreenshotEvents().size();
+
+			mce.setCurrentUrl("https://example.com/a");
+			WebElement element = driver.findElement(By.id("someId"));
+			element.click();
+			element.click();
+			// e.g. a link changed the page, the screenshot listener is called before any other listener reads the URL
+			mce.setCurrentUrl("https://example.com/b");
+			element.click();
+
+			assertEquals(getScreenshotEvents().size() - numOfScreenshotsBefore, 2);
+			ScreenshotPolicy policy = getScreenshotListener(driver).getScreenshotPolicy();
+			assertEquals(policy.getScreenshots(), 2L);
+			assertEquals(policy.getSkippedScreenshots(), 1L);
+			// the URL read for the policy is shared with the test step listener, i.e. it is read once per click
+			List<WebDriverEvent> events = ((FullListener) EventDispatcher.getInstance(driver).getImmutableListOfEventListeners().get(0))
+					.getListOfEventsRecorded();
+			assertEquals(events.stream().filter(event -> event.getCmd() == Cmd.getCurrentUrl && event.getTypeOfLog() == Type.BeforeGather).count(), 3L);
+			driver.quit();
+		} finally {
+			if (captureScreenshot == null)
+				System.clearProperty(CAPTURE_SCREENSHOT);
+			else
+				System.setProperty(CAPTURE_SCREENSHOT, captureScreenshot);
+			System.clearProperty(ListenerConfiguration.SCREENSHOT_MAX_PER_PAGE);
+		}
+	}
+
+	private static ScreenshotListener getScreenshotListener(MockRemoteWebDriver driver) {
+		return EventDispatcher.getInstance(driver).getImmutableListOfEventListeners().stream()
+				.filter(l -> l instanceof ScreenshotListener).map(l -> (ScreenshotListener) l).findFirst().get();
+	}
+
+	private static List<TestEvent> getScreenshotEvents() {
+		return TestAdvisorAdministrator.getInstance().getTestCaseExecution().getEventList().stream()
+				.filter(event -> event.getEventType() == TestEventType.SCREEN_SHOT).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.imageio.ImageIO;
+
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.admin.TestAdvisorAdministrator;
+import com.salesforce.cte.common.TestCaseExecution;
+import com.salesforce.cte.common.TestEvent;
+import com.salesforce.cte.common.TestEventType;
+import com.salesforce.cte.listener.selenium.AsyncScreenshotWriter;
+import com.salesforce.cte.listener.selenium.ScreenshotProcessor;
+import com.salesforce.cte.listener.selenium.ScreenshotProcessor.Format;
+
+public class TestScreenshotProcessor {
+
+	@Test
+	public void testDownscaleToJpeg() throws IOException {
+		byte[] png = createScreenshot(1600, 1000);
+		byte[] jpeg = new ScreenshotProcessor(800, Format.JPEG, 0.7f, false).process(png);
+
+		assertEquals(jpeg[0], (byte) 0xff);
+		assertEquals(jpeg[1], (byte) 0xd8);
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+		assertEquals(image.getWidth(), 800);
+		assertEquals(image.getHeight(), 500);
+		assertTrue(jpeg.length < png.length);
+	}
+
+	@Test
+	public void testGrayscalePng() throws IOException {
+		byte[] png = createScreenshot(300, 200);
+		byte[] gray = new ScreenshotProcessor(0, Format.PNG, 0.8f, true).process(png);
+
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(gray));
+		assertEquals(image.getWidth(), 300);
+		assertEquals(image.getRaster().getNumBands(), 1);
+	}
+
+	@Test
+	public void testUndecodableScreenshotIsKept() throws IOException {
+		byte[] notAnImage = "AllIsWell".getBytes();
+		assertEquals(new ScreenshotProcessor(100, Format.JPEG, 0.8f, true).process(notAnImage), notAnImage);
+	}
+
+	@Test
+	public void testProcessedScreenshotsAreWrittenInOrder() throws IOException {
+		AsyncScreenshotWriter writer = new AsyncScreenshotWriter(2, null, new ScreenshotProcessor(100, Format.JPEG, 0.8f, false));
+		TestCaseExecution testCase = TestAdvisorAdministrator.getInstance().getTestCaseExecution();
+		int numOfScreenshotsBefore = getScreenshotEvents().size();
+		String base64Png = Base64.getEncoder().encodeToString(createScreenshot(400, 300));
+		for (int i = 0; i < 8; i++)
+			writer.submit(base64Png, new TestEvent(TestEventType.SCREEN_SHOT, "screenshot " + i, "INFO"), testCase);
+		writer.shutdown();
+
+		List<TestEvent> screenshotEvents = getScreenshotEvents();
+		assertEquals(screenshotEvents.size(), numOfScreenshotsBefore + 8);
+		for (int i = 0; i < 8; i++) {
+			TestEvent screenshotEvent = screenshotEvents.get(numOfScreenshotsBefore + i);
+			assertEquals(screenshotEvent.getEventContent(), "screenshot " + i);
+			assertTrue(screenshotEvent.getScreenshotPath().endsWith(".jpg"));
+			assertEquals(ImageIO.read(new File(screenshotEvent.getScreenshotPath())).getWidth(), 100);
+			Files.delete(new File(screenshotEvent.getScreenshotPath()).toPath());
+		}
+	}
+
+	@Test
+	public void testProcessingPoolIsSharedBySessions() throws IOException {
+		ScreenshotProcessor processor = new ScreenshotProcessor(100, Format.JPEG, 0.8f, false);
+		TestCaseExecution testCase = TestAdvisorAdministrator.getInstance().getTestCaseExecution();
+		String base64Png = Base64.getEncoder().encodeToString(createScreenshot(400, 300));
+		List<AsyncScreenshotWriter> writers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			AsyncScreenshotWriter writer = new AsyncScreenshotWriter(2, null, processor);
+			writer.submit(base64Png, new TestEvent(TestEventType.SCREEN_SHOT, "session " + i, "INFO"), testCase);
+			writers.add(writer);
+		}
+		long processingThreads = Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.getName().equals("TestAdvisor screenshot processor")).count();
+		assertTrue(processingThreads <= Runtime.getRuntime().availableProcessors());
+
+		// a session quitting does not stop processing for the others
+		writers.get(0).shutdown();
+		for (AsyncScreenshotWriter writer : writers.subList(1, writers.size())) {
+			writer.submit(base64Png, new TestEvent(TestEventType.SCREEN_SHOT, "more", "INFO"), testCase);
+			writer.shutdown();
+			assertEquals(writer.getWrittenScreenshots(), 2L);
+		}
+	}
+
+	private static byte[] createScreenshot(int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, width, height);
+		graphics.setColor(Color.BLUE);
+		for (int x = 0; x < width; x += 20)
+			graphics.drawLine(x, 0, width - x, height);
+		graphics.dispose();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", bytes);
+		return bytes.toByteArray();
+	}
+
+	private static List<TestEvent> getScreenshotEvents() {
+		return TestAdvisorAdministrator.getInstance().getTestCaseExecution().getEventList().stream()
+				.filter(event -> event.getEventType() == TestEventType.SCREEN_SHOT).collect(Collectors.toList());
+	}
+}
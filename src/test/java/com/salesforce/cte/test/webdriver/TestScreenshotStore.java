@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.admin.TestAdvisorAdministrator;
+import com.salesforce.cte.common.TestEvent;
+import com.salesforce.cte.common.TestEventType;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.ScreenshotStore;
+
+public class TestScreenshotStore {
+	private static final String CAPTURE_SCREENSHOT = "testadvisor.capturescreenshot";
+
+	@Test
+	public void testIdenticalScreenshotsAreStoredOnce() throws IOException {
+		ScreenshotStore store = ScreenshotStore.forDirectory(Files.createTempDirectory("screenshots").toFile());
+		byte[] page = { (byte) 0x89, 'P', 'N', 'G', 1 };
+		byte[] otherPage = { (byte) 0x89, 'P', 'N', 'G', 2 };
+
+		File file = store.store(page);
+		assertEquals(store.store(page.clone()), file);
+		assertNotEquals(store.store(otherPage), file);
+		assertEquals(Files.readAllBytes(file.toPath()), page);
+		// sharded by the first characters of the hash
+		assertEquals(file.getParentFile().getParentFile(), store.getDirectory());
+		assertTrue(file.getName().startsWith(file.getParentFile().getName()));
+
+		assertEquals(store.getScreenshots(), 3L);
+		assertEquals(store.getDuplicates(), 1L);
+		assertEquals(store.getBytesSaved(), 5L);
+		assertEquals(store.getBytesWritten(), 10L);
+		assertEquals(store.getDeduplicationRatio(), 1.0 / 3.0, 1e-9);
+	}
+
+	@Test
+	public void testFileExistsOnceStoreReturns() throws Exception {
+		ScreenshotStore store = ScreenshotStore.forDirectory(Files.createTempDirectory("screenshots").toFile());
+		byte[] page = new byte[1 << 20];
+		page[0] = (byte) 0x89;
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++)
+				results.add(pool.submit(() -> store.store(page.clone()).length() == page.length));
+			// threads which found the hash known still get a file which has been written completely
+			for (Future<Boolean> result : results)
+				assertTrue(result.get());
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(store.getDuplicates(), 7L);
+		assertEquals(store.getBytesWritten(), (long) page.length);
+	}
+
+	@Test
+	public void testScreenshotsOfUnchangedPageShareFile() throws IOException {
+		File directory = Files.createTempDirectory("screenshots").toFile();
+		String captureScreenshot = System.getProperty(CAPTURE_SCREENSHOT);
+		System.setProperty(CAPTURE_SCREENSHOT, "true");
+		System.setProperty(ListenerConfiguration.SCREENSHOT_DIR, directory.getAbsolutePath());
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+			int numOfScreenshotsBefore = getScreenshotEvents().size();
+
+			WebElement element = driver.findElement(By.id("someId"));
+			for (int i = 0; i < 5; i++)
+				element.click();
+			driver.quit();
+
+			List<TestEvent> screenshotEvents = getScreenshotEvents();
+			screenshotEvents = screenshotEvents.subList(numOfScreenshotsBefore, screenshotEvents.size());
+			assertEquals(screenshotEvents.size(), 5);
+			for (TestEvent screenshotEvent : screenshotEvents)
+				assertEquals(screenshotEvent.getScreenshotPath(), screenshotEvents.get(0).getScreenshotPath());
+			ScreenshotStore store = ScreenshotStore.forDirectory(directory);
+			assertEquals(store.getScreenshots(), 5L);
+			assertEquals(store.getDuplicates(), 4L);
+		} finally {
+			if (captureScreenshot == null)
+				System.clearProperty(CAPTURE_SCREENSHOT);
+			else
+				System.setProperty(CAPTURE_SCREENSHOT, captureScreenshot);
+			System.clearProperty(ListenerConfiguration.SCREENSHOT_DIR);
+		}
+	}
+
+	private static List<TestEvent> getScreenshotEvents() {
+		return TestAdvisorAdministrator.getInstance().getTestCaseExecution().getEventList().stream()
+				.filter(event -> event.getEventType() == TestEventType.SCREEN_SHOT).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+import com.salesforce.cte.listener.selenium.StringDictionary;
+import com.salesforce.cte.listener.selenium.WebDriverEvent;
+import com.salesforce.cte.listener.selenium.WebDriverEvent.Cmd;
+
+public class TestStringDictionary {
+
+	@Test
+	public void testRecurringScriptsAreShared() {
+		MockRemoteWebDriver driver = createDriver("16");
+		for (int i = 0; i < 3; i++)
+			driver.executeScript(new String("return document.readyState;"));
+
+		List<WebDriverEvent> events = getEventsRecorded(driver, Cmd.executeScript);
+		assertEquals(events.size(), 6);
+		for (WebDriverEvent event : events)
+			assertSame(event.getParam1(), events.get(0).getParam1());
+		StringDictionary dictionary = EventDispatcher.getInstance(driver).getDictionary();
+		int id = dictionary.getId("return document.readyState;");
+		assertSame(dictionary.get(id), events.get(0).getParam1());
+		driver.quit();
+	}
+
+	@Test
+	public void testLocatorsOfSeveralElementsAreShared() {
+		MockRemoteWebDriver driver = createDriver("16");
+		EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+		List<WebElement> elements = Arrays.asList(driver.findElement(By.id("row")), driver.findElement(By.id("row")));
+		for (int i = 0; i < 2; i++)
+			dispatcher.afterFindElements(elements, By.id("row"));
+
+		List<WebDriverEvent> events = getEventsRecorded(driver, Cmd.findElements);
+		assertEquals(events.size(), 2);
+		assertTrue(events.get(0).getReturnValue().endsWith(" and 1 more"));
+		assertSame(events.get(1).getReturnValue(), events.get(0).getReturnValue());
+		assertTrue(dispatcher.getDictionary().getId(events.get(0).getReturnValue()) >= 0);
+		driver.quit();
+	}
+
+	@Test
+	public void testOnlyLocatorsScriptsAndUrlsAreInterned() {
+		MockRemoteWebDriver driver = createDriver("16");
+		driver.getTitle();
+		driver.getTitle();
+
+		List<WebDriverEvent> events = getEventsRecorded(driver, Cmd.getTitle);
+		assertEquals(events.get(events.size() - 1).getReturnValue(), MockCommandExecutor.STATE_OK);
+		StringDictionary dictionary = EventDispatcher.getInstance(driver).getDictionary();
+		for (int id = 0; id < dictionary.size(); id++)
+			assertNotEquals(dictionary.get(id), MockCommandExecutor.STATE_OK);
+		driver.quit();
+	}
+
+	@Test
+	public void testStringsAreNotInternedByDefault() {
+		MockRemoteWebDriver driver = createDriver(null);
+		assertNull(EventDispatcher.getInstance(driver).getDictionary());
+		driver.quit();
+	}
+
+	@Test
+	public void testDictionaryIsBounded() {
+		StringDictionary dictionary = new StringDictionary(2);
+		String first = dictionary.intern(new String("By.id(\"first\")"));
+		assertSame(dictionary.intern(new String("By.id(\"first\")")), first);
+		assertEquals(dictionary.getId("By.id(\"first\")"), 0);
+		assertEquals(dictionary.getId("By.id(\"second\")"), 1);
+
+		// full, so further strings are returned as they are
+		String third = new String("By.id(\"third\")");
+		assertSame(dictionary.intern(third), third);
+		assertNotSame(dictionary.intern(new String("By.id(\"third\")")), third);
+		assertEquals(dictionary.getId(third), -1);
+		assertEquals(dictionary.size(), 2);
+		assertEquals(dictionary.get(1), "By.id(\"second\")");
+		assertNull(dictionary.get(2));
+		assertNull(dictionary.intern(null));
+	}
+
+	private static MockRemoteWebDriver createDriver(String dictionarySize) {
+		if (dictionarySize != null)
+			System.setProperty(ListenerConfiguration.DICTIONARY_SIZE, dictionarySize);
+		try {
+			MutableCapabilities mcap = new MutableCapabilities();
+			mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+			MockCommandExecutor mce = new MockCommandExecutor();
+			MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+			mce.setRemoteWebDriver(driver);
+			return driver;
+		} finally {
+			System.clearProperty(ListenerConfiguration.DICTIONARY_SIZE);
+		}
+	}
+
+	private static List<WebDriverEvent> getEventsRecorded(MockRemoteWebDriver driver, Cmd cmd) {
+		FullListener listener = (FullListener) EventDispatcher.getInstance(driver).getImmutableListOfEventListeners().stream()
+				.filter(l -> l instanceof FullListener).findFirst().get();
+		return listener.getListOfEventsRecorded().stream()
+				.filter(e -> e.getCmd() == cmd).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021, salesforce.com, inc.
+ * All rights reserved.
+ * SPDX-License-Identifier: BSD-3-Clause
+ * For full license text, see the LICENSE file in the repo root or https://opensource.org/licenses/BSD-3-Clause
+ */
+
+package com.salesforce.cte.test.webdriver;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.annotations.Test;
+
+import com.salesforce.cte.listener.selenium.EventDispatcher;
+import com.salesforce.cte.listener.selenium.FullListener;
+import com.salesforce.cte.listener.selenium.JsonLinesEventSink;
+import com.salesforce.cte.listener.selenium.ListenerConfiguration;
+
+public class TestTestCaseSegmentation {
+
+	@Test
+	public void testEventsAreReleasedPerTestCase() throws IOException {
+		File directory = Files.createTempDirectory("events").toFile();
+		System.setProperty(ListenerConfiguration.SEGMENTATION, "true");
+		System.setProperty(ListenerConfiguration.JSON_LINES_DIR, directory.getAbsolutePath());
+		MockRemoteWebDriver driver;
+		try {
+			driver = createDriver();
+		} finally {
+			System.clearProperty(ListenerConfiguration.SEGMENTATION);
+			System.clearProperty(ListenerConfiguration.JSON_LINES_DIR);
+		}
+		EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+		FullListener listener = getFullListener(dispatcher);
+		JsonLinesEventSink sink = (JsonLinesEventSink) dispatcher.getImmutableListOfEventSinks().stream()
+				.filter(s -> s instanceof JsonLinesEventSink).findFirst().get();
+
+		for (int i = 0; i < 3; i++)
+			driver.getTitle();
+		assertEquals(listener.getListOfEventsRecorded().size(), 6);
+		File firstFile = sink.getFile();
+
+		dispatcher.finishTestCase();
+		assertEquals(listener.getListOfEventsRecorded().size(), 0);
+		// the segment of the finished test case has been written
+		assertEquals(Files.readAllLines(firstFile.toPath(), StandardCharsets.UTF_8).size(), 6);
+
+		driver.getTitle();
+		assertEquals(listener.getListOfEventsRecorded().size(), 2);
+		assertNotEquals(sink.getFile(), firstFile);
+		driver.quit();
+	}
+
+	@Test
+	public void testEventsAreKeptWithoutSegmentation() {
+		MockRemoteWebDriver driver = createDriver();
+		EventDispatcher dispatcher = EventDispatcher.getInstance(driver);
+		FullListener listener = getFullListener(dispatcher);
+
+		driver.getTitle();
+		dispatcher.finishTestCase();
+		driver.getTitle();
+		assertEquals(listener.getListOfEventsRecorded().size(), 4);
+		driver.quit();
+	}
+
+	private static MockRemoteWebDriver createDriver() {
+		MutableCapabilities mcap = new MutableCapabilities();
+		mcap.setCapability(CapabilityType.SUPPORTS_JAVASCRIPT, "true");
+		MockCommandExecutor mce = new MockCommandExecutor();
+		MockRemoteWebDriver driver = new MockRemoteWebDriver(mce, mcap);
+		mce.setRemoteWebDriver(driver);
+		return driver;
+	}
+
+	private static FullListener getFullListener(EventDispatcher dispatcher) {
+		return (FullListener) dispatcher.getImmutableListOfEventListeners().stream()
+				.filter(l -> l instanceof FullListener).findFirst().get();
+	}
+}